@@ -3,6 +3,8 @@ package net.mysterria.translator;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.mysterria.translator.command.LangCommand;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.HttpTransport;
 import net.mysterria.translator.engine.gemini.GeminiClient;
 import net.mysterria.translator.engine.google.GoogleClient;
 import net.mysterria.translator.engine.libretranslate.LibreTranslateClient;
@@ -21,11 +23,15 @@ import net.mysterria.translator.storage.impl.YamlPlayerLangStorage;
 import net.mysterria.translator.translation.RateLimitManager;
 import net.mysterria.translator.translation.TranslationManager;
 import net.mysterria.translator.util.ConfigValidator;
+import net.mysterria.translator.util.LanguageDetector;
+import net.mysterria.translator.util.PlayerNameIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -38,6 +44,8 @@ public class MysterriaTranslator extends JavaPlugin {
     private LangManager langManager;
     private PromptManager promptManager;
     private RateLimitManager suspensionManager;
+    private HttpTransport httpTransport;
+    private PlayerNameIndex playerNameIndex;
     private TranslationManager translationManager;
 
     private FileConfiguration messagesConfig;
@@ -67,27 +75,31 @@ public class MysterriaTranslator extends JavaPlugin {
         saveDefaultConfig();
         saveDefaultMessagesConfig();
         saveDefaultExamples();
+        loadLanguageProfiles();
 
         initDatabase();
         int suspensionMinutes = getConfig().getInt("translation.rateLimitSuspensionMinutes", 20);
         this.suspensionManager = new RateLimitManager(this, suspensionMinutes);
         this.promptManager = new PromptManager(this);
+        this.httpTransport = new HttpTransport(this);
+        this.playerNameIndex = new PlayerNameIndex();
+        getServer().getOnlinePlayers().forEach(player -> playerNameIndex.add(player.getName()));
 
-        this.ollamaClient = new OllamaClient(this, promptManager, getConfig().getString("translation.ollama.url"), getConfig().getString("translation.ollama.model"), getConfig().getString("translation.ollama.apiKey"));
+        this.ollamaClient = new OllamaClient(this, promptManager, suspensionManager, httpTransport, getConfig().getString("translation.ollama.url"), getConfig().getString("translation.ollama.model"), CredentialPool.configuredKeys(getConfig(), "ollama"));
 
-        this.libreTranslateClient = new LibreTranslateClient(this,
+        this.libreTranslateClient = new LibreTranslateClient(this, suspensionManager, httpTransport,
                 getConfig().getString("translation.libretranslate.url"),
-                getConfig().getString("translation.libretranslate.apiKey"),
+                CredentialPool.configuredKeys(getConfig(), "libretranslate"),
                 getConfig().getInt("translation.libretranslate.alternatives", 3),
                 getConfig().getString("translation.libretranslate.format", "text"));
-        this.geminiClient = new GeminiClient(this, promptManager, suspensionManager, getConfig().getStringList("translation.gemini.apiKeys"));
+        this.geminiClient = new GeminiClient(this, promptManager, suspensionManager, httpTransport, CredentialPool.configuredKeys(getConfig(), "gemini"));
 
-        this.openAIClient = new OpenAIClient(this, promptManager,
+        this.openAIClient = new OpenAIClient(this, promptManager, suspensionManager, httpTransport,
                 getConfig().getString("translation.openai.baseUrl", "https://api.openai.com/v1"),
                 getConfig().getString("translation.openai.model", "gpt-4o-mini"),
-                getConfig().getString("translation.openai.apiKey", ""));
+                CredentialPool.configuredKeys(getConfig(), "openai"));
 
-        this.googleClient = new GoogleClient(this);
+        this.googleClient = new GoogleClient(this, suspensionManager, httpTransport);
 
         this.langManager = new LangManager(this, storage);
 
@@ -113,11 +125,11 @@ public class MysterriaTranslator extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(langManager, this), this);
 
         if (Bukkit.getPluginManager().getPlugin("ChatControl") != null) {
-            getServer().getPluginManager().registerEvents(new ChatControlListener(this, translationManager), this);
+            getServer().getPluginManager().registerEvents(new ChatControlListener(this), this);
             log("Registered ChatControl integration listener.");
         } else {
 
-            getServer().getPluginManager().registerEvents(new BukkitChatListener(this, translationManager), this);
+            getServer().getPluginManager().registerEvents(new BukkitChatListener(this), this);
             log("ChatControl not found, using Bukkit events fallback.");
         }
 
@@ -125,6 +137,16 @@ public class MysterriaTranslator extends JavaPlugin {
         log("\u001B[1;32mPlugin loaded successfully in " + (endTime - startTime) + "ms\u001B[0m");
     }
 
+    @Override
+    public void onDisable() {
+        if (translationManager != null) {
+            translationManager.shutdown();
+        }
+        if (httpTransport != null) {
+            httpTransport.shutdown();
+        }
+    }
+
     private void initDatabase() {
         String storageType = getConfig().getString("storage.type", "yaml").toLowerCase();
         log("Loading storage...");
@@ -181,6 +203,18 @@ public class MysterriaTranslator extends JavaPlugin {
         }
     }
 
+    private void loadLanguageProfiles() {
+        try (InputStream profiles = getResource("language-profiles.txt")) {
+            if (profiles == null) {
+                getLogger().warning("language-profiles.txt is missing, languages sharing a script will not be told apart");
+                return;
+            }
+            LanguageDetector.loadProfiles(profiles);
+        } catch (IOException e) {
+            getLogger().warning("Failed to load language profiles, languages sharing a script will not be told apart: " + e.getMessage());
+        }
+    }
+
     private void saveDefaultExamples() {
         File langsFolder = new File(getDataFolder(), "langs");
         if (!langsFolder.exists()) langsFolder.mkdirs();
@@ -200,6 +234,18 @@ public class MysterriaTranslator extends JavaPlugin {
         return langManager;
     }
 
+    public TranslationManager getTranslationManager() {
+        return translationManager;
+    }
+
+    public HttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+
     public void log(String message) {
         Bukkit.getConsoleSender().sendMessage(Component.text("[MysterriaTranslator]").color(NamedTextColor.AQUA).append(Component.text(" " + message).color(NamedTextColor.WHITE)));
     }
@@ -242,6 +288,9 @@ public class MysterriaTranslator extends JavaPlugin {
         if (translationManager != null) {
             translationManager.shutdown();
         }
+        if (httpTransport != null) {
+            httpTransport.shutdown();
+        }
 
         this.ollamaClient = null;
         this.libreTranslateClient = null;
@@ -257,7 +306,7 @@ public class MysterriaTranslator extends JavaPlugin {
 
         int suspensionMinutes = getConfig().getInt("translation.rateLimitSuspensionMinutes", 20);
         this.suspensionManager = new RateLimitManager(this, suspensionMinutes);
-        log("Reset rate limit suspension manager (suspension duration: " + suspensionMinutes + " minutes)");
+        log("Reset rate limit suspension manager (maximum suspension: " + suspensionMinutes + " minutes)");
 
         String providerConfig = getConfig().getString("translation.provider", "ollama");
         List<String> enabledProviders = Arrays.stream(providerConfig.split(","))
@@ -269,19 +318,20 @@ public class MysterriaTranslator extends JavaPlugin {
         log("Reloading with providers: " + String.join(", ", enabledProviders));
 
         try {
-            this.geminiClient = new GeminiClient(this, promptManager, suspensionManager, getConfig().getStringList("translation.gemini.apiKeys"));
-            this.ollamaClient = new OllamaClient(this, promptManager, getConfig().getString("translation.ollama.url"), getConfig().getString("translation.ollama.model"), getConfig().getString("translation.ollama.apiKey"));
-            this.libreTranslateClient = new LibreTranslateClient(this,
+            this.httpTransport = new HttpTransport(this);
+            this.geminiClient = new GeminiClient(this, promptManager, suspensionManager, httpTransport, CredentialPool.configuredKeys(getConfig(), "gemini"));
+            this.ollamaClient = new OllamaClient(this, promptManager, suspensionManager, httpTransport, getConfig().getString("translation.ollama.url"), getConfig().getString("translation.ollama.model"), CredentialPool.configuredKeys(getConfig(), "ollama"));
+            this.libreTranslateClient = new LibreTranslateClient(this, suspensionManager, httpTransport,
                     getConfig().getString("translation.libretranslate.url"),
-                    getConfig().getString("translation.libretranslate.apiKey"),
+                    CredentialPool.configuredKeys(getConfig(), "libretranslate"),
                     getConfig().getInt("translation.libretranslate.alternatives", 3),
                     getConfig().getString("translation.libretranslate.format", "text"));
-            this.openAIClient = new OpenAIClient(this, promptManager,
+            this.openAIClient = new OpenAIClient(this, promptManager, suspensionManager, httpTransport,
                     getConfig().getString("translation.openai.baseUrl", "https://api.openai.com/v1"),
                     getConfig().getString("translation.openai.model", "gpt-4o-mini"),
-                    getConfig().getString("translation.openai.apiKey", ""));
+                    CredentialPool.configuredKeys(getConfig(), "openai"));
 
-            this.googleClient = new GoogleClient(this);
+            this.googleClient = new GoogleClient(this, suspensionManager, httpTransport);
 
             this.translationManager = new TranslationManager(this, suspensionManager,
                     ollamaClient, libreTranslateClient, geminiClient, openAIClient, googleClient);
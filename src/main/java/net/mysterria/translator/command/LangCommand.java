@@ -4,7 +4,19 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.manager.LangManager;
+import net.mysterria.translator.translation.CircuitBreaker;
+import net.mysterria.translator.translation.LoadGovernor;
+import net.mysterria.translator.translation.NegativeTranslationCache;
+import net.mysterria.translator.translation.ProviderFallbackHandler;
+import net.mysterria.translator.translation.ProviderRouter;
+import net.mysterria.translator.translation.TranslationCache;
+import net.mysterria.translator.translation.TranslationCoalescer;
+import net.mysterria.translator.translation.TranslationManager;
+import net.mysterria.translator.translation.TranslationScheduler;
 import net.mysterria.translator.util.ConfigValidator;
 import net.mysterria.translator.util.MessageSerializer;
 import org.bukkit.Bukkit;
@@ -24,7 +36,7 @@ import java.util.stream.Collectors;
 public class LangCommand implements CommandExecutor, TabCompleter {
 
     private static final String PERMISSION_ADMIN = "mtranslator.admin";
-    private static final List<String> SUBCOMMANDS = Arrays.asList("help", "reload", "set", "get", "list");
+    private static final List<String> SUBCOMMANDS = Arrays.asList("help", "reload", "set", "get", "list", "stats");
 
     private final LangManager langManager;
     private final MysterriaTranslator plugin;
@@ -65,6 +77,9 @@ public class LangCommand implements CommandExecutor, TabCompleter {
             case "list":
                 handleList(sender);
                 break;
+            case "stats":
+                handleStats(sender);
+                break;
             default:
                 sender.sendMessage(MessageSerializer.getMessage(plugin.getMessagesConfig(), "unknown_subcommand"));
                 break;
@@ -248,6 +263,92 @@ public class LangCommand implements CommandExecutor, TabCompleter {
         ));
     }
 
+    /**
+     * Handles /lang stats command
+     * Shows translation cache, request coalescing, engine executor and HTTP host counters
+     */
+    private void handleStats(@NotNull CommandSender sender) {
+        TranslationManager translationManager = plugin.getTranslationManager();
+        if (translationManager == null) {
+            sender.sendMessage(MessageSerializer.getMessage(plugin.getMessagesConfig(), "translation.service_unavailable"));
+            return;
+        }
+
+        TranslationCache.Stats cache = translationManager.getCacheStats();
+        TranslationCoalescer.Stats coalescer = translationManager.getCoalescerStats();
+
+        sender.sendMessage(Component.empty());
+        sender.sendMessage(Component.text("Translation statistics").color(NamedTextColor.AQUA).decorate(TextDecoration.BOLD));
+        sender.sendMessage(statLine("Cache entries", cache.size() + " (" + cache.weightBytes() / 1024 + " KB)"));
+        sender.sendMessage(statLine("Cache hit rate", String.format("%.1f%%", cache.hitRate() * 100)
+                + " (" + cache.hits() + " memory, " + cache.diskHits() + " disk, " + cache.misses() + " misses)"));
+        sender.sendMessage(statLine("Cache evictions", String.valueOf(cache.evictions())));
+        sender.sendMessage(statLine("Disk cache entries", String.valueOf(cache.diskSize())));
+        NegativeTranslationCache.Stats negativeCache = translationManager.getNegativeCacheStats();
+        sender.sendMessage(statLine("Negative cache", negativeCache.size() + " entries, " + negativeCache.hits() + " calls skipped"));
+        sender.sendMessage(statLine("Provider calls", coalescer.startedCalls() + " started, "
+                + coalescer.savedCalls() + " saved by coalescing, " + coalescer.inFlight() + " in flight"));
+        for (ProviderRouter.Stats route : translationManager.getRoutingStats()) {
+            sender.sendMessage(statLine("Provider " + route.provider(), route.latencyMillis() + " ms avg, "
+                    + String.format("%.0f%%", route.successRate() * 100) + " ok, "
+                    + String.format("%.1f", route.recentTimeouts()) + " recent timeouts"));
+        }
+        for (CircuitBreaker.Snapshot breaker : translationManager.getBreakerStates()) {
+            String state = breaker.state().name().toLowerCase().replace('_', '-');
+            if (breaker.state() == CircuitBreaker.State.OPEN) {
+                state += " for " + Math.max(breaker.remainingMillis() / 1000, 1) + "s";
+            }
+            sender.sendMessage(statLine("Circuit " + breaker.name(), state + " ("
+                    + String.format("%.0f%%", breaker.failureRate() * 100) + " failed, "
+                    + String.format("%.0f%%", breaker.slowCallRate() * 100) + " slow)"));
+        }
+        ProviderFallbackHandler.HedgeStats hedging = translationManager.getHedgeStats();
+        if (hedging.enabled()) {
+            sender.sendMessage(statLine("Hedged calls", hedging.hedgedCalls() + " (" + hedging.hedgeWins() + " won by backup)"));
+        }
+        LoadGovernor.Stats load = translationManager.getLoadStats();
+        sender.sendMessage(statLine("Load tier", LoadGovernor.tierName(load.tier()) + " (" + load.queued() + " waiting, "
+                + load.latencyMillis() + " ms latency, " + String.format("%.1f", load.tps()) + " TPS)"));
+        for (TranslationScheduler.Stats queue : translationManager.getSchedulerStats()) {
+            if (queue.dispatched() > 0 || queue.queued() > 0) {
+                sender.sendMessage(statLine("Queue " + queue.priority().name().toLowerCase(), queue.queued() + " waiting, "
+                        + queue.dispatched() + " started, " + queue.shed() + " dropped, " + queue.expired() + " expired, wait "
+                        + queue.averageWaitMillis() + " ms avg/" + queue.maxWaitMillis() + " ms max"));
+            }
+        }
+        for (EngineExecutor.Stats engine : translationManager.getEngineStats()) {
+            sender.sendMessage(statLine("Engine " + engine.engineName(), engine.active() + "/" + engine.maxConcurrency()
+                    + " active, " + engine.queued() + " queued, " + engine.completed() + " completed, "
+                    + engine.rejected() + " rejected"));
+        }
+        for (StreamCutoff.Stats streaming : translationManager.getStreamingStats()) {
+            if (streaming.streams() > 0) {
+                sender.sendMessage(statLine("Streaming " + streaming.engineName(), streaming.firstTokenMillis()
+                        + " ms to first token, " + streaming.cutoffs() + "/" + streaming.streams() + " stopped early"));
+            }
+        }
+        translationManager.getCredentialStats().forEach((provider, keys) -> {
+            if (keys.size() > 1) {
+                sender.sendMessage(statLine("Keys " + provider, keys.stream()
+                        .map(key -> key.keyIdentifier() + " " + key.inFlight() + " in flight/" + key.calls() + " calls")
+                        .collect(Collectors.joining(", "))));
+            }
+        });
+        if (plugin.getHttpTransport() != null) {
+            for (HttpTransport.HostStats host : plugin.getHttpTransport().getHostStats()) {
+                sender.sendMessage(statLine("Host " + host.host(), (host.version() != null ? host.version() + ", " : "")
+                        + host.averageLatencyMillis() + " ms avg, " + host.inFlight() + " in flight (peak "
+                        + host.peakInFlight() + "), " + host.requests() + " requests, " + host.failures() + " failed"));
+            }
+        }
+        sender.sendMessage(Component.empty());
+    }
+
+    private Component statLine(String label, String value) {
+        return Component.text("  " + label + ": ").color(NamedTextColor.GRAY)
+                .append(Component.text(value).color(NamedTextColor.WHITE));
+    }
+
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String @NotNull [] args) {
         
@@ -0,0 +1,126 @@
+package net.mysterria.translator.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes batched chat messages as a JSON array for LLM prompts and decodes the model's answer,
+ * either an array of translations (one message, many messages) or an object keyed by language
+ * code (one message, many target languages). Models often wrap JSON in markdown fences or add a
+ * sentence around it, so decoding looks for the outermost array or object in the response.
+ */
+public final class BatchFormat {
+
+    private BatchFormat() {
+    }
+
+    /**
+     * Encodes messages as a JSON array of strings.
+     *
+     * @param messages Messages in batch order
+     * @return JSON array text
+     */
+    public static String encode(List<String> messages) {
+        JsonArray array = new JsonArray();
+        for (String message : messages) {
+            array.add(message);
+        }
+        return array.toString();
+    }
+
+    /**
+     * Decodes a model response into translations in batch order.
+     *
+     * @param response Raw model output
+     * @param expected Number of messages that were sent
+     * @return Translations, or null if the response is not a JSON array of exactly {@code expected} strings
+     */
+    public static List<String> decode(String response, int expected) {
+        if (response == null) {
+            return null;
+        }
+
+        int start = response.indexOf('[');
+        int end = response.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            return null;
+        }
+
+        try {
+            JsonElement element = JsonParser.parseString(response.substring(start, end + 1));
+            if (!element.isJsonArray()) {
+                return null;
+            }
+
+            JsonArray array = element.getAsJsonArray();
+            if (array.size() != expected) {
+                return null;
+            }
+
+            List<String> translations = new ArrayList<>(expected);
+            for (JsonElement item : array) {
+                if (!item.isJsonPrimitive() || !item.getAsJsonPrimitive().isString()) {
+                    return null;
+                }
+                String translation = item.getAsString().trim();
+                if (translation.isEmpty()) {
+                    return null;
+                }
+                translations.add(translation);
+            }
+            return translations;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a multi-target response, a JSON object mapping each language code to its translation.
+     *
+     * @param response Raw model output
+     * @param toLangs  Language codes that were requested
+     * @return Translations keyed by language code for every requested language the model answered,
+     * or null if the response contains none of them
+     */
+    public static Map<String, String> decodeLanguages(String response, List<String> toLangs) {
+        if (response == null) {
+            return null;
+        }
+
+        int start = response.indexOf('{');
+        int end = response.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            return null;
+        }
+
+        try {
+            JsonElement element = JsonParser.parseString(response.substring(start, end + 1));
+            if (!element.isJsonObject()) {
+                return null;
+            }
+
+            JsonObject object = element.getAsJsonObject();
+            Map<String, String> translations = new HashMap<>();
+            for (String toLang : toLangs) {
+                JsonElement item = object.get(toLang);
+                if (item == null || !item.isJsonPrimitive() || !item.getAsJsonPrimitive().isString()) {
+                    continue;
+                }
+                String translation = item.getAsString().trim();
+                if (!translation.isEmpty()) {
+                    translations.put(toLang, translation);
+                }
+            }
+            return translations.isEmpty() ? null : translations;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
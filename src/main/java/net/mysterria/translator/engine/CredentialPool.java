@@ -0,0 +1,259 @@
+package net.mysterria.translator.engine;
+
+import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.exception.RateLimitException;
+import net.mysterria.translator.exception.UnusableAnswerException;
+import net.mysterria.translator.translation.RateLimitManager;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads the calls of one translation engine over its API keys.
+ * <p>
+ * Every call goes to the key with the fewest calls in flight; ties go round-robin, so the keys
+ * take turns and throughput grows with the number of keys. Keys whose circuit breaker is open,
+ * whose request budget is spent or that already run {@code maxConcurrencyPerKey} calls are
+ * skipped. A key that answers with a rate limit is suspended and the call moves on to the next
+ * key. Transport and HTTP status failures are recorded against the key and passed to the caller,
+ * whose retry then lands on a healthier key; an {@link UnusableAnswerException} or a response that
+ * cannot be parsed is the model's fault, not the key's, and is only passed on.
+ * <p>
+ * Engines that work without a key get a pool with a single {@code null} key. It has no breaker of
+ * its own, since the engine's breaker already covers it, and takes its calls from the engine's
+ * budget.
+ */
+public class CredentialPool {
+
+    /**
+     * A call made with one API key.
+     */
+    @FunctionalInterface
+    public interface KeyedCall<T> {
+        /**
+         * @param apiKey        The key to use, or null if the engine has none configured
+         * @param keyIdentifier Identifier of the key for suspensions and budgets, such as "key-0",
+         *                      or null if the engine has none configured
+         */
+        T call(String apiKey, String keyIdentifier) throws IOException, InterruptedException, RateLimitException;
+    }
+
+    private final MysterriaTranslator plugin;
+    private final String engineName;
+    private final RateLimitManager suspensionManager;
+    private final List<Key> keys;
+    private final int maxConcurrencyPerKey;
+    private final AtomicInteger cursor;
+
+    /**
+     * @param plugin            The plugin instance
+     * @param engineName        Engine name, used for suspensions, budgets and messages
+     * @param apiKeys           The engine's keys; an empty list means the engine is used without a key
+     * @param suspensionManager Breakers and budgets of the keys, may be null
+     */
+    public CredentialPool(MysterriaTranslator plugin, String engineName, List<String> apiKeys, RateLimitManager suspensionManager) {
+        this.plugin = plugin;
+        this.engineName = engineName;
+        this.suspensionManager = suspensionManager;
+        this.maxConcurrencyPerKey = plugin.getConfig().getInt("translation." + engineName + ".maxConcurrencyPerKey", 0);
+        this.cursor = new AtomicInteger();
+
+        List<String> configured = apiKeys.isEmpty() ? Collections.singletonList(null) : apiKeys;
+        List<Key> pool = new ArrayList<>(configured.size());
+        for (int i = 0; i < configured.size(); i++) {
+            pool.add(new Key(i, configured.get(i)));
+        }
+        this.keys = List.copyOf(pool);
+    }
+
+    /**
+     * Reads an engine's keys from the {@code apiKeys} list in its config section, or from the
+     * single {@code apiKey} setting if there is no list. Blank keys are left out.
+     *
+     * @param config     The plugin configuration
+     * @param engineName The engine's config section under {@code translation}
+     * @return The configured keys, possibly empty
+     */
+    public static List<String> configuredKeys(FileConfiguration config, String engineName) {
+        List<String> apiKeys = new ArrayList<>();
+        for (String apiKey : config.getStringList("translation." + engineName + ".apiKeys")) {
+            if (apiKey != null && !apiKey.isBlank()) {
+                apiKeys.add(apiKey.trim());
+            }
+        }
+        if (apiKeys.isEmpty()) {
+            String apiKey = config.getString("translation." + engineName + ".apiKey", "");
+            if (apiKey != null && !apiKey.isBlank()) {
+                apiKeys.add(apiKey.trim());
+            }
+        }
+        return apiKeys;
+    }
+
+    /**
+     * Returns the number of keys in the pool.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Makes a call with the least loaded usable key, moving on to the next key while keys answer
+     * with a rate limit.
+     *
+     * @param estimatedTokens Estimated tokens of the call, taken from the key's budget
+     * @param call            The call to make
+     * @return The call's result
+     * @throws RateLimitException         If every key that was tried was rate limited; carries the
+     *                                    earliest time one of them accepts requests again
+     * @throws RejectedExecutionException If no key could be used at all
+     */
+    public <T> T execute(long estimatedTokens, KeyedCall<T> call) throws IOException, InterruptedException, RateLimitException {
+        boolean[] tried = new boolean[keys.size()];
+        int start = Math.floorMod(cursor.getAndIncrement(), keys.size());
+        int suspended = 0;
+        int exhausted = 0;
+        int busy = 0;
+        int rateLimited = 0;
+        long earliestRetryAt = 0;
+
+        Key key;
+        while ((key = leastLoaded(tried, start)) != null) {
+            tried[key.index] = true;
+
+            if (!key.tryAcquire(maxConcurrencyPerKey)) {
+                busy++;
+                continue;
+            }
+            boolean keyed = suspensionManager != null && key.identifier != null;
+            if (keyed && !suspensionManager.tryAcquireKey(engineName, key.identifier)) {
+                key.release();
+                suspended++;
+                continue;
+            }
+            if (suspensionManager != null && !suspensionManager.tryAcquireBudget(engineName, key.identifier, estimatedTokens)) {
+                if (keyed) {
+                    suspensionManager.release(engineName, key.identifier);
+                }
+                key.release();
+                exhausted++;
+                continue;
+            }
+
+            long startMillis = System.currentTimeMillis();
+            try {
+                T result = call.call(key.apiKey, key.identifier);
+                key.calls.increment();
+                if (keyed) {
+                    suspensionManager.recordSuccess(engineName, key.identifier, System.currentTimeMillis() - startMillis);
+                }
+                return result;
+            } catch (RateLimitException e) {
+                if (key.identifier == null) {
+                    // Without keys the rate limit is the engine's, which the caller suspends
+                    throw e;
+                }
+                plugin.debug(engineName + " " + key.identifier + " was rate limited, trying the next key");
+                if (suspensionManager != null) {
+                    suspensionManager.suspend(e.hasApiKeyIdentifier() ? e
+                            : new RateLimitException(engineName, key.identifier, e.getStatusCode(), e.getMessage(), e.getRetryAtMillis()));
+                }
+                rateLimited++;
+                if (e.hasRetryAt() && (earliestRetryAt == 0 || e.getRetryAtMillis() < earliestRetryAt)) {
+                    earliestRetryAt = e.getRetryAtMillis();
+                }
+            } catch (InterruptedException | UnusableAnswerException | RuntimeException e) {
+                // Cancelled, or the model's answer was unusable, which says nothing about the key
+                if (keyed) {
+                    suspensionManager.release(engineName, key.identifier);
+                }
+                throw e;
+            } catch (IOException e) {
+                if (keyed) {
+                    suspensionManager.recordFailure(engineName, key.identifier, System.currentTimeMillis() - startMillis);
+                }
+                throw e;
+            } finally {
+                key.release();
+            }
+        }
+
+        if (rateLimited > 0) {
+            throw new RateLimitException(engineName, 429,
+                    "All " + rateLimited + " attempted " + engineName + " API key(s) hit rate limits", earliestRetryAt);
+        }
+        throw new RejectedExecutionException("No " + engineName + " API key available (" + suspended + " suspended, "
+                + exhausted + " over budget, " + busy + " busy)");
+    }
+
+    /**
+     * Returns a snapshot of every key's counters.
+     */
+    public List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            stats.add(new Stats(key.identifier != null ? key.identifier : "no key", key.inFlight.get(), key.calls.sum()));
+        }
+        return stats;
+    }
+
+    private Key leastLoaded(boolean[] tried, int start) {
+        Key best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (int offset = 0; offset < keys.size(); offset++) {
+            Key key = keys.get((start + offset) % keys.size());
+            int inFlight = key.inFlight.get();
+            if (!tried[key.index] && inFlight < bestInFlight) {
+                best = key;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counters of one key.
+     *
+     * @param keyIdentifier Identifier of the key, such as "key-0"
+     * @param inFlight      Calls currently using the key
+     * @param calls         Successful calls made with the key
+     */
+    public record Stats(String keyIdentifier, int inFlight, long calls) {
+    }
+
+    private static final class Key {
+        final int index;
+        final String apiKey;
+        final String identifier;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder calls = new LongAdder();
+
+        Key(int index, String apiKey) {
+            this.index = index;
+            this.apiKey = apiKey;
+            this.identifier = apiKey != null ? "key-" + index : null;
+        }
+
+        boolean tryAcquire(int maxConcurrency) {
+            while (true) {
+                int current = inFlight.get();
+                if (maxConcurrency > 0 && current >= maxConcurrency) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
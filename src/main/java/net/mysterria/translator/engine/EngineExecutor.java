@@ -0,0 +1,155 @@
+package net.mysterria.translator.engine;
+
+import net.mysterria.translator.MysterriaTranslator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking HTTP calls of one translation engine on its own virtual threads.
+ * <p>
+ * Keeping engine I/O off {@code ForkJoinPool.commonPool()} means a stalled engine cannot starve
+ * the server's shared async work. A semaphore caps how many requests the engine has in flight
+ * (a bulkhead); requests beyond that wait, and once the wait queue is full new requests are
+ * rejected right away with a {@link RejectedExecutionException} so the caller can move on to
+ * another provider. Cancelling a returned future interrupts the call, which aborts a pending
+ * HTTP exchange, or drops it if it has not started yet.
+ */
+public class EngineExecutor {
+
+    private final MysterriaTranslator plugin;
+    private final String engineName;
+    private final int maxConcurrency;
+    private final int maxQueue;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    private final AtomicInteger queued;
+    private final AtomicInteger active;
+    private final LongAdder completed;
+    private final LongAdder rejected;
+
+    /**
+     * @param plugin         The plugin instance
+     * @param engineName     Engine name, used for thread names and messages
+     * @param maxConcurrency Maximum number of requests running at once
+     * @param maxQueue       Maximum number of requests waiting for a free slot
+     */
+    public EngineExecutor(MysterriaTranslator plugin, String engineName, int maxConcurrency, int maxQueue) {
+        this.plugin = plugin;
+        this.engineName = engineName;
+        this.maxConcurrency = Math.max(maxConcurrency, 1);
+        this.maxQueue = Math.max(maxQueue, 0);
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("MysterriaTranslator-" + engineName + "-", 0).factory());
+        this.permits = new Semaphore(this.maxConcurrency, true);
+
+        this.queued = new AtomicInteger();
+        this.active = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.rejected = new LongAdder();
+    }
+
+    /**
+     * Runs a blocking engine call once a concurrency slot is free.
+     *
+     * @param task The call to run
+     * @return Future completed with the task's result, or exceptionally if it failed or was rejected
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        if (!tryEnqueue()) {
+            rejected.increment();
+            plugin.debug("Rejected " + engineName + " request: " + maxConcurrency + " running, " + maxQueue + " waiting");
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException(engineName + " is saturated (" + maxQueue + " requests waiting)"));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            Future<?> running = executor.submit(() -> run(task, future));
+            future.whenComplete((result, throwable) -> {
+                if (future.isCancelled()) {
+                    running.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Returns a snapshot of the executor counters.
+     */
+    public Stats getStats() {
+        return new Stats(engineName, maxConcurrency, active.get(), queued.get(), completed.sum(), rejected.sum());
+    }
+
+    /**
+     * Stops accepting new requests. Requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private boolean tryEnqueue() {
+        while (true) {
+            int current = queued.get();
+            if (current >= maxQueue + permits.availablePermits()) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            future.completeExceptionally(e);
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        queued.decrementAndGet();
+        if (future.isDone()) {
+            permits.release();
+            return;
+        }
+        active.incrementAndGet();
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+            completed.increment();
+        }
+    }
+
+    /**
+     * Snapshot of executor counters.
+     *
+     * @param engineName     Engine the executor belongs to
+     * @param maxConcurrency Configured concurrency limit
+     * @param active         Requests currently running
+     * @param queued         Requests waiting for a free slot
+     * @param completed      Requests finished, successfully or not
+     * @param rejected       Requests turned away because the queue was full
+     */
+    public record Stats(String engineName, int maxConcurrency, int active, int queued, long completed, long rejected) {
+    }
+}
@@ -0,0 +1,404 @@
+package net.mysterria.translator.engine;
+
+import net.mysterria.translator.MysterriaTranslator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The HTTP client shared by all translation engines.
+ * <p>
+ * One {@link HttpClient} keeps connections alive between calls and, for HTTPS hosts, negotiates
+ * HTTP/2 so concurrent calls to the same host are multiplexed over a single connection instead
+ * of each paying for its own TLS handshake. Plain HTTP hosts, typically a local Ollama or
+ * LibreTranslate, are spoken to with HTTP/1.1 keep-alive. Responses are requested gzip-compressed
+ * and decoded as UTF-8.
+ * <p>
+ * Calls go out with {@code sendAsync}; the blocking {@link #send} used by the engines only parks
+ * the calling virtual thread, and interrupting it cancels the exchange. Latency and concurrency
+ * are counted per host for {@code /lang stats}.
+ */
+public class HttpTransport {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final MysterriaTranslator plugin;
+    private final HttpClient httpClient;
+    private final boolean gzip;
+    private final Map<String, Host> hosts;
+
+    public HttpTransport(MysterriaTranslator plugin) {
+        this.plugin = plugin;
+        this.gzip = plugin.getConfig().getBoolean("translation.http.gzip", true);
+        this.hosts = new ConcurrentHashMap<>();
+
+        int connectTimeout = plugin.getConfig().getInt("translation.http.connectTimeout", 10);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("MysterriaTranslator-http-", 0).factory()))
+                .build();
+
+        plugin.debug("HTTP transport initialized with connectTimeout=" + connectTimeout + "s, gzip=" + gzip);
+    }
+
+    /**
+     * Sends a request and waits for the response, cancelling the exchange if the calling thread
+     * is interrupted.
+     *
+     * @param request The request; compression and protocol headers are added here
+     * @return The response with its body decoded
+     */
+    public Response send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        CompletableFuture<Response> future = sendAsync(request);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Sends a request without blocking.
+     *
+     * @param request The request; compression and protocol headers are added here
+     * @return Future completed with the response; cancelling it aborts the exchange
+     */
+    public CompletableFuture<Response> sendAsync(HttpRequest.Builder request) {
+        if (gzip) {
+            request.setHeader("Accept-Encoding", "gzip");
+        }
+        HttpRequest httpRequest = request.build();
+        if ("http".equalsIgnoreCase(httpRequest.uri().getScheme())) {
+            // Without TLS the client would try an h2c upgrade, which many local servers mishandle
+            httpRequest = request.version(HttpClient.Version.HTTP_1_1).build();
+        }
+
+        Host host = host(httpRequest.uri());
+        host.start();
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(httpRequest, HttpTransport::decodeBody);
+        CompletableFuture<Response> result = exchange.handle((response, throwable) -> {
+            long latencyMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (throwable != null) {
+                host.finish(latencyMillis, null);
+                throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+            }
+            host.finish(latencyMillis, response.version());
+            return new Response(response.statusCode(), response.headers(), response.body());
+        });
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends a request and returns once the response headers have arrived, leaving the body to be
+     * read line by line while the server is still writing it. Streamed bodies are not compressed.
+     * Closing the returned response before the body is complete aborts the exchange.
+     * <p>
+     * The request's timeout only covers the wait for the headers, which streaming servers send
+     * right away, so it is applied here to the whole exchange: once it has passed since the
+     * request was sent, the body is closed and reading it fails with an {@link HttpTimeoutException}.
+     *
+     * @param request The request; protocol headers are added here
+     * @return The response with its unread body
+     */
+    public StreamingResponse stream(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpRequest httpRequest = request.build();
+        if ("http".equalsIgnoreCase(httpRequest.uri().getScheme())) {
+            httpRequest = request.version(HttpClient.Version.HTTP_1_1).build();
+        }
+
+        Host host = host(httpRequest.uri());
+        host.start();
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<HttpResponse<Stream<String>>> exchange = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofLines());
+        try {
+            HttpResponse<Stream<String>> response = exchange.get();
+            host.finish((System.nanoTime() - startNanos) / 1_000_000, response.version());
+            StreamingResponse streaming = new StreamingResponse(response.statusCode(), response.headers(), response.body());
+            if (httpRequest.timeout().isPresent()) {
+                long remainingNanos = httpRequest.timeout().get().toNanos() - (System.nanoTime() - startNanos);
+                CompletableFuture.delayedExecutor(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS)
+                        .execute(streaming::expire);
+            }
+            return streaming;
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            host.finish((System.nanoTime() - startNanos) / 1_000_000, null);
+            throw e;
+        } catch (ExecutionException e) {
+            host.finish((System.nanoTime() - startNanos) / 1_000_000, null);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Opens connections to the given endpoints in the background, so the first translation does
+     * not pay for DNS, TCP and TLS setup. Failures are ignored.
+     *
+     * @param url An endpoint of an enabled engine; only its scheme, host and port are used
+     */
+    public void warmUp(String url) {
+        URI origin;
+        try {
+            URI uri = URI.create(url);
+            origin = new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), "/", null, null);
+        } catch (Exception e) {
+            plugin.debug("Not warming up invalid URL " + url);
+            return;
+        }
+
+        sendAsync(HttpRequest.newBuilder(origin)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(10)))
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        plugin.debug("Warm-up of " + origin + " failed: " + throwable.getMessage());
+                    } else {
+                        plugin.debug("Warmed up connection to " + origin);
+                    }
+                });
+    }
+
+    /**
+     * Returns the counters of every host contacted so far.
+     */
+    public List<HostStats> getHostStats() {
+        List<HostStats> stats = new ArrayList<>(hosts.size());
+        hosts.forEach((name, host) -> stats.add(host.snapshot(name)));
+        return stats;
+    }
+
+    /**
+     * Stops accepting new requests; exchanges already running are allowed to finish.
+     */
+    public void shutdown() {
+        httpClient.shutdown();
+    }
+
+    private Host host(URI uri) {
+        String name = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        return hosts.computeIfAbsent(name, key -> new Host());
+    }
+
+    private static HttpResponse.BodySubscriber<String> decodeBody(HttpResponse.ResponseInfo info) {
+        boolean gzipped = info.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (!gzipped) {
+            return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        }
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), HttpTransport::gunzip);
+    }
+
+    private static String gunzip(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid gzip response body", e);
+        }
+    }
+
+    /**
+     * A response with its body decoded.
+     *
+     * @param statusCode HTTP status code
+     * @param headers    Response headers
+     * @param body       Response body
+     */
+    public record Response(int statusCode, HttpHeaders headers, String body) {
+
+        /**
+         * Returns the first value of a header, or null if it is absent. Usable as the header
+         * lookup of {@link RateLimitHeaders}.
+         */
+        public String header(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+    }
+
+    /**
+     * A response whose body is read while it arrives.
+     */
+    public static final class StreamingResponse implements AutoCloseable {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final Stream<String> lines;
+        private final Iterator<String> iterator;
+        private volatile boolean expired;
+
+        private StreamingResponse(int statusCode, HttpHeaders headers, Stream<String> lines) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.lines = lines;
+            this.iterator = lines.iterator();
+        }
+
+        /**
+         * Returns the HTTP status code.
+         */
+        public int statusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Returns the response headers.
+         */
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        /**
+         * Returns the first value of a header, or null if it is absent.
+         */
+        public String header(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+
+        /**
+         * Reads the next line of the body, blocking until the server sends it.
+         *
+         * @return The line, or null at the end of the body
+         * @throws HttpTimeoutException if the request's timeout passed before the body was complete
+         */
+        public String readLine() throws IOException {
+            try {
+                if (iterator.hasNext()) {
+                    return iterator.next();
+                }
+            } catch (UncheckedIOException e) {
+                if (!expired) {
+                    throw e.getCause();
+                }
+            }
+            if (expired) {
+                throw new HttpTimeoutException("Response body not complete within the request timeout");
+            }
+            return null;
+        }
+
+        /**
+         * Reads the rest of the body at once, for error responses.
+         */
+        public String body() {
+            return lines.collect(Collectors.joining("\n"));
+        }
+
+        /**
+         * Stops reading; if the body is not complete yet the exchange is aborted.
+         */
+        @Override
+        public void close() {
+            lines.close();
+        }
+
+        private void expire() {
+            expired = true;
+            lines.close();
+        }
+    }
+
+    /**
+     * Counters of one host.
+     *
+     * @param host                 Host name, with the port if it is not the default one
+     * @param version              HTTP version of the last response, or null before the first one
+     * @param requests             Exchanges started
+     * @param failures             Exchanges that failed without a response
+     * @param inFlight             Exchanges currently running
+     * @param peakInFlight         Most exchanges that ran at once
+     * @param averageLatencyMillis Smoothed time to a complete response
+     */
+    public record HostStats(String host, String version, long requests, long failures, int inFlight,
+                            int peakInFlight, long averageLatencyMillis) {
+    }
+
+    private static final class Host {
+        final LongAdder requests = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        volatile HttpClient.Version version;
+        double averageLatencyMillis = -1;
+
+        void start() {
+            requests.increment();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        void finish(long latencyMillis, HttpClient.Version responseVersion) {
+            inFlight.decrementAndGet();
+            if (responseVersion == null) {
+                failures.increment();
+                return;
+            }
+            version = responseVersion;
+            synchronized (this) {
+                averageLatencyMillis = averageLatencyMillis < 0 ? latencyMillis
+                        : averageLatencyMillis + LATENCY_SMOOTHING * (latencyMillis - averageLatencyMillis);
+            }
+        }
+
+        HostStats snapshot(String name) {
+            long latency;
+            synchronized (this) {
+                latency = Math.max(Math.round(averageLatencyMillis), 0);
+            }
+            String versionName = version == null ? null : switch (version) {
+                case HTTP_1_1 -> "HTTP/1.1";
+                case HTTP_2 -> "HTTP/2";
+            };
+            return new HostStats(name, versionName, requests.sum(), failures.sum(), inFlight.get(), peakInFlight.get(), latency);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package net.mysterria.translator.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the rate limit information providers send with their responses: the {@code Retry-After}
+ * header, quota headers ({@code x-ratelimit-remaining-requests} and {@code x-ratelimit-reset-requests}
+ * as sent by OpenAI, or the common {@code X-RateLimit-*} and {@code RateLimit-*} variants) and the
+ * {@code RetryInfo} detail in Google API error bodies.
+ * <p>
+ * Headers are looked up through a function returning the first value of a header or null, so both
+ * {@code HttpResponse} and {@code HttpURLConnection} can be used.
+ */
+public final class RateLimitHeaders {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private RateLimitHeaders() {
+    }
+
+    /**
+     * Remaining quota reported by a provider.
+     *
+     * @param remaining     Requests left in the current window, or -1 if not reported
+     * @param resetAtMillis Time at which the window resets, or 0 if not reported
+     */
+    public record Quota(long remaining, long resetAtMillis) {
+
+        public static final Quota UNKNOWN = new Quota(-1, 0);
+
+        public boolean isKnown() {
+            return remaining >= 0 && resetAtMillis > 0;
+        }
+    }
+
+    /**
+     * Works out when a rate limited provider accepts traffic again: the {@code Retry-After} header
+     * if present, otherwise the reset time of an exhausted quota.
+     *
+     * @param headers Header lookup, returning null for missing headers
+     * @param now     Current time in milliseconds
+     * @return Time in milliseconds, or 0 if the response does not say
+     */
+    public static long retryAt(Function<String, String> headers, long now) {
+        String retryAfter = headers.apply("Retry-After");
+        if (retryAfter != null) {
+            long retryAt = parseRetryAfter(retryAfter.trim(), now);
+            if (retryAt > 0) {
+                return retryAt;
+            }
+        }
+
+        Quota quota = quota(headers, now);
+        return quota.isKnown() && quota.remaining() == 0 ? quota.resetAtMillis() : 0;
+    }
+
+    /**
+     * Reads the remaining quota from a response. When a provider reports both request and token
+     * quotas, an exhausted token quota wins, since no request can go through until it resets.
+     *
+     * @param headers Header lookup, returning null for missing headers
+     * @param now     Current time in milliseconds
+     * @return The quota, or {@link Quota#UNKNOWN}
+     */
+    public static Quota quota(Function<String, String> headers, long now) {
+        long remainingTokens = parseLong(headers.apply("x-ratelimit-remaining-tokens"));
+        long tokensResetAt = parseReset(headers.apply("x-ratelimit-reset-tokens"), now);
+        if (remainingTokens == 0 && tokensResetAt > 0) {
+            return new Quota(0, tokensResetAt);
+        }
+
+        long remaining = parseLong(headers.apply("x-ratelimit-remaining-requests"));
+        long resetAt = parseReset(headers.apply("x-ratelimit-reset-requests"), now);
+        if (remaining < 0) {
+            remaining = parseLong(headers.apply("X-RateLimit-Remaining"));
+            resetAt = parseReset(headers.apply("X-RateLimit-Reset"), now);
+        }
+        if (remaining < 0) {
+            remaining = parseLong(headers.apply("RateLimit-Remaining"));
+            resetAt = parseReset(headers.apply("RateLimit-Reset"), now);
+        }
+        return remaining < 0 ? Quota.UNKNOWN : new Quota(remaining, resetAt);
+    }
+
+    /**
+     * Reads the retry delay from a Google API error body, which lists a
+     * {@code type.googleapis.com/google.rpc.RetryInfo} entry in {@code error.details}.
+     *
+     * @param body Error response body, may be null
+     * @param now  Current time in milliseconds
+     * @return Time in milliseconds, or 0 if the body does not say
+     */
+    public static long retryAtFromGoogleError(String body, long now) {
+        if (body == null || body.isBlank()) {
+            return 0;
+        }
+        try {
+            JsonElement root = JsonParser.parseString(body);
+            if (root.isJsonArray() && !root.getAsJsonArray().isEmpty()) {
+                root = root.getAsJsonArray().get(0);
+            }
+            if (!root.isJsonObject() || !root.getAsJsonObject().has("error")) {
+                return 0;
+            }
+            JsonObject error = root.getAsJsonObject().getAsJsonObject("error");
+            if (!error.has("details") || !error.get("details").isJsonArray()) {
+                return 0;
+            }
+            JsonArray details = error.getAsJsonArray("details");
+            for (JsonElement detail : details) {
+                if (!detail.isJsonObject()) continue;
+                JsonObject info = detail.getAsJsonObject();
+                if (info.has("@type") && info.get("@type").getAsString().endsWith("google.rpc.RetryInfo")
+                        && info.has("retryDelay")) {
+                    long delay = parseDuration(info.get("retryDelay").getAsString());
+                    return delay >= 0 ? now + delay : 0;
+                }
+            }
+        } catch (RuntimeException ignored) {
+            // Not JSON, or not the expected shape
+        }
+        return 0;
+    }
+
+    /**
+     * Parses a duration such as {@code 37s}, {@code 1.5s}, {@code 6m0s}, {@code 20ms} or a plain
+     * number of seconds.
+     *
+     * @return Duration in milliseconds, or -1 if the value is not a duration
+     */
+    static long parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.round(Double.parseDouble(trimmed) * 1000);
+        } catch (NumberFormatException ignored) {
+            // Not a plain number, try unit suffixes
+        }
+
+        Matcher matcher = DURATION_PART.matcher(trimmed);
+        double millis = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return -1;
+            }
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+            end = matcher.end();
+        }
+        return end == trimmed.length() && end > 0 ? Math.round(millis) : -1;
+    }
+
+    private static long parseRetryAfter(String value, long now) {
+        long delay = parseDuration(value);
+        if (delay >= 0) {
+            return now + delay;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a reset header, which is either a duration or, for large plain numbers, a Unix
+     * timestamp in seconds.
+     */
+    private static long parseReset(String value, long now) {
+        if (value == null) {
+            return 0;
+        }
+        long seconds = parseLong(value);
+        if (seconds >= EPOCH_SECONDS_THRESHOLD) {
+            return seconds * 1000;
+        }
+        long delay = parseDuration(value);
+        return delay >= 0 ? now + delay : 0;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package net.mysterria.translator.engine;
+
+import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.exception.UnusableAnswerException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when to stop reading a streamed model answer.
+ * <p>
+ * A translation is about as long as its input, so an answer that grows well past
+ * {@code maxLengthRatio} times the input is rambling; reading stops there and the connection is
+ * closed, which makes the engine stop generating. Such an answer is cut off mid-sentence, so
+ * {@link Session#stoppedAnswer()} fails the call rather than returning it. Single translations
+ * also stop at the first stop marker after the translation, such as a blank line or "Note:",
+ * since everything after it is commentary that would be thrown away anyway. Markers that occur
+ * in the input itself are not used for that input, and a marker right after a colon is not a
+ * stop, since it follows a preamble such as "Here is the translation:" rather than the
+ * translation.
+ * <p>
+ * One instance belongs to each engine client and also counts time to first token and cutoffs.
+ */
+public class StreamCutoff {
+
+    private static final double FIRST_TOKEN_SMOOTHING = 0.2;
+    private static final List<String> DEFAULT_STOP_MARKERS = List.of("\n\n", "Note:", "Explanation:", "(Translation");
+
+    private final String engineName;
+    private final boolean enabled;
+    private final double maxLengthRatio;
+    private final int minOutputChars;
+    private final List<String> stopMarkers;
+
+    private final LongAdder streams;
+    private final LongAdder cutoffs;
+    private double averageFirstTokenMillis = -1;
+
+    /**
+     * @param plugin     The plugin instance
+     * @param engineName Engine name, used for statistics
+     */
+    public StreamCutoff(MysterriaTranslator plugin, String engineName) {
+        this.engineName = engineName;
+        this.enabled = plugin.getConfig().getBoolean("translation.streaming.enabled", true);
+        this.maxLengthRatio = plugin.getConfig().getDouble("translation.streaming.maxLengthRatio", 3.0);
+        this.minOutputChars = plugin.getConfig().getInt("translation.streaming.minOutputChars", 64);
+
+        List<String> markers = new ArrayList<>();
+        List<String> configured = plugin.getConfig().contains("translation.streaming.stopMarkers")
+                ? plugin.getConfig().getStringList("translation.streaming.stopMarkers")
+                : DEFAULT_STOP_MARKERS;
+        for (String marker : configured) {
+            if (marker != null && !marker.isEmpty()) {
+                markers.add(marker.toLowerCase(Locale.ROOT));
+            }
+        }
+        this.stopMarkers = List.copyOf(markers);
+
+        this.streams = new LongAdder();
+        this.cutoffs = new LongAdder();
+    }
+
+    /**
+     * Returns whether answers should be streamed at all.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts reading one answer. Call right before the request is sent, so the time to first
+     * token includes the round trip.
+     *
+     * @param input          The text being translated
+     * @param expectedLength Expected length of the answer, usually the input's length
+     * @param useStopMarkers Whether to stop at stop markers; off for JSON answers
+     */
+    public Session start(String input, int expectedLength, boolean useStopMarkers) {
+        List<String> markers = new ArrayList<>();
+        if (useStopMarkers) {
+            String lowerInput = input.toLowerCase(Locale.ROOT);
+            for (String marker : stopMarkers) {
+                if (!lowerInput.contains(marker)) {
+                    markers.add(marker);
+                }
+            }
+        }
+        int maxChars = Math.max(minOutputChars, (int) Math.min(Integer.MAX_VALUE, expectedLength * maxLengthRatio));
+        streams.increment();
+        return new Session(maxChars, markers);
+    }
+
+    /**
+     * Returns a snapshot of the counters.
+     */
+    public Stats getStats() {
+        long firstToken;
+        synchronized (this) {
+            firstToken = Math.round(averageFirstTokenMillis);
+        }
+        return new Stats(engineName, streams.sum(), cutoffs.sum(), firstToken);
+    }
+
+    private void recordFirstToken(long millis) {
+        synchronized (this) {
+            averageFirstTokenMillis = averageFirstTokenMillis < 0 ? millis
+                    : averageFirstTokenMillis + FIRST_TOKEN_SMOOTHING * (millis - averageFirstTokenMillis);
+        }
+    }
+
+    /**
+     * Why reading of an answer was stopped.
+     */
+    public enum StopReason {
+        /**
+         * The answer continued with a stop marker; the text before it is complete.
+         */
+        MARKER,
+        /**
+         * The answer grew past its length limit; the text is cut off.
+         */
+        LENGTH
+    }
+
+    /**
+     * The answer read so far.
+     */
+    public class Session {
+        private final long startNanos;
+        private final int maxChars;
+        private final List<String> markers;
+        private final int longestMarker;
+        private final StringBuilder text;
+        private int contentStart = -1;
+        private StopReason stopReason;
+
+        private Session(int maxChars, List<String> markers) {
+            this.startNanos = System.nanoTime();
+            this.maxChars = maxChars;
+            this.markers = markers;
+            this.longestMarker = markers.stream().mapToInt(String::length).max().orElse(0);
+            this.text = new StringBuilder();
+        }
+
+        /**
+         * Adds a piece of the answer.
+         *
+         * @param chunk Text generated since the last piece
+         * @return true to keep reading, false once the answer is long enough or hit a stop marker
+         */
+        public boolean append(String chunk) {
+            if (chunk == null || chunk.isEmpty() || stopReason != null) {
+                return stopReason == null;
+            }
+
+            int searchFrom = Math.max(text.length() - longestMarker + 1, 0);
+            text.append(chunk);
+
+            if (contentStart < 0) {
+                for (int i = 0; i < text.length(); i++) {
+                    if (!Character.isWhitespace(text.charAt(i))) {
+                        contentStart = i;
+                        recordFirstToken((System.nanoTime() - startNanos) / 1_000_000);
+                        break;
+                    }
+                }
+                if (contentStart < 0) {
+                    return true;
+                }
+            }
+
+            if (!markers.isEmpty()) {
+                int cut = findMarker(text.toString(), Math.max(searchFrom, contentStart + 1));
+                if (cut >= 0) {
+                    text.setLength(cut);
+                    return stop(StopReason.MARKER);
+                }
+            }
+
+            if (text.length() - contentStart > maxChars) {
+                return stop(StopReason.LENGTH);
+            }
+            return true;
+        }
+
+        /**
+         * Returns whether reading was stopped before the engine finished the answer.
+         */
+        public boolean isCutOff() {
+            return stopReason != null;
+        }
+
+        /**
+         * Returns why reading was stopped, or null if it was not.
+         */
+        public StopReason stopReason() {
+            return stopReason;
+        }
+
+        /**
+         * Returns the answer after {@link #append} asked to stop reading. An answer stopped at a
+         * stop marker is complete; one that grew past the length limit is rambling and cut off
+         * mid-sentence, so the call fails instead, the next provider is tried and nothing is cached.
+         *
+         * @throws UnusableAnswerException If the answer was stopped for its length
+         */
+        public String stoppedAnswer() throws UnusableAnswerException {
+            if (stopReason == StopReason.LENGTH) {
+                throw new UnusableAnswerException(engineName + " answer grew past " + maxChars + " characters and was cut off");
+            }
+            return text.toString();
+        }
+
+        /**
+         * Returns the answer read so far.
+         */
+        public String text() {
+            return text.toString();
+        }
+
+        private int findMarker(String answer, int from) {
+            for (int i = from; i < answer.length(); i++) {
+                for (String marker : markers) {
+                    if (answer.regionMatches(true, i, marker, 0, marker.length()) && !followsColon(answer, i)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean followsColon(String answer, int index) {
+            for (int i = index - 1; i >= contentStart; i--) {
+                char c = answer.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    return c == ':';
+                }
+            }
+            return false;
+        }
+
+        private boolean stop(StopReason reason) {
+            stopReason = reason;
+            cutoffs.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Snapshot of streaming counters.
+     *
+     * @param engineName       Engine the counters belong to
+     * @param streams          Answers read as a stream
+     * @param cutoffs          Answers whose generation was stopped early
+     * @param firstTokenMillis Smoothed time until the first text arrived, or -1 before the first one
+     */
+    public record Stats(String engineName, long streams, long cutoffs, long firstTokenMillis) {
+    }
+}
@@ -2,55 +2,71 @@ package net.mysterria.translator.engine.gemini;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.BatchFormat;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.RateLimitHeaders;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.exception.RateLimitException;
+import net.mysterria.translator.exception.UnusableAnswerException;
 import net.mysterria.translator.manager.PromptManager;
 import net.mysterria.translator.translation.RateLimitManager;
-import org.bukkit.entity.Player;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class GeminiClient {
 
+    private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/";
+
     private final List<String> apiKeys;
     private final MysterriaTranslator plugin;
+    private final EngineExecutor engineExecutor;
     private final PromptManager promptManager;
     private final RateLimitManager suspensionManager;
+    private final CredentialPool credentialPool;
+    private final StreamCutoff streamCutoff;
+    private final HttpTransport transport;
     private final Gson gson;
     private final String model;
-    private final int connectTimeout;
     private final int readTimeout;
 
     public GeminiClient(MysterriaTranslator plugin, PromptManager promptManager,
-                        RateLimitManager suspensionManager, List<String> apiKeys) {
+                        RateLimitManager suspensionManager, HttpTransport transport, List<String> apiKeys) {
         this.plugin = plugin;
+        this.engineExecutor = new EngineExecutor(plugin, "gemini",
+                plugin.getConfig().getInt("translation.gemini.maxConcurrency", 8),
+                plugin.getConfig().getInt("translation.gemini.maxQueue", 64));
         this.promptManager = promptManager;
         this.suspensionManager = suspensionManager;
+        this.transport = transport;
         this.apiKeys = apiKeys;
+        this.credentialPool = new CredentialPool(plugin, "gemini", apiKeys, suspensionManager);
+        this.streamCutoff = new StreamCutoff(plugin, "gemini");
         this.gson = new Gson();
 
 
         this.model = plugin.getConfig().getString("translation.gemini.model", "gemini-2.0-flash");
-        this.connectTimeout = plugin.getConfig().getInt("translation.gemini.connectTimeout", 10);
         this.readTimeout = plugin.getConfig().getInt("translation.gemini.readTimeout", 15);
 
-        plugin.debug("Gemini client initialized with model=" + model +
-                     ", connectTimeout=" + connectTimeout + "s, readTimeout=" + readTimeout + "s");
+        plugin.debug("Gemini client initialized with model=" + model + ", readTimeout=" + readTimeout + "s");
     }
 
     public CompletableFuture<String> translateAsync(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translate(text, fromLang, toLang);
             } catch (Exception e) {
@@ -61,7 +77,7 @@ public class GeminiClient {
     }
 
     public CompletableFuture<String> translateAsyncWithContext(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translateWithContext(text, fromLang, toLang);
             } catch (Exception e) {
@@ -71,17 +87,70 @@ public class GeminiClient {
         });
     }
 
-    private String translate(String text, String fromLang, String toLang) throws RateLimitException {
+    /**
+     * Translates several messages with one request. The messages are sent as a JSON array and the
+     * model is asked to answer with an array of the same length.
+     *
+     * @return Future with translations in input order, or null if the response could not be matched to the input
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, String fromLang, String toLang, boolean includeContext) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String prompt = buildBatchPrompt(texts, fromLang, toLang, includeContext);
+                String messages = BatchFormat.encode(texts);
+                String response = executeRequest(createPayload(prompt, includeContext, 500 * texts.size()),
+                        messages, messages.length(), false);
+                List<String> translations = BatchFormat.decode(response, texts.size());
+                if (translations == null) {
+                    plugin.debug("Gemini batch response did not match " + texts.size() + " inputs: " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("Gemini batch translation failed: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Translates one message into several languages with one request.
+     *
+     * @return Future with translations keyed by language code (languages the model skipped are absent),
+     * or null if the response could not be used at all
+     */
+    public CompletableFuture<Map<String, String>> translateMultiAsync(String text, String fromLang, List<String> toLangs, boolean includeContext) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String prompt = buildMultiTargetPrompt(text, fromLang, toLangs, includeContext);
+                String response = executeRequest(createPayload(prompt, includeContext, 500 * toLangs.size()),
+                        text, (text.length() + 16) * toLangs.size(), false);
+                Map<String, String> translations = BatchFormat.decodeLanguages(response, toLangs);
+                if (translations == null || translations.size() < toLangs.size()) {
+                    plugin.debug("Gemini multi-target response did not contain all of " + toLangs + ": " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("Gemini multi-target translation failed: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
         JsonObject jsonPayload = createTranslationPayload(text, fromLang, toLang, false);
-        return executeRequest(jsonPayload);
+        return executeRequest(jsonPayload, text, text.length(), true);
     }
 
-    private String translateWithContext(String text, String fromLang, String toLang) throws RateLimitException {
+    private String translateWithContext(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
         JsonObject jsonPayload = createTranslationPayload(text, fromLang, toLang, true);
-        return executeRequest(jsonPayload);
+        return executeRequest(jsonPayload, text, text.length(), true);
     }
 
     private JsonObject createTranslationPayload(String text, String fromLang, String toLang, boolean includeContext) {
+        return createPayload(buildTranslationPrompt(text, fromLang, toLang, includeContext), includeContext, 500);
+    }
+
+    private JsonObject createPayload(String prompt, boolean includeContext, int maxOutputTokens) {
         JsonObject jsonPayload = new JsonObject();
         JsonArray contentsArray = new JsonArray();
 
@@ -90,7 +159,6 @@ public class GeminiClient {
         JsonArray parts = new JsonArray();
 
         JsonObject textPart = new JsonObject();
-        String prompt = buildTranslationPrompt(text, fromLang, toLang, includeContext);
         textPart.addProperty("text", prompt);
         parts.add(textPart);
 
@@ -109,7 +177,7 @@ public class GeminiClient {
 
         JsonObject genConfig = new JsonObject();
         genConfig.addProperty("temperature", 0.2);
-        genConfig.addProperty("maxOutputTokens", 500);
+        genConfig.addProperty("maxOutputTokens", maxOutputTokens);
         genConfig.addProperty("topP", 0.8);
         genConfig.addProperty("topK", 20);
         jsonPayload.add("generationConfig", genConfig);
@@ -123,19 +191,16 @@ public class GeminiClient {
         variables.put("targetLang", mapLanguageForGemini(toLang));
         variables.put("message", text);
 
-
-        if (includeContext) {
-            List<String> onlinePlayerNames = plugin.getServer().getOnlinePlayers().stream()
-                    .map(Player::getName)
-                    .collect(Collectors.toList());
-            variables.put("playerContext", String.join(", ", onlinePlayerNames));
+        List<String> mentioned = includeContext ? plugin.getPlayerNameIndex().find(text) : List.of();
+        boolean withContext = !mentioned.isEmpty();
+        if (withContext) {
+            variables.put("playerContext", String.join(", ", mentioned));
         }
 
-
         String promptKey;
         boolean isAutoDetect = "auto".equalsIgnoreCase(fromLang) || fromLang == null;
 
-        if (includeContext) {
+        if (withContext) {
             promptKey = isAutoDetect ? "gemini.autoDetectPromptWithContext" : "gemini.translationPromptWithContext";
         } else {
             promptKey = isAutoDetect ? "gemini.autoDetectPrompt" : "gemini.translationPrompt";
@@ -144,6 +209,51 @@ public class GeminiClient {
         return promptManager.getPrompt(promptKey, variables);
     }
 
+    private String buildBatchPrompt(List<String> texts, String fromLang, String toLang, boolean includeContext) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", mapLanguageForGemini(fromLang));
+        variables.put("targetLang", mapLanguageForGemini(toLang));
+        variables.put("count", String.valueOf(texts.size()));
+        variables.put("messages", BatchFormat.encode(texts));
+
+        List<String> mentioned = includeContext ? plugin.getPlayerNameIndex().find(String.join("\n", texts)) : List.of();
+        boolean withContext = !mentioned.isEmpty();
+        if (withContext) {
+            variables.put("playerContext", String.join(", ", mentioned));
+        }
+
+        boolean isAutoDetect = "auto".equalsIgnoreCase(fromLang) || fromLang == null;
+        String promptKey = isAutoDetect ? "gemini.autoDetectBatchPrompt" : "gemini.batchPrompt";
+        if (withContext) {
+            promptKey += "WithContext";
+        }
+
+        return promptManager.getPrompt(promptKey, variables);
+    }
+
+    private String buildMultiTargetPrompt(String text, String fromLang, List<String> toLangs, boolean includeContext) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", mapLanguageForGemini(fromLang));
+        variables.put("targetLangs", toLangs.stream()
+                .map(lang -> lang + " (" + mapLanguageForGemini(lang) + ")")
+                .collect(Collectors.joining(", ")));
+        variables.put("message", text);
+
+        List<String> mentioned = includeContext ? plugin.getPlayerNameIndex().find(text) : List.of();
+        boolean withContext = !mentioned.isEmpty();
+        if (withContext) {
+            variables.put("playerContext", String.join(", ", mentioned));
+        }
+
+        boolean isAutoDetect = "auto".equalsIgnoreCase(fromLang) || fromLang == null;
+        String promptKey = isAutoDetect ? "gemini.autoDetectMultiTargetPrompt" : "gemini.multiTargetPrompt";
+        if (withContext) {
+            promptKey += "WithContext";
+        }
+
+        return promptManager.getPrompt(promptKey, variables);
+    }
+
     private String mapLanguageForGemini(String langCode) {
         if (langCode == null) return "English";
         return switch (langCode.toLowerCase()) {
@@ -183,99 +293,157 @@ public class GeminiClient {
         return promptManager.getPrompt(promptKey, new HashMap<>());
     }
 
-    private String executeRequest(JsonObject jsonPayload) throws RateLimitException {
-        Exception lastException = null;
-        int attemptedKeys = 0;
-        int suspendedKeys = 0;
-        int rateLimitedKeys = 0;
+    /**
+     * Sends one generateContent request.
+     *
+     * @param jsonPayload    The request payload
+     * @param input          The text being translated, for the streaming cutoff
+     * @param expectedLength Expected length of the answer, for the streaming cutoff
+     * @param useStopMarkers Whether a streamed answer may be cut at a stop marker
+     * @return The model's answer
+     */
+    private String executeRequest(JsonObject jsonPayload, String input, int expectedLength, boolean useStopMarkers)
+            throws IOException, InterruptedException, RateLimitException {
+        if (apiKeys.isEmpty()) {
+            throw new IOException("No Gemini API keys configured");
+        }
 
-        for (int keyIndex = 0; keyIndex < apiKeys.size(); keyIndex++) {
-            String keyIdentifier = "key-" + keyIndex;
+        String payload = jsonPayload.toString();
+        long estimatedTokens = RateLimitManager.estimateTokens(payload);
 
+        // The pool moves on to the next key while keys are rate limited; once all of them are, the
+        // RateLimitException it throws makes the provider fallback handler suspend the entire Gemini
+        // provider, until its first key is usable again, and move to the next provider
+        return credentialPool.execute(estimatedTokens, (apiKey, keyIdentifier) -> streamCutoff.isEnabled()
+                ? sendStreaming(payload, apiKey, keyIdentifier, estimatedTokens,
+                        streamCutoff.start(input, expectedLength, useStopMarkers))
+                : send(payload, apiKey, keyIdentifier, estimatedTokens));
+    }
 
-            if (suspensionManager != null && suspensionManager.isKeySuspended("gemini", keyIdentifier)) {
-                plugin.debug("Skipping Gemini key #" + keyIndex + " (suspended due to rate limit)");
-                suspendedKeys++;
-                continue;
-            }
+    private String send(String payload, String apiKey, String keyIdentifier, long estimatedTokens)
+            throws IOException, InterruptedException, RateLimitException {
+        HttpTransport.Response response = transport.send(newRequest(payload, apiKey, ":generateContent"));
+        checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
 
-            String apiKey = apiKeys.get(keyIndex);
-            attemptedKeys++;
+        if (suspensionManager != null) {
+            suspensionManager.recordUsage("gemini", keyIdentifier, estimatedTokens, extractTotalTokens(response.body()));
+        }
+        return extractTextFromResponse(response.body());
+    }
 
-            try {
-                URL url = new URL("https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setDoOutput(true);
-                connection.setConnectTimeout(connectTimeout * 1000);
-                connection.setReadTimeout(readTimeout * 1000);
-
-                try (OutputStream os = connection.getOutputStream()) {
-                    os.write(jsonPayload.toString().getBytes());
-                    os.flush();
+    /**
+     * Reads the answer as server-sent events while it is generated. Once the cutoff says the
+     * answer is complete, the connection is closed, which stops the generation.
+     */
+    private String sendStreaming(String payload, String apiKey, String keyIdentifier, long estimatedTokens,
+                                 StreamCutoff.Session session) throws IOException, InterruptedException, RateLimitException {
+        try (HttpTransport.StreamingResponse response = transport.stream(newRequest(payload, apiKey, ":streamGenerateContent?alt=sse"))) {
+            checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
+
+            long totalTokens = -1;
+            String line;
+            while ((line = response.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
                 }
 
-                int statusCode = connection.getResponseCode();
-
-
-                if (statusCode == 429) {
-                    String errorMsg = "Gemini key #" + keyIndex + " rate limit exceeded (HTTP 429)";
-                    plugin.debug(errorMsg);
-                    RateLimitException rateLimitEx = new RateLimitException("gemini", keyIdentifier, 429, errorMsg);
-
-                    // Suspend this specific key
-                    if (suspensionManager != null) {
-                        suspensionManager.suspend(rateLimitEx);
-                    }
-
-                    lastException = rateLimitEx;
-                    rateLimitedKeys++;
-                    continue; // Try next key instead of throwing immediately
+                String data = line.substring("data:".length()).trim();
+                long chunkTokens = extractTotalTokens(data);
+                if (chunkTokens >= 0) {
+                    totalTokens = chunkTokens;
                 }
-
-                if (statusCode != 200) {
-                    throw new IOException("Status " + statusCode);
+                if (!session.append(extractChunkText(data))) {
+                    plugin.debug("Stopped Gemini generation after " + session.text().length() + " characters");
+                    return session.stoppedAnswer().trim();
                 }
+            }
 
-                StringBuilder response = new StringBuilder();
-                try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    String inputLine;
-                    while ((inputLine = in.readLine()) != null) {
-                        response.append(inputLine);
-                    }
-                }
+            if (suspensionManager != null) {
+                suspensionManager.recordUsage("gemini", keyIdentifier, estimatedTokens, totalTokens);
+            }
+            String translation = session.text().trim();
+            if (translation.isEmpty()) {
+                throw new UnusableAnswerException("Gemini stream contained no text");
+            }
+            if (plugin.getConfig().getBoolean("debug")) {
+                plugin.debug("Gemini: " + translation);
+            }
+            return translation;
+        }
+    }
 
-                return extractTextFromResponse(response.toString());
+    private HttpRequest.Builder newRequest(String payload, String apiKey, String method) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + model + method))
+                .header("Content-Type", "application/json")
+                .header("x-goog-api-key", apiKey)
+                .timeout(Duration.ofSeconds(readTimeout))
+                .POST(HttpRequest.BodyPublishers.ofString(payload));
+    }
 
-            } catch (Exception e) {
-                lastException = e;
-                // Don't re-throw RateLimitException here - continue trying other keys
-                plugin.debug("Gemini key #" + keyIndex + " failed: " + e.getMessage());
+    private void checkResponse(int statusCode, Function<String, String> headers, Supplier<String> body, String keyIdentifier)
+            throws IOException, RateLimitException {
+        long now = System.currentTimeMillis();
+
+
+        if (statusCode == 429) {
+            String errorMsg = "Gemini " + (keyIdentifier != null ? keyIdentifier + " " : "") + "rate limit exceeded (HTTP 429)";
+            plugin.debug(errorMsg);
+            long retryAt = RateLimitHeaders.retryAt(headers, now);
+            if (retryAt == 0) {
+                retryAt = RateLimitHeaders.retryAtFromGoogleError(body.get(), now);
             }
+            throw new RateLimitException("gemini", keyIdentifier, 429, errorMsg, retryAt);
         }
 
-
-        String errorMsg;
-        if (suspendedKeys == apiKeys.size()) {
-            errorMsg = "All " + apiKeys.size() + " Gemini API key(s) are currently suspended due to rate limits";
-        } else if (attemptedKeys == 0) {
-            errorMsg = "No Gemini API keys available (all suspended)";
-        } else if (rateLimitedKeys > 0 && rateLimitedKeys == attemptedKeys) {
-            errorMsg = "All " + attemptedKeys + " attempted Gemini API key(s) hit rate limits";
-        } else {
-            errorMsg = "All available Gemini API keys failed (attempted: " + attemptedKeys + ", suspended: " + suspendedKeys + ", rate limited: " + rateLimitedKeys + ")";
+        if (statusCode != 200) {
+            throw new IOException("Status " + statusCode);
         }
 
-        plugin.debug(errorMsg);
+        if (suspensionManager != null) {
+            suspensionManager.recordQuota("gemini", keyIdentifier, RateLimitHeaders.quota(headers, now));
+        }
+    }
 
-        // If all attempted keys were rate limited, throw RateLimitException so the provider fallback handler
-        // knows to suspend the entire Gemini provider and move to the next provider
-        if (rateLimitedKeys > 0 && rateLimitedKeys == attemptedKeys && lastException instanceof RateLimitException) {
-            throw (RateLimitException) lastException;
+    /**
+     * Reads the text of one streamed chunk.
+     *
+     * @return The chunk's text, or null if it carries none
+     */
+    private String extractChunkText(String jsonChunk) {
+        try {
+            JsonArray candidates = gson.fromJson(jsonChunk, JsonObject.class).getAsJsonArray("candidates");
+            if (candidates == null || candidates.isEmpty()) {
+                return null;
+            }
+            JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+            if (content == null || !content.has("parts")) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder();
+            for (JsonElement part : content.getAsJsonArray("parts")) {
+                if (part.isJsonObject() && part.getAsJsonObject().has("text")) {
+                    text.append(part.getAsJsonObject().get("text").getAsString());
+                }
+            }
+            return text.toString();
+        } catch (Exception e) {
+            return null;
         }
+    }
 
-        throw new RuntimeException(errorMsg, lastException);
+    /**
+     * Reads the total token count from a response's usage metadata.
+     *
+     * @return Token count, or -1 if the response does not report it
+     */
+    private long extractTotalTokens(String jsonResponse) {
+        try {
+            JsonObject usage = gson.fromJson(jsonResponse, JsonObject.class).getAsJsonObject("usageMetadata");
+            return usage != null && usage.has("totalTokenCount") ? usage.get("totalTokenCount").getAsLong() : -1;
+        } catch (Exception e) {
+            return -1;
+        }
     }
 
     private String extractTextFromResponse(String jsonResponse) {
@@ -297,18 +465,44 @@ public class GeminiClient {
     }
 
     public CompletableFuture<Boolean> isAvailable() {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             if (apiKeys.isEmpty()) {
                 return false;
             }
 
             try {
                 JsonObject testPayload = createTranslationPayload("test", "English", "Spanish", false);
-                executeRequest(testPayload);
+                executeRequest(testPayload, "test", 4, true);
                 return true;
             } catch (Exception e) {
                 return false;
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a connection to the Gemini API ahead of the first translation.
+     */
+    public void warmUp() {
+        transport.warmUp(BASE_URL);
+    }
+
+    public EngineExecutor.Stats getExecutorStats() {
+        return engineExecutor.getStats();
+    }
+
+    public List<CredentialPool.Stats> getCredentialStats() {
+        return credentialPool.getStats();
+    }
+
+    public StreamCutoff.Stats getStreamingStats() {
+        return streamCutoff.getStats();
+    }
+
+    /**
+     * Stops accepting new requests; requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        engineExecutor.shutdown();
+    }
+}
@@ -4,17 +4,22 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.RateLimitHeaders;
 import net.mysterria.translator.exception.RateLimitException;
+import net.mysterria.translator.translation.RateLimitManager;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Google Translate client using the unofficial free API.
@@ -23,23 +28,29 @@ import java.util.concurrent.CompletableFuture;
 public class GoogleClient {
 
     private final MysterriaTranslator plugin;
+    private final EngineExecutor engineExecutor;
+    private final RateLimitManager suspensionManager;
+    private final HttpTransport transport;
     private final Gson gson;
-    private final int connectTimeout;
     private final int readTimeout;
-    private static final String BASE_URL = "http://translate.googleapis.com/translate_a/single";
+    private static final String BASE_URL = "https://translate.googleapis.com/translate_a/single";
 
-    public GoogleClient(MysterriaTranslator plugin) {
+    public GoogleClient(MysterriaTranslator plugin, RateLimitManager suspensionManager, HttpTransport transport) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
+        this.transport = transport;
+        this.engineExecutor = new EngineExecutor(plugin, "google",
+                plugin.getConfig().getInt("translation.google.maxConcurrency", 4),
+                plugin.getConfig().getInt("translation.google.maxQueue", 64));
         this.gson = new Gson();
 
-        this.connectTimeout = plugin.getConfig().getInt("translation.google.connectTimeout", 5);
         this.readTimeout = plugin.getConfig().getInt("translation.google.readTimeout", 10);
 
-        plugin.debug("Google Translate client initialized with connectTimeout=" + connectTimeout + "s, readTimeout=" + readTimeout + "s");
+        plugin.debug("Google Translate client initialized with readTimeout=" + readTimeout + "s");
     }
 
     public CompletableFuture<String> translateAsync(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translate(text, fromLang, toLang);
             } catch (Exception e) {
@@ -49,11 +60,54 @@ public class GoogleClient {
         });
     }
 
-    private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
-        HttpClient httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(connectTimeout))
-                .build();
+    /**
+     * Translates several messages in one request. The endpoint takes a single text, so the messages
+     * are joined with line breaks, sent as a form body, and split again on the way back.
+     *
+     * @return Future with translations in input order, or null if the response could not be matched to the input
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, String fromLang, String toLang) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                return translateBatch(texts, fromLang, toLang);
+            } catch (Exception e) {
+                plugin.debug("Google Translate batch translation failed: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private List<String> translateBatch(List<String> texts, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
+        for (String text : texts) {
+            if (text.indexOf('\n') >= 0 || text.isBlank()) {
+                return null;
+            }
+        }
+
+        String url = BASE_URL + "?client=gtx&sl=" + mapLanguageCode(fromLang) + "&tl=" + mapLanguageCode(toLang) + "&dt=t";
+        String body = "q=" + URLEncoder.encode(String.join("\n", texts), StandardCharsets.UTF_8);
+
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("User-Agent", "Mozilla/5.0")
+                .header("Content-Type", "application/x-www-form-urlencoded;charset=UTF-8")
+                .timeout(Duration.ofSeconds(readTimeout))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+
+        String[] lines = parseGoogleResponse(send(httpRequest)).split("\n", -1);
+        if (lines.length != texts.size()) {
+            plugin.debug("Google Translate returned " + lines.length + " lines for " + texts.size() + " inputs");
+            return null;
+        }
+
+        List<String> translations = new ArrayList<>(lines.length);
+        for (String line : lines) {
+            translations.add(line.trim());
+        }
+        return translations;
+    }
 
+    private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
         // Map language codes to Google's format
         String sourceLang = mapLanguageCode(fromLang);
         String targetLang = mapLanguageCode(toLang);
@@ -64,28 +118,42 @@ public class GoogleClient {
         // Build the URL with query parameters
         String url = BASE_URL + "?client=gtx&sl=" + sourceLang + "&tl=" + targetLang + "&dt=t&q=" + encodedText;
 
-        HttpRequest httpRequest = HttpRequest.newBuilder()
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("User-Agent", "Mozilla/5.0")
                 .timeout(Duration.ofSeconds(readTimeout))
-                .GET()
-                .build();
+                .GET();
 
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        // Parse the complex nested array response
+        return parseGoogleResponse(send(httpRequest));
+    }
+
+    private String send(HttpRequest.Builder httpRequest) throws IOException, InterruptedException, RateLimitException {
+        if (suspensionManager != null && !suspensionManager.tryAcquireBudget("google", null, 0)) {
+            throw new RejectedExecutionException("Google Translate is over its request budget");
+        }
+
+        HttpTransport.Response response = transport.send(httpRequest);
+        long now = System.currentTimeMillis();
 
         // Handle rate limiting
         if (response.statusCode() == 429) {
             String errorMsg = "Google Translate rate limit exceeded (HTTP 429)";
             plugin.debug(errorMsg);
-            throw new RateLimitException("google", 429, errorMsg);
+            throw new RateLimitException("google", 429, errorMsg,
+                    RateLimitHeaders.retryAt(response::header, now));
         }
 
         if (response.statusCode() != 200) {
             throw new IOException("Google Translate responded with status: " + response.statusCode() + " - " + response.body());
         }
 
-        // Parse the complex nested array response
-        return parseGoogleResponse(response.body());
+        if (suspensionManager != null) {
+            suspensionManager.recordQuota("google", null,
+                    RateLimitHeaders.quota(response::header, now));
+        }
+
+        return response.body();
     }
 
     /**
@@ -180,7 +248,7 @@ public class GoogleClient {
     }
 
     public CompletableFuture<Boolean> isAvailable() {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 String testTranslation = translate("test", "auto", "en");
                 return testTranslation != null && !testTranslation.isEmpty();
@@ -189,4 +257,22 @@ public class GoogleClient {
             }
         });
     }
+
+    /**
+     * Opens a connection to Google Translate ahead of the first translation.
+     */
+    public void warmUp() {
+        transport.warmUp(BASE_URL);
+    }
+
+    public EngineExecutor.Stats getExecutorStats() {
+        return engineExecutor.getStats();
+    }
+
+    /**
+     * Stops accepting new requests; requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        engineExecutor.shutdown();
+    }
 }
@@ -2,50 +2,59 @@ package net.mysterria.translator.engine.libretranslate;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.RateLimitHeaders;
 import net.mysterria.translator.exception.RateLimitException;
+import net.mysterria.translator.translation.RateLimitManager;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public class LibreTranslateClient {
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
     private final String baseUrl;
-    private final String apiKey;
+    private final CredentialPool credentialPool;
     private final int alternatives;
     private final String format;
     private final Gson gson;
     private final MysterriaTranslator plugin;
+    private final EngineExecutor engineExecutor;
+    private final RateLimitManager suspensionManager;
     private final int readTimeout;
 
-    public LibreTranslateClient(MysterriaTranslator plugin, String baseUrl, String apiKey, int alternatives, String format) {
+    public LibreTranslateClient(MysterriaTranslator plugin, RateLimitManager suspensionManager, HttpTransport transport,
+                                String baseUrl, List<String> apiKeys, int alternatives, String format) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
+        this.transport = transport;
+        this.engineExecutor = new EngineExecutor(plugin, "libretranslate",
+                plugin.getConfig().getInt("translation.libretranslate.maxConcurrency", 8),
+                plugin.getConfig().getInt("translation.libretranslate.maxQueue", 64));
         this.baseUrl = baseUrl;
-        this.apiKey = apiKey;
+        this.credentialPool = new CredentialPool(plugin, "libretranslate", apiKeys, suspensionManager);
         this.alternatives = alternatives;
         this.format = format;
         this.gson = new Gson();
 
 
-        int connectTimeout = plugin.getConfig().getInt("translation.libretranslate.connectTimeout", 5);
         this.readTimeout = plugin.getConfig().getInt("translation.libretranslate.readTimeout", 10);
 
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(connectTimeout))
-                .build();
-
-        plugin.debug("LibreTranslate client initialized with connectTimeout=" + connectTimeout + "s, readTimeout=" + readTimeout + "s");
+        plugin.debug("LibreTranslate client initialized with readTimeout=" + readTimeout + "s");
     }
 
     public CompletableFuture<String> translateAsync(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translate(text, fromLang, toLang);
             } catch (Exception e) {
@@ -55,49 +64,114 @@ public class LibreTranslateClient {
         });
     }
 
+    /**
+     * Translates several messages in one request by sending {@code q} as an array.
+     *
+     * @return Future with translations in input order, or null if the response could not be matched to the input
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, String fromLang, String toLang) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                return translateBatch(texts, fromLang, toLang);
+            } catch (Exception e) {
+                plugin.debug("LibreTranslate batch translation failed: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private List<String> translateBatch(List<String> texts, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
+        JsonArray q = new JsonArray();
+        texts.forEach(q::add);
+
+        JsonObject request = createRequest(fromLang, toLang);
+        request.add("q", q);
+        request.addProperty("alternatives", 0);
+
+        JsonObject responseJson = send(request);
+        if (!responseJson.has("translatedText") || !responseJson.get("translatedText").isJsonArray()) {
+            plugin.debug("LibreTranslate batch response has no translatedText array");
+            return null;
+        }
+
+        JsonArray translated = responseJson.getAsJsonArray("translatedText");
+        if (translated.size() != texts.size()) {
+            plugin.debug("LibreTranslate returned " + translated.size() + " translations for " + texts.size() + " inputs");
+            return null;
+        }
+
+        List<String> translations = new ArrayList<>(translated.size());
+        for (JsonElement element : translated) {
+            translations.add(element.getAsString());
+        }
+        return translations;
+    }
+
     private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
-        JsonObject request = new JsonObject();
+        JsonObject request = createRequest(fromLang, toLang);
         request.addProperty("q", text);
+        request.addProperty("alternatives", alternatives);
+
+        JsonObject responseJson = send(request);
+
+        if (responseJson.has("translatedText")) {
+            return responseJson.get("translatedText").getAsString();
+        } else if (responseJson.has("alternatives") && responseJson.get("alternatives").isJsonArray()) {
+            JsonArray alternatives = responseJson.getAsJsonArray("alternatives");
+            if (!alternatives.isEmpty()) {
+                return alternatives.get(0).getAsString();
+            }
+        }
+
+        throw new IOException("Invalid response format from LibreTranslate");
+    }
+
+    private JsonObject createRequest(String fromLang, String toLang) {
+        JsonObject request = new JsonObject();
         request.addProperty("source", mapLanguageCode(fromLang));
         request.addProperty("target", mapLanguageCode(toLang));
         request.addProperty("format", format);
-        request.addProperty("alternatives", alternatives);
-        if (apiKey != null && !apiKey.isEmpty() && !apiKey.equals("your-api-key-here")) {
-            request.addProperty("api_key", apiKey);
-        }
+        return request;
+    }
 
-        HttpRequest httpRequest = HttpRequest.newBuilder()
+    private JsonObject send(JsonObject request) throws IOException, InterruptedException, RateLimitException {
+        return credentialPool.execute(0, (apiKey, keyIdentifier) -> {
+            JsonObject keyed = request.deepCopy();
+            if (apiKey != null && !apiKey.isEmpty() && !apiKey.equals("your-api-key-here")) {
+                keyed.addProperty("api_key", apiKey);
+            }
+            return send(keyed, keyIdentifier);
+        });
+    }
+
+    private JsonObject send(JsonObject request, String keyIdentifier) throws IOException, InterruptedException, RateLimitException {
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl))
                 .header("Content-Type", "application/json")
                 .timeout(Duration.ofSeconds(readTimeout))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(request)))
-                .build();
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(request)));
 
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        HttpTransport.Response response = transport.send(httpRequest);
+        long now = System.currentTimeMillis();
 
 
         if (response.statusCode() == 429) {
-            String errorMsg = "LibreTranslate rate limit exceeded (HTTP 429)";
+            String errorMsg = "LibreTranslate " + (keyIdentifier != null ? keyIdentifier + " " : "") + "rate limit exceeded (HTTP 429)";
             plugin.debug(errorMsg);
-            throw new RateLimitException("libretranslate", 429, errorMsg);
+            throw new RateLimitException("libretranslate", keyIdentifier, 429, errorMsg,
+                    RateLimitHeaders.retryAt(response::header, now));
         }
 
         if (response.statusCode() != 200) {
             throw new IOException("LibreTranslate responded with status: " + response.statusCode() + " - " + response.body());
         }
 
-        JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
-
-        if (responseJson.has("translatedText")) {
-            return responseJson.get("translatedText").getAsString();
-        } else if (responseJson.has("alternatives") && responseJson.get("alternatives").isJsonArray()) {
-            JsonArray alternatives = responseJson.getAsJsonArray("alternatives");
-            if (!alternatives.isEmpty()) {
-                return alternatives.get(0).getAsString();
-            }
+        if (suspensionManager != null) {
+            suspensionManager.recordQuota("libretranslate", keyIdentifier,
+                    RateLimitHeaders.quota(response::header, now));
         }
 
-        throw new IOException("Invalid response format from LibreTranslate");
+        return gson.fromJson(response.body(), JsonObject.class);
     }
 
     private String mapLanguageCode(String langCode) {
@@ -118,4 +192,26 @@ public class LibreTranslateClient {
             default -> langCode.length() > 2 ? langCode.substring(0, 2) : langCode;
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a connection to the LibreTranslate server ahead of the first translation.
+     */
+    public void warmUp() {
+        transport.warmUp(baseUrl);
+    }
+
+    public EngineExecutor.Stats getExecutorStats() {
+        return engineExecutor.getStats();
+    }
+
+    public List<CredentialPool.Stats> getCredentialStats() {
+        return credentialPool.getStats();
+    }
+
+    /**
+     * Stops accepting new requests; requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        engineExecutor.shutdown();
+    }
+}
@@ -3,51 +3,64 @@ package net.mysterria.translator.engine.ollama;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.BatchFormat;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.RateLimitHeaders;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.exception.RateLimitException;
 import net.mysterria.translator.manager.PromptManager;
+import net.mysterria.translator.translation.RateLimitManager;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class OllamaClient {
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
     private final String baseUrl;
     private final String model;
-    private final String apiKey;
+    private final CredentialPool credentialPool;
+    private final StreamCutoff streamCutoff;
     private final Gson gson;
     private final MysterriaTranslator plugin;
+    private final EngineExecutor engineExecutor;
     private final PromptManager promptManager;
+    private final RateLimitManager suspensionManager;
     private final int requestTimeout;
 
-    public OllamaClient(MysterriaTranslator plugin, PromptManager promptManager, String baseUrl, String model, String apiKey) {
+    public OllamaClient(MysterriaTranslator plugin, PromptManager promptManager, RateLimitManager suspensionManager,
+                        HttpTransport transport, String baseUrl, String model, List<String> apiKeys) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
+        this.transport = transport;
+        this.engineExecutor = new EngineExecutor(plugin, "ollama",
+                plugin.getConfig().getInt("translation.ollama.maxConcurrency", 4),
+                plugin.getConfig().getInt("translation.ollama.maxQueue", 64));
         this.promptManager = promptManager;
         this.baseUrl = baseUrl;
         this.model = model;
-        this.apiKey = apiKey;
+        this.credentialPool = new CredentialPool(plugin, "ollama", apiKeys, suspensionManager);
+        this.streamCutoff = new StreamCutoff(plugin, "ollama");
         this.gson = new Gson();
 
         
-        int connectTimeout = plugin.getConfig().getInt("translation.ollama.connectTimeout", 10);
         this.requestTimeout = plugin.getConfig().getInt("translation.ollama.requestTimeout", 90);
 
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(connectTimeout))
-                .build();
-
-        plugin.debug("Ollama client initialized with connectTimeout=" + connectTimeout + "s, requestTimeout=" + requestTimeout + "s");
+        plugin.debug("Ollama client initialized with requestTimeout=" + requestTimeout + "s");
     }
 
     public CompletableFuture<String> translateAsync(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translate(text, fromLang, toLang);
             } catch (Exception e) {
@@ -59,7 +72,69 @@ public class OllamaClient {
         });
     }
 
+    /**
+     * Translates several messages with one generate call. The messages are sent as a JSON array
+     * and the model is asked to answer with an array of the same length.
+     *
+     * @return Future with translations in input order, or null if the response could not be matched to the input
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, String fromLang, String toLang) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String messages = BatchFormat.encode(texts);
+                String response = generate(buildBatchPrompt(texts, fromLang, toLang), messages, messages.length(), false);
+                List<String> translations = BatchFormat.decode(response, texts.size());
+                if (translations == null) {
+                    plugin.debug("Ollama batch response did not match " + texts.size() + " inputs: " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("Batch translation failed - " + e.getClass().getSimpleName() + ": " +
+                             (e.getMessage() != null ? e.getMessage() : "No error message"));
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Translates one message into several languages with one generate call.
+     *
+     * @return Future with translations keyed by language code (languages the model skipped are absent),
+     * or null if the response could not be used at all
+     */
+    public CompletableFuture<Map<String, String>> translateMultiAsync(String text, String fromLang, List<String> toLangs) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String response = generate(buildMultiTargetPrompt(text, fromLang, toLangs), text,
+                        (text.length() + 16) * toLangs.size(), false);
+                Map<String, String> translations = BatchFormat.decodeLanguages(response, toLangs);
+                if (translations == null || translations.size() < toLangs.size()) {
+                    plugin.debug("Ollama multi-target response did not contain all of " + toLangs + ": " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("Multi-target translation failed - " + e.getClass().getSimpleName() + ": " +
+                             (e.getMessage() != null ? e.getMessage() : "No error message"));
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
+        return extractTranslation(generate(buildTranslationPrompt(text, fromLang, toLang), text, text.length(), true));
+    }
+
+    /**
+     * Runs one generate call.
+     *
+     * @param prompt         The full prompt
+     * @param input          The text being translated, for the streaming cutoff
+     * @param expectedLength Expected length of the answer, for the streaming cutoff
+     * @param useStopMarkers Whether a streamed answer may be cut at a stop marker
+     * @return The model's answer
+     */
+    private String generate(String prompt, String input, int expectedLength, boolean useStopMarkers)
+            throws IOException, InterruptedException, RateLimitException {
         plugin.debug("Attempting translation to Ollama at: " + baseUrl + "/api/generate");
 
         JsonObject options = new JsonObject();
@@ -68,53 +143,125 @@ public class OllamaClient {
 
         JsonObject request = new JsonObject();
         request.addProperty("model", model);
-        request.addProperty("prompt", buildTranslationPrompt(text, fromLang, toLang));
-        request.addProperty("stream", false);
+        request.addProperty("prompt", prompt);
+        request.addProperty("stream", streamCutoff.isEnabled());
         request.add("options", options);
 
+        long estimatedTokens = RateLimitManager.estimateTokens(prompt);
+        String requestBody = gson.toJson(request);
+        return credentialPool.execute(estimatedTokens, (apiKey, keyIdentifier) -> streamCutoff.isEnabled()
+                ? sendStreaming(requestBody, apiKey, keyIdentifier, estimatedTokens,
+                        streamCutoff.start(input, expectedLength, useStopMarkers))
+                : send(requestBody, apiKey, keyIdentifier, estimatedTokens));
+    }
+
+    private String send(String requestBody, String apiKey, String keyIdentifier, long estimatedTokens)
+            throws IOException, InterruptedException, RateLimitException {
+        try {
+            HttpTransport.Response response = transport.send(newRequest(requestBody, apiKey));
+            checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
+
+            JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
+            recordUsage(keyIdentifier, estimatedTokens, responseJson);
+            return responseJson.get("response").getAsString();
+        } catch (java.net.ConnectException e) {
+            throw connectFailed(e);
+        } catch (java.net.SocketTimeoutException e) {
+            throw timedOut(e);
+        }
+    }
+
+    /**
+     * Reads the answer as newline-delimited JSON chunks while it is generated. Once the cutoff
+     * says the answer is complete, the connection is closed, which stops the generation.
+     */
+    private String sendStreaming(String requestBody, String apiKey, String keyIdentifier, long estimatedTokens,
+                                 StreamCutoff.Session session) throws IOException, InterruptedException, RateLimitException {
+        try (HttpTransport.StreamingResponse response = transport.stream(newRequest(requestBody, apiKey))) {
+            checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
+
+            String line;
+            while ((line = response.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                JsonObject chunk = gson.fromJson(line, JsonObject.class);
+                if (chunk.has("error")) {
+                    throw new IOException("Ollama stream failed: " + chunk.get("error").getAsString());
+                }
+                if (!session.append(chunk.has("response") ? chunk.get("response").getAsString() : null)) {
+                    plugin.debug("Stopped Ollama generation after " + session.text().length() + " characters");
+                    return session.stoppedAnswer();
+                }
+                if (chunk.has("done") && chunk.get("done").getAsBoolean()) {
+                    recordUsage(keyIdentifier, estimatedTokens, chunk);
+                    return session.text();
+                }
+            }
+            throw new IOException("Ollama stream ended before the answer was complete");
+        } catch (java.net.ConnectException e) {
+            throw connectFailed(e);
+        } catch (java.net.SocketTimeoutException e) {
+            throw timedOut(e);
+        }
+    }
+
+    private HttpRequest.Builder newRequest(String requestBody, String apiKey) {
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/api/generate"))
                 .header("Content-Type", "application/json")
                 .timeout(Duration.ofSeconds(requestTimeout))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(request)));
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody));
 
         if (apiKey != null && !apiKey.isEmpty()) {
             requestBuilder.header("Authorization", "Bearer " + apiKey);
         }
+        return requestBuilder;
+    }
 
-        HttpRequest httpRequest = requestBuilder.build();
-
-        try {
-            HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+    private void checkResponse(int statusCode, Function<String, String> headers, Supplier<String> body, String keyIdentifier)
+            throws IOException, RateLimitException {
+        long now = System.currentTimeMillis();
 
-            
-            if (response.statusCode() == 429) {
-                String errorMsg = "Ollama rate limit exceeded (HTTP 429)";
-                plugin.debug(errorMsg);
-                throw new RateLimitException("ollama", 429, errorMsg);
-            }
-
-            if (response.statusCode() != 200) {
-                String errorMsg = "Ollama responded with status: " + response.statusCode() + " - " + response.body();
-                plugin.debug(errorMsg);
-                throw new IOException(errorMsg);
-            }
+        if (statusCode == 429) {
+            String errorMsg = "Ollama " + (keyIdentifier != null ? keyIdentifier + " " : "") + "rate limit exceeded (HTTP 429)";
+            plugin.debug(errorMsg);
+            throw new RateLimitException("ollama", keyIdentifier, 429, errorMsg, RateLimitHeaders.retryAt(headers, now));
+        }
 
-            JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
-            String fullResponse = responseJson.get("response").getAsString();
+        if (suspensionManager != null) {
+            suspensionManager.recordQuota("ollama", keyIdentifier, RateLimitHeaders.quota(headers, now));
+        }
 
-            return extractTranslation(fullResponse);
-        } catch (java.net.ConnectException e) {
-            String errorMsg = "Failed to connect to Ollama server at " + baseUrl + ". Is Ollama running?";
+        if (statusCode != 200) {
+            String errorMsg = "Ollama responded with status: " + statusCode + " - " + body.get();
             plugin.debug(errorMsg);
-            throw new IOException(errorMsg, e);
-        } catch (java.net.SocketTimeoutException e) {
-            String errorMsg = "Timeout connecting to Ollama server at " + baseUrl;
-            plugin.debug(errorMsg);
-            throw new IOException(errorMsg, e);
+            throw new IOException(errorMsg);
         }
     }
 
+    private void recordUsage(String keyIdentifier, long estimatedTokens, JsonObject responseJson) {
+        if (suspensionManager != null) {
+            suspensionManager.recordUsage("ollama", keyIdentifier, estimatedTokens,
+                    responseJson.has("prompt_eval_count") && responseJson.has("eval_count")
+                            ? responseJson.get("prompt_eval_count").getAsLong() + responseJson.get("eval_count").getAsLong()
+                            : -1);
+        }
+    }
+
+    private IOException connectFailed(java.net.ConnectException e) {
+        String errorMsg = "Failed to connect to Ollama server at " + baseUrl + ". Is Ollama running?";
+        plugin.debug(errorMsg);
+        return new IOException(errorMsg, e);
+    }
+
+    private IOException timedOut(java.net.SocketTimeoutException e) {
+        String errorMsg = "Timeout connecting to Ollama server at " + baseUrl;
+        plugin.debug(errorMsg);
+        return new IOException(errorMsg, e);
+    }
+
     private String buildTranslationPrompt(String text, String fromLang, String toLang) {
         Map<String, String> variables = new HashMap<>();
         variables.put("sourceLang", fromLang);
@@ -124,6 +271,25 @@ public class OllamaClient {
         return promptManager.getPrompt("ollama.prompt", variables);
     }
 
+    private String buildBatchPrompt(List<String> texts, String fromLang, String toLang) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", fromLang);
+        variables.put("targetLang", toLang);
+        variables.put("count", String.valueOf(texts.size()));
+        variables.put("messages", BatchFormat.encode(texts));
+
+        return promptManager.getPrompt("ollama.batchPrompt", variables);
+    }
+
+    private String buildMultiTargetPrompt(String text, String fromLang, List<String> toLangs) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", fromLang);
+        variables.put("targetLangs", String.join(", ", toLangs));
+        variables.put("message", text);
+
+        return promptManager.getPrompt("ollama.multiTargetPrompt", variables);
+    }
+
     private String extractTranslation(String response) {
         String cleaned = response.trim();
         if (cleaned.startsWith("\"") && cleaned.endsWith("\"")) {
@@ -136,4 +302,30 @@ public class OllamaClient {
 
         return cleaned;
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a connection to the Ollama server ahead of the first translation.
+     */
+    public void warmUp() {
+        transport.warmUp(baseUrl);
+    }
+
+    public EngineExecutor.Stats getExecutorStats() {
+        return engineExecutor.getStats();
+    }
+
+    public List<CredentialPool.Stats> getCredentialStats() {
+        return credentialPool.getStats();
+    }
+
+    public StreamCutoff.Stats getStreamingStats() {
+        return streamCutoff.getStats();
+    }
+
+    /**
+     * Stops accepting new requests; requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        engineExecutor.shutdown();
+    }
+}
@@ -4,52 +4,65 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.BatchFormat;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.HttpTransport;
+import net.mysterria.translator.engine.RateLimitHeaders;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.exception.RateLimitException;
+import net.mysterria.translator.exception.UnusableAnswerException;
 import net.mysterria.translator.manager.PromptManager;
+import net.mysterria.translator.translation.RateLimitManager;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class OpenAIClient {
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
     private final String baseUrl;
     private final String model;
-    private final String apiKey;
+    private final CredentialPool credentialPool;
+    private final StreamCutoff streamCutoff;
     private final Gson gson;
     private final MysterriaTranslator plugin;
+    private final EngineExecutor engineExecutor;
     private final PromptManager promptManager;
+    private final RateLimitManager suspensionManager;
     private final int readTimeout;
 
-    public OpenAIClient(MysterriaTranslator plugin, PromptManager promptManager, String baseUrl, String model, String apiKey) {
+    public OpenAIClient(MysterriaTranslator plugin, PromptManager promptManager, RateLimitManager suspensionManager,
+                        HttpTransport transport, String baseUrl, String model, List<String> apiKeys) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
+        this.transport = transport;
+        this.engineExecutor = new EngineExecutor(plugin, "openai",
+                plugin.getConfig().getInt("translation.openai.maxConcurrency", 16),
+                plugin.getConfig().getInt("translation.openai.maxQueue", 64));
         this.promptManager = promptManager;
         this.baseUrl = baseUrl;
         this.model = model;
-        this.apiKey = apiKey;
+        this.credentialPool = new CredentialPool(plugin, "openai", apiKeys, suspensionManager);
+        this.streamCutoff = new StreamCutoff(plugin, "openai");
         this.gson = new Gson();
 
 
-        int connectTimeout = plugin.getConfig().getInt("translation.openai.connectTimeout", 10);
         this.readTimeout = plugin.getConfig().getInt("translation.openai.readTimeout", 30);
 
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(connectTimeout))
-                .build();
-
-        plugin.debug("OpenAI client initialized with model=" + model +
-                     ", connectTimeout=" + connectTimeout + "s, readTimeout=" + readTimeout + "s");
+        plugin.debug("OpenAI client initialized with model=" + model + ", readTimeout=" + readTimeout + "s");
     }
 
     public CompletableFuture<String> translateAsync(String text, String fromLang, String toLang) {
-        return CompletableFuture.supplyAsync(() -> {
+        return engineExecutor.supplyAsync(() -> {
             try {
                 return translate(text, fromLang, toLang);
             } catch (Exception e) {
@@ -61,7 +74,72 @@ public class OpenAIClient {
         });
     }
 
+    /**
+     * Translates several messages with one chat completion. The messages are sent as a JSON array
+     * and the model is asked to answer with an array of the same length.
+     *
+     * @return Future with translations in input order, or null if the response could not be matched to the input
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, String fromLang, String toLang) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String messages = BatchFormat.encode(texts);
+                String response = complete(promptManager.getPrompt("openai.batchSystemPrompt", new HashMap<>()),
+                        buildBatchPrompt(texts, fromLang, toLang), messages, messages.length(), false);
+                List<String> translations = BatchFormat.decode(response, texts.size());
+                if (translations == null) {
+                    plugin.debug("OpenAI batch response did not match " + texts.size() + " inputs: " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("OpenAI batch translation failed - " + e.getClass().getSimpleName() + ": " +
+                             (e.getMessage() != null ? e.getMessage() : "No error message"));
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Translates one message into several languages with one chat completion.
+     *
+     * @return Future with translations keyed by language code (languages the model skipped are absent),
+     * or null if the response could not be used at all
+     */
+    public CompletableFuture<Map<String, String>> translateMultiAsync(String text, String fromLang, List<String> toLangs) {
+        return engineExecutor.supplyAsync(() -> {
+            try {
+                String response = complete(promptManager.getPrompt("openai.multiTargetSystemPrompt", new HashMap<>()),
+                        buildMultiTargetPrompt(text, fromLang, toLangs), text, (text.length() + 16) * toLangs.size(), false);
+                Map<String, String> translations = BatchFormat.decodeLanguages(response, toLangs);
+                if (translations == null || translations.size() < toLangs.size()) {
+                    plugin.debug("OpenAI multi-target response did not contain all of " + toLangs + ": " + response);
+                }
+                return translations;
+            } catch (Exception e) {
+                plugin.debug("OpenAI multi-target translation failed - " + e.getClass().getSimpleName() + ": " +
+                             (e.getMessage() != null ? e.getMessage() : "No error message"));
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     private String translate(String text, String fromLang, String toLang) throws IOException, InterruptedException, RateLimitException {
+        return extractTranslation(complete(buildSystemPrompt(), buildTranslationPrompt(text, fromLang, toLang),
+                text, text.length(), true));
+    }
+
+    /**
+     * Runs one chat completion.
+     *
+     * @param systemPrompt   The system message
+     * @param userPrompt     The user message
+     * @param input          The text being translated, for the streaming cutoff
+     * @param expectedLength Expected length of the answer, for the streaming cutoff
+     * @param useStopMarkers Whether a streamed answer may be cut at a stop marker
+     * @return The model's answer
+     */
+    private String complete(String systemPrompt, String userPrompt, String input, int expectedLength, boolean useStopMarkers)
+            throws IOException, InterruptedException, RateLimitException {
         plugin.debug("Attempting translation to OpenAI at: " + baseUrl + "/chat/completions");
 
 
@@ -69,12 +147,12 @@ public class OpenAIClient {
 
         JsonObject systemMessage = new JsonObject();
         systemMessage.addProperty("role", "system");
-        systemMessage.addProperty("content", buildSystemPrompt());
+        systemMessage.addProperty("content", systemPrompt);
         messages.add(systemMessage);
 
         JsonObject userMessage = new JsonObject();
         userMessage.addProperty("role", "user");
-        userMessage.addProperty("content", buildTranslationPrompt(text, fromLang, toLang));
+        userMessage.addProperty("content", userPrompt);
         messages.add(userMessage);
 
 
@@ -102,55 +180,144 @@ public class OpenAIClient {
             request.addProperty("max_completion_tokens", maxTokens);
         }
 
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/chat/completions"))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey)
-                .timeout(Duration.ofSeconds(readTimeout))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(request)))
-                .build();
-
-        try {
-            HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-
+        if (streamCutoff.isEnabled()) {
+            JsonObject streamOptions = new JsonObject();
+            streamOptions.addProperty("include_usage", true);
+            request.addProperty("stream", true);
+            request.add("stream_options", streamOptions);
+        }
 
-            if (response.statusCode() == 429) {
-                String errorMsg = "OpenAI rate limit exceeded (HTTP 429): " + response.body();
-                plugin.debug(errorMsg);
-                throw new RateLimitException("openai", 429, errorMsg);
-            }
+        long estimatedTokens = RateLimitManager.estimateTokens(systemPrompt + userPrompt);
+        String requestBody = gson.toJson(request);
+        return credentialPool.execute(estimatedTokens, (apiKey, keyIdentifier) -> streamCutoff.isEnabled()
+                ? sendStreaming(requestBody, apiKey, keyIdentifier, estimatedTokens,
+                        streamCutoff.start(input, expectedLength, useStopMarkers))
+                : send(requestBody, apiKey, keyIdentifier, estimatedTokens));
+    }
 
-            if (response.statusCode() != 200) {
-                String errorMsg = "OpenAI responded with status: " + response.statusCode() + " - " + response.body();
-                plugin.debug(errorMsg);
-                throw new IOException(errorMsg);
-            }
+    private String send(String requestBody, String apiKey, String keyIdentifier, long estimatedTokens)
+            throws IOException, InterruptedException, RateLimitException {
+        try {
+            HttpTransport.Response response = transport.send(newRequest(requestBody, apiKey));
+            checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
 
             JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
-
+            recordUsage(keyIdentifier, estimatedTokens, responseJson);
 
             JsonArray choices = responseJson.getAsJsonArray("choices");
             if (choices == null || choices.isEmpty()) {
-                throw new IOException("OpenAI returned no choices in response");
+                throw new UnusableAnswerException("OpenAI returned no choices in response");
             }
 
             JsonObject firstChoice = choices.get(0).getAsJsonObject();
             JsonObject message = firstChoice.getAsJsonObject("message");
-            String translatedText = message.get("content").getAsString();
+            return message.get("content").getAsString();
 
-            return extractTranslation(translatedText);
+        } catch (java.net.ConnectException e) {
+            throw connectFailed(e);
+        } catch (java.net.SocketTimeoutException e) {
+            throw timedOut(e);
+        }
+    }
 
+    /**
+     * Reads the answer as server-sent events while it is generated. Once the cutoff says the
+     * answer is complete, the connection is closed, which stops the generation.
+     */
+    private String sendStreaming(String requestBody, String apiKey, String keyIdentifier, long estimatedTokens,
+                                 StreamCutoff.Session session) throws IOException, InterruptedException, RateLimitException {
+        try (HttpTransport.StreamingResponse response = transport.stream(newRequest(requestBody, apiKey))) {
+            checkResponse(response.statusCode(), response::header, response::body, keyIdentifier);
+
+            String line;
+            while ((line = response.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+
+                String data = line.substring("data:".length()).trim();
+                if (data.equals("[DONE]")) {
+                    return session.text();
+                }
+
+                JsonObject chunk = gson.fromJson(data, JsonObject.class);
+                if (chunk.has("error")) {
+                    throw new IOException("OpenAI stream failed: " + chunk.get("error"));
+                }
+                if (chunk.has("usage") && chunk.get("usage").isJsonObject()) {
+                    recordUsage(keyIdentifier, estimatedTokens, chunk);
+                }
+
+                JsonArray choices = chunk.getAsJsonArray("choices");
+                if (choices == null || choices.isEmpty()) {
+                    continue;
+                }
+                JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+                String content = delta != null && delta.has("content") && !delta.get("content").isJsonNull()
+                        ? delta.get("content").getAsString() : null;
+                if (!session.append(content)) {
+                    plugin.debug("Stopped OpenAI generation after " + session.text().length() + " characters");
+                    return session.stoppedAnswer();
+                }
+            }
+            throw new IOException("OpenAI stream ended before the answer was complete");
         } catch (java.net.ConnectException e) {
-            String errorMsg = "Failed to connect to OpenAI server at " + baseUrl + ". Check your network connection.";
-            plugin.debug(errorMsg);
-            throw new IOException(errorMsg, e);
+            throw connectFailed(e);
         } catch (java.net.SocketTimeoutException e) {
-            String errorMsg = "Timeout connecting to OpenAI server at " + baseUrl;
+            throw timedOut(e);
+        }
+    }
+
+    private HttpRequest.Builder newRequest(String requestBody, String apiKey) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/chat/completions"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .timeout(Duration.ofSeconds(readTimeout))
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody));
+    }
+
+    private void checkResponse(int statusCode, Function<String, String> headers, Supplier<String> body, String keyIdentifier)
+            throws IOException, RateLimitException {
+        long now = System.currentTimeMillis();
+
+        if (statusCode == 429) {
+            String errorMsg = "OpenAI " + (keyIdentifier != null ? keyIdentifier + " " : "") + "rate limit exceeded (HTTP 429): " + body.get();
+            plugin.debug(errorMsg);
+            throw new RateLimitException("openai", keyIdentifier, 429, errorMsg, RateLimitHeaders.retryAt(headers, now));
+        }
+
+        if (suspensionManager != null) {
+            suspensionManager.recordQuota("openai", keyIdentifier, RateLimitHeaders.quota(headers, now));
+        }
+
+        if (statusCode != 200) {
+            String errorMsg = "OpenAI responded with status: " + statusCode + " - " + body.get();
             plugin.debug(errorMsg);
-            throw new IOException(errorMsg, e);
+            throw new IOException(errorMsg);
         }
     }
 
+    private void recordUsage(String keyIdentifier, long estimatedTokens, JsonObject responseJson) {
+        if (suspensionManager != null) {
+            JsonObject usage = responseJson.getAsJsonObject("usage");
+            suspensionManager.recordUsage("openai", keyIdentifier, estimatedTokens,
+                    usage != null && usage.has("total_tokens") ? usage.get("total_tokens").getAsLong() : -1);
+        }
+    }
+
+    private IOException connectFailed(java.net.ConnectException e) {
+        String errorMsg = "Failed to connect to OpenAI server at " + baseUrl + ". Check your network connection.";
+        plugin.debug(errorMsg);
+        return new IOException(errorMsg, e);
+    }
+
+    private IOException timedOut(java.net.SocketTimeoutException e) {
+        String errorMsg = "Timeout connecting to OpenAI server at " + baseUrl;
+        plugin.debug(errorMsg);
+        return new IOException(errorMsg, e);
+    }
+
     private String buildSystemPrompt() {
         return promptManager.getPrompt("openai.systemPrompt", new HashMap<>());
     }
@@ -164,6 +331,25 @@ public class OpenAIClient {
         return promptManager.getPrompt("openai.userPrompt", variables);
     }
 
+    private String buildBatchPrompt(List<String> texts, String fromLang, String toLang) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", fromLang);
+        variables.put("targetLang", toLang);
+        variables.put("count", String.valueOf(texts.size()));
+        variables.put("messages", BatchFormat.encode(texts));
+
+        return promptManager.getPrompt("openai.batchUserPrompt", variables);
+    }
+
+    private String buildMultiTargetPrompt(String text, String fromLang, List<String> toLangs) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("sourceLang", fromLang);
+        variables.put("targetLangs", String.join(", ", toLangs));
+        variables.put("message", text);
+
+        return promptManager.getPrompt("openai.multiTargetUserPrompt", variables);
+    }
+
     private String extractTranslation(String response) {
         String cleaned = response.trim();
 
@@ -178,4 +364,29 @@ public class OpenAIClient {
         return cleaned;
     }
 
+    /**
+     * Opens a connection to the OpenAI endpoint ahead of the first translation.
+     */
+    public void warmUp() {
+        transport.warmUp(baseUrl);
+    }
+
+    public EngineExecutor.Stats getExecutorStats() {
+        return engineExecutor.getStats();
+    }
+
+    public List<CredentialPool.Stats> getCredentialStats() {
+        return credentialPool.getStats();
+    }
+
+    public StreamCutoff.Stats getStreamingStats() {
+        return streamCutoff.getStats();
+    }
+
+    /**
+     * Stops accepting new requests; requests already running are allowed to finish.
+     */
+    public void shutdown() {
+        engineExecutor.shutdown();
+    }
 }
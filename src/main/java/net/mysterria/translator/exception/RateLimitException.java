@@ -2,12 +2,14 @@ package net.mysterria.translator.exception;
 
 /**
  * Exception thrown when a translation API returns HTTP 429 (Too Many Requests).
- * Contains information about which engine and API key (if applicable) triggered the rate limit.
+ * Contains information about which engine and API key (if applicable) triggered the rate limit,
+ * and when the provider said it accepts requests again, if it did.
  */
 public class RateLimitException extends Exception {
     private final String engineName;
     private final String apiKeyIdentifier;
     private final int statusCode;
+    private final long retryAtMillis;
 
     /**
      * Creates a RateLimitException for a single-key engine.
@@ -17,10 +19,19 @@ public class RateLimitException extends Exception {
      * @param message    Detailed error message
      */
     public RateLimitException(String engineName, int statusCode, String message) {
-        super(message);
-        this.engineName = engineName;
-        this.apiKeyIdentifier = null;
-        this.statusCode = statusCode;
+        this(engineName, null, statusCode, message, 0);
+    }
+
+    /**
+     * Creates a RateLimitException for a single-key engine with the provider's retry time.
+     *
+     * @param engineName    The name of the translation engine (e.g., "ollama", "openai")
+     * @param statusCode    The HTTP status code (should be 429)
+     * @param message       Detailed error message
+     * @param retryAtMillis When the provider accepts requests again, or 0 if it did not say
+     */
+    public RateLimitException(String engineName, int statusCode, String message, long retryAtMillis) {
+        this(engineName, null, statusCode, message, retryAtMillis);
     }
 
     /**
@@ -32,10 +43,24 @@ public class RateLimitException extends Exception {
      * @param message          Detailed error message
      */
     public RateLimitException(String engineName, String apiKeyIdentifier, int statusCode, String message) {
+        this(engineName, apiKeyIdentifier, statusCode, message, 0);
+    }
+
+    /**
+     * Creates a RateLimitException for a multi-key engine with the provider's retry time.
+     *
+     * @param engineName       The name of the translation engine
+     * @param apiKeyIdentifier Identifier for the specific API key, or null for single-key engines
+     * @param statusCode       The HTTP status code (should be 429)
+     * @param message          Detailed error message
+     * @param retryAtMillis    When the provider accepts requests again, or 0 if it did not say
+     */
+    public RateLimitException(String engineName, String apiKeyIdentifier, int statusCode, String message, long retryAtMillis) {
         super(message);
         this.engineName = engineName;
         this.apiKeyIdentifier = apiKeyIdentifier;
         this.statusCode = statusCode;
+        this.retryAtMillis = retryAtMillis;
     }
 
     public String getEngineName() {
@@ -50,6 +75,20 @@ public class RateLimitException extends Exception {
         return statusCode;
     }
 
+    /**
+     * Returns the time at which the provider accepts requests again, or 0 if it did not say.
+     */
+    public long getRetryAtMillis() {
+        return retryAtMillis;
+    }
+
+    /**
+     * Returns true if the provider said when it accepts requests again.
+     */
+    public boolean hasRetryAt() {
+        return retryAtMillis > 0;
+    }
+
     /**
      * Returns true if this exception is for a specific API key (multi-key engine).
      */
@@ -0,0 +1,18 @@
+package net.mysterria.translator.exception;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when a translation API answered the request, but the model's answer cannot be
+ * used, for example because it rambled past its length limit or contained no text.
+ * The request itself went through, so the failure is not held against the API key it was sent with.
+ */
+public class UnusableAnswerException extends IOException {
+
+    /**
+     * @param message Detailed error message
+     */
+    public UnusableAnswerException(String message) {
+        super(message);
+    }
+}
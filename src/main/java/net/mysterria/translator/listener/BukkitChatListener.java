@@ -8,9 +8,10 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.mysterria.translator.MysterriaTranslator;
-import net.mysterria.translator.translation.TranslationManager;
+import net.mysterria.translator.translation.MessageAnalysis;
+import net.mysterria.translator.translation.MessageDeadline;
+import net.mysterria.translator.translation.TranslationPriority;
 import net.mysterria.translator.translation.TranslationResult;
-import net.mysterria.translator.util.LanguageDetector;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -24,7 +25,6 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BukkitChatListener implements Listener {
 
     private final MysterriaTranslator plugin;
-    private final TranslationManager translationManager;
     private final Set<String> translatingMessages;
     private final java.util.Map<java.util.UUID, java.util.UUID> lastMessagePartners;
 
@@ -36,9 +36,8 @@ public class BukkitChatListener implements Listener {
             "reply", "r"
     );
 
-    public BukkitChatListener(MysterriaTranslator plugin, TranslationManager translationManager) {
+    public BukkitChatListener(MysterriaTranslator plugin) {
         this.plugin = plugin;
-        this.translationManager = translationManager;
         this.translatingMessages = ConcurrentHashMap.newKeySet();
         this.lastMessagePartners = new ConcurrentHashMap<>();
     }
@@ -170,6 +169,7 @@ public class BukkitChatListener implements Listener {
         translatingMessages.add(messageKey);
         plugin.debug("Added message to translation queue: " + messageKey);
 
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
         java.util.Set<Player> allPlayers = new java.util.HashSet<>(Bukkit.getOnlinePlayers());
         java.util.Set<Player> originalAudience = new java.util.HashSet<>();
         java.util.Set<Player> translationNeeded = new java.util.HashSet<>();
@@ -181,7 +181,7 @@ public class BukkitChatListener implements Listener {
             plugin.debug("No viewers in event, using all online players as fallback");
             for (Player player : allPlayers) {
                 if (!player.equals(sender)) {
-                    if (needsTranslationForPlayer(message, player)) {
+                    if (needsTranslationForPlayer(analysis, player)) {
                         translationNeeded.add(player);
                         plugin.debug("Player " + player.getName() + " needs translation (locale: " + player.locale() + ")");
                     } else {
@@ -193,7 +193,7 @@ public class BukkitChatListener implements Listener {
         } else {
             for (net.kyori.adventure.audience.Audience viewer : viewers) {
                 if (viewer instanceof Player player && !player.equals(sender)) {
-                    if (needsTranslationForPlayer(message, player)) {
+                    if (needsTranslationForPlayer(analysis, player)) {
                         translationNeeded.add(player);
                         plugin.debug("Player " + player.getName() + " needs translation (locale: " + player.locale() + ")");
                     } else {
@@ -213,7 +213,8 @@ public class BukkitChatListener implements Listener {
 
         if (!translationNeeded.isEmpty()) {
             plugin.debug("Starting optimized translation for " + translationNeeded.size() + " players");
-            translationManager.translateForMultiplePlayers(message, translationNeeded)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, translationNeeded, sender.getUniqueId(), TranslationPriority.GLOBAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
                         plugin.debug("Batch translation completed for " + translationNeeded.size() + " players, removed from queue: " + messageKey);
@@ -258,8 +259,8 @@ public class BukkitChatListener implements Listener {
         }
     }
 
-    private boolean needsTranslationForPlayer(String message, Player player) {
-        boolean needs = LanguageDetector.needsTranslation(message, player.locale().toString().toLowerCase());
+    private boolean needsTranslationForPlayer(MessageAnalysis analysis, Player player) {
+        boolean needs = analysis.needsTranslation(player);
         plugin.debug("Translation check for " + player.getName() + " (locale: " + player.locale() + "): " + needs);
         return needs;
     }
@@ -273,7 +274,9 @@ public class BukkitChatListener implements Listener {
 
         plugin.debug("Checking if private message needs translation for " + target.getName());
 
-        if (!needsTranslationForPlayer(message, target)) {
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
+
+        if (!needsTranslationForPlayer(analysis, target)) {
             plugin.debug("Private message doesn't need translation for " + target.getName() + ", not sending duplicate");
             return; 
         }
@@ -282,7 +285,8 @@ public class BukkitChatListener implements Listener {
         plugin.debug("Added private message to translation queue: " + messageKey + " (isPrivate: " + isPrivate + ")");
 
         plugin.debug("Requesting translation for private message to " + target.getName());
-        translationManager.translateForPlayer(message, target)
+        MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+        plugin.getTranslationManager().translateForPlayer(analysis, target, sender.getUniqueId(), isPrivate ? TranslationPriority.PRIVATE : TranslationPriority.LOCAL, deadline)
                 .whenComplete((result, throwable) -> {
                     translatingMessages.remove(messageKey);
                     plugin.debug("Private message translation completed for " + target.getName() + ", removed from queue: " + messageKey);
@@ -521,13 +525,14 @@ public class BukkitChatListener implements Listener {
 
         String processedMessage = processGlobalChatPrefix(message);
         plugin.debug("Processed cancelled global chat message: '" + message + "' -> '" + processedMessage + "'");
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(processedMessage);
 
         java.util.Set<Player> allPlayers = new java.util.HashSet<>(Bukkit.getOnlinePlayers());
         java.util.Set<Player> translationNeeded = new java.util.HashSet<>();
 
         for (Player player : allPlayers) {
             if (!player.equals(sender)) {
-                if (needsTranslationForPlayer(processedMessage, player)) {
+                if (needsTranslationForPlayer(analysis, player)) {
                     translationNeeded.add(player);
                     plugin.debug("Player " + player.getName() + " needs translation for cancelled global chat (locale: " + player.locale() + ")");
                 }
@@ -536,7 +541,8 @@ public class BukkitChatListener implements Listener {
 
         if (!translationNeeded.isEmpty()) {
             plugin.debug("Starting optimized cancelled global chat translation for " + translationNeeded.size() + " players");
-            translationManager.translateForMultiplePlayers(processedMessage, translationNeeded)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, translationNeeded, sender.getUniqueId(), TranslationPriority.GLOBAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
                         plugin.debug("Cancelled global chat batch translation completed for " + translationNeeded.size() + " players, removed from queue: " + messageKey);
@@ -571,6 +577,7 @@ public class BukkitChatListener implements Listener {
 
         String processedMessage = processGlobalChatPrefix(message);
         plugin.debug("Processed global chat message: '" + message + "' -> '" + processedMessage + "'");
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(processedMessage);
 
         event.setCancelled(true);
         plugin.debug("Cancelled original chat event for global chat message");
@@ -580,7 +587,7 @@ public class BukkitChatListener implements Listener {
 
         for (Player player : allPlayers) {
             if (!player.equals(sender)) {
-                if (needsTranslationForPlayer(processedMessage, player)) {
+                if (needsTranslationForPlayer(analysis, player)) {
                     translationNeeded.add(player);
                     plugin.debug("Player " + player.getName() + " needs translation for global chat (locale: " + player.locale() + ")");
                 }
@@ -598,7 +605,8 @@ public class BukkitChatListener implements Listener {
 
         if (!translationNeeded.isEmpty()) {
             plugin.debug("Starting optimized global chat translation for " + translationNeeded.size() + " players");
-            translationManager.translateForMultiplePlayers(processedMessage, translationNeeded)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, translationNeeded, sender.getUniqueId(), TranslationPriority.GLOBAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
                         plugin.debug("Global chat batch translation completed for " + translationNeeded.size() + " players, removed from queue: " + messageKey);
@@ -722,13 +730,14 @@ public class BukkitChatListener implements Listener {
         translatingMessages.add(messageKey);
         plugin.debug("Added range chat message to translation queue: " + messageKey);
 
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
         
         java.util.Set<Player> playersInRange = getPlayersInRange(sender);
         java.util.Set<Player> translationNeeded = new java.util.HashSet<>();
 
         
         for (Player player : playersInRange) {
-            if (needsTranslationForPlayer(message, player)) {
+            if (needsTranslationForPlayer(analysis, player)) {
                 translationNeeded.add(player);
                 plugin.debug("Player " + player.getName() + " needs translation for range chat (locale: " + player.locale() + ")");
             }
@@ -748,7 +757,8 @@ public class BukkitChatListener implements Listener {
         
         if (!translationNeeded.isEmpty()) {
             plugin.debug("Starting optimized range chat translation for " + translationNeeded.size() + " players");
-            translationManager.translateForMultiplePlayers(message, translationNeeded)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, translationNeeded, sender.getUniqueId(), TranslationPriority.LOCAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
                         plugin.debug("Range chat batch translation completed for " + translationNeeded.size() + " players, removed from queue: " + messageKey);
@@ -6,10 +6,11 @@ import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.mysterria.translator.MysterriaTranslator;
-import net.mysterria.translator.translation.TranslationManager;
+import net.mysterria.translator.translation.MessageAnalysis;
+import net.mysterria.translator.translation.MessageDeadline;
+import net.mysterria.translator.translation.TranslationPriority;
 import net.mysterria.translator.translation.TranslationResult;
 import net.mysterria.translator.util.DisguiseUtil;
-import net.mysterria.translator.util.LanguageDetector;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -20,17 +21,16 @@ import org.mineacademy.chatcontrol.api.ChannelPostChatEvent;
 import org.mineacademy.chatcontrol.api.PrePrivateMessageEvent;
 
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatControlListener implements Listener {
 
     private final MysterriaTranslator plugin;
-    private final TranslationManager translationManager;
     private final Set<String> translatingMessages;
 
-    public ChatControlListener(MysterriaTranslator plugin, TranslationManager translationManager) {
+    public ChatControlListener(MysterriaTranslator plugin) {
         this.plugin = plugin;
-        this.translationManager = translationManager;
         this.translatingMessages = ConcurrentHashMap.newKeySet();
     }
 
@@ -50,14 +50,15 @@ public class ChatControlListener implements Listener {
                 return;
             }
 
+            MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
             Set<Player> originalRecipients = Set.copyOf(event.getRecipients());
 
             event.getRecipients().removeIf(player ->
-                    !player.equals(sender) && needsTranslationForPlayer(message, player)
+                    !player.equals(sender) && needsTranslationForPlayer(analysis, player)
             );
 
             Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                processTranslationForRemovedRecipients(sender, message, originalRecipients, event.getRecipients(), isGlobalChannel);
+                processTranslationForRemovedRecipients(sender, analysis, originalRecipients, event.getRecipients(), isGlobalChannel);
             }, 1L);
         } else {
             CommandSender sender = event.getSender();
@@ -67,14 +68,15 @@ public class ChatControlListener implements Listener {
                 return;
             }
 
+            MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
             Set<Player> originalRecipients = Set.copyOf(event.getRecipients());
 
             event.getRecipients().removeIf(player ->
-                    !player.equals(sender) && needsTranslationForPlayer(message, player)
+                    !player.equals(sender) && needsTranslationForPlayer(analysis, player)
             );
 
             Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                processTranslationForRemovedRecipients(sender, message, originalRecipients, event.getRecipients(), isGlobalChannel);
+                processTranslationForRemovedRecipients(sender, analysis, originalRecipients, event.getRecipients(), isGlobalChannel);
             }, 1L);
         }
     }
@@ -100,7 +102,8 @@ public class ChatControlListener implements Listener {
         }
     }
 
-    private void processTranslationForRemovedRecipients(Player sender, String message, Set<Player> originalRecipients, Set<Player> currentRecipients, boolean isGlobalChannel) {
+    private void processTranslationForRemovedRecipients(Player sender, MessageAnalysis analysis, Set<Player> originalRecipients, Set<Player> currentRecipients, boolean isGlobalChannel) {
+        String message = analysis.message();
         String messageKey = sender.getUniqueId() + ":" + message.hashCode();
         translatingMessages.add(messageKey);
 
@@ -109,7 +112,7 @@ public class ChatControlListener implements Listener {
             if (recipient.equals(sender)) continue;
             if (currentRecipients.contains(recipient)) continue;
 
-            if (needsTranslationForPlayer(message, recipient)) {
+            if (needsTranslationForPlayer(analysis, recipient)) {
                 needsTranslation.add(recipient);
             } else {
 
@@ -120,7 +123,8 @@ public class ChatControlListener implements Listener {
 
         if (!needsTranslation.isEmpty()) {
             plugin.debug("Translating message from " + sender.getName() + " for " + needsTranslation.size() + " player(s)");
-            translationManager.translateForMultiplePlayers(message, needsTranslation)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, needsTranslation, sender.getUniqueId(), isGlobalChannel ? TranslationPriority.GLOBAL : TranslationPriority.LOCAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
 
@@ -158,7 +162,8 @@ public class ChatControlListener implements Listener {
         }
     }
 
-    private void processTranslationForRemovedRecipients(CommandSender sender, String message, Set<Player> originalRecipients, Set<Player> currentRecipients, boolean isGlobalChannel) {
+    private void processTranslationForRemovedRecipients(CommandSender sender, MessageAnalysis analysis, Set<Player> originalRecipients, Set<Player> currentRecipients, boolean isGlobalChannel) {
+        String message = analysis.message();
         String messageKey = sender.getName() + ":" + message.hashCode();
         translatingMessages.add(messageKey);
 
@@ -166,7 +171,7 @@ public class ChatControlListener implements Listener {
         for (Player recipient : originalRecipients) {
             if (currentRecipients.contains(recipient)) continue;
 
-            if (needsTranslationForPlayer(message, recipient)) {
+            if (needsTranslationForPlayer(analysis, recipient)) {
                 needsTranslation.add(recipient);
             } else {
 
@@ -177,7 +182,9 @@ public class ChatControlListener implements Listener {
 
         if (!needsTranslation.isEmpty()) {
             plugin.debug("Translating message from " + sender.getName() + " for " + needsTranslation.size() + " player(s)");
-            translationManager.translateForMultiplePlayers(message, needsTranslation)
+            UUID senderId = sender instanceof Player playerSender ? playerSender.getUniqueId() : null;
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForMultiplePlayers(analysis, needsTranslation, senderId, isGlobalChannel ? TranslationPriority.GLOBAL : TranslationPriority.LOCAL, deadline)
                     .whenComplete((results, throwable) -> {
                         translatingMessages.remove(messageKey);
 
@@ -224,15 +231,17 @@ public class ChatControlListener implements Listener {
         sender.sendMessage(senderMessage);
 
         int translationCount = 0;
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
+        MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
 
         for (Player recipient : recipients) {
             if (recipient.equals(sender)) continue;
 
 
-            if (needsTranslationForPlayer(message, recipient)) {
+            if (needsTranslationForPlayer(analysis, recipient)) {
                 translationCount++;
 
-                translationManager.translateForPlayer(message, recipient)
+                plugin.getTranslationManager().translateForPlayer(analysis, recipient, sender.getUniqueId(), isGlobalChannel ? TranslationPriority.GLOBAL : TranslationPriority.LOCAL, deadline)
                         .whenComplete((result, throwable) -> {
                             Bukkit.getScheduler().runTask(plugin, () -> {
                                 if (throwable != null) {
@@ -267,9 +276,11 @@ public class ChatControlListener implements Listener {
         String messageKey = sender.getUniqueId() + ":" + message.hashCode() + ":pm";
         translatingMessages.add(messageKey);
 
-        if (needsTranslationForPlayer(message, target)) {
+        MessageAnalysis analysis = plugin.getTranslationManager().analyze(message);
+        if (needsTranslationForPlayer(analysis, target)) {
             plugin.debug("Translating private message from " + sender.getName() + " to " + target.getName());
-            translationManager.translateForPlayer(message, target)
+            MessageDeadline deadline = plugin.getTranslationManager().newDeadline();
+            plugin.getTranslationManager().translateForPlayer(analysis, target, sender.getUniqueId(), TranslationPriority.PRIVATE, deadline)
                     .whenComplete((result, throwable) -> {
                         translatingMessages.remove(messageKey);
 
@@ -294,8 +305,8 @@ public class ChatControlListener implements Listener {
         }
     }
 
-    private boolean needsTranslationForPlayer(String message, Player player) {
-        return LanguageDetector.needsTranslation(message, player.locale().toString().toLowerCase());
+    private boolean needsTranslationForPlayer(MessageAnalysis analysis, Player player) {
+        return analysis.needsTranslation(player);
     }
 
     private boolean isGlobalChannel(String channelName) {
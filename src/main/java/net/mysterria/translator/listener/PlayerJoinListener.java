@@ -7,6 +7,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.io.File;
 import java.util.UUID;
@@ -25,6 +26,7 @@ public class PlayerJoinListener implements Listener {
     public void onJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
+        plugin.getPlayerNameIndex().add(player.getName());
         plugin.debug("Setting language for player " + player.getName() + " on join.");
         String playerLocale = player.locale().toString().toLowerCase();
         String selectedLang = plugin.getConfig().getString("defaultLang");
@@ -47,4 +49,12 @@ public class PlayerJoinListener implements Listener {
         langManager.setPlayerLang(uuid, selectedLang);
         langManager.savePlayerLang(uuid);
     }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.getPlayerNameIndex().remove(event.getPlayer().getName());
+        if (plugin.getTranslationManager() != null) {
+            plugin.getTranslationManager().cancelPending(event.getPlayer());
+        }
+    }
 }
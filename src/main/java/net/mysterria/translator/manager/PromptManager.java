@@ -45,6 +45,38 @@ public class PromptManager {
                         Text to translate:
                         {message}""");
 
+        DEFAULT_PROMPTS.put("ollama.batchPrompt",
+                """
+                        You are a professional translator specializing in gaming terminology and casual Minecraft chat.
+                        Translate each {sourceLang} chat message in the JSON array below to {targetLang}, following these rules strictly:
+                        
+                        1. Translate every message on its own — do NOT merge, split, reorder, add or drop messages.
+                        2. Do NOT translate or modify placeholders or variables (like %player%, {player}, {item}, ${amount}, {0}, etc.).
+                        3. Do NOT translate or modify command syntax (like /warp, /msg, /give).
+                        4. Preserve punctuation, spacing, capitalization, and emoji exactly as in the input.
+                        5. Maintain the informal or gaming tone appropriate for in-game chat.
+                        
+                        Respond with ONLY a JSON array of exactly {count} strings, the translations in the same order.
+                        
+                        Messages:
+                        {messages}""");
+
+        DEFAULT_PROMPTS.put("ollama.multiTargetPrompt",
+                """
+                        You are a professional translator specializing in gaming terminology and casual Minecraft chat.
+                        Translate the following {sourceLang} chat message into each of these languages: {targetLangs}.
+                        
+                        1. Provide a direct translation ONLY — do NOT add, remove, or change any content.
+                        2. Do NOT translate or modify placeholders or variables (like %player%, {player}, {item}, ${amount}, {0}, etc.).
+                        3. Do NOT translate or modify command syntax (like /warp, /msg, /give).
+                        4. Preserve punctuation, spacing, capitalization, and emoji exactly as in the input.
+                        5. Maintain the informal or gaming tone appropriate for in-game chat.
+                        
+                        Respond with ONLY a JSON object whose keys are exactly the language codes above and whose values are the translations.
+                        
+                        Message:
+                        {message}""");
+
         
         DEFAULT_PROMPTS.put("openai.systemPrompt",
                 """
@@ -64,6 +96,40 @@ public class PromptManager {
                         Text:
                         {message}""");
 
+        DEFAULT_PROMPTS.put("openai.batchSystemPrompt",
+                """
+                        You are a professional translator specializing in gaming terminology and casual Minecraft chat.
+                        Your role is to provide accurate, natural translations while preserving game-specific elements.
+                        You receive a JSON array of chat messages and always respond with ONLY a JSON array of their translations, in the same order.""");
+
+        DEFAULT_PROMPTS.put("openai.batchUserPrompt",
+                """
+                        Translate each message from {sourceLang} to {targetLang}. Follow these rules strictly:
+                        1) Translate every message on its own; do not merge, split, reorder, add or drop messages.
+                        2) Do not translate placeholders/variables (like %player%, {player}, {item}, ${amount}, {0}) or command syntax (e.g. /warp, /msg).
+                        3) Preserve punctuation, spacing, capitalization, emoji, and the informal gaming tone.
+                        Return ONLY a JSON array of exactly {count} strings.
+                        
+                        Messages:
+                        {messages}""");
+
+        DEFAULT_PROMPTS.put("openai.multiTargetSystemPrompt",
+                """
+                        You are a professional translator specializing in gaming terminology and casual Minecraft chat.
+                        Your role is to provide accurate, natural translations while preserving game-specific elements.
+                        You translate one chat message into several languages and always respond with ONLY a JSON object mapping each language code to its translation.""");
+
+        DEFAULT_PROMPTS.put("openai.multiTargetUserPrompt",
+                """
+                        Translate from {sourceLang} into each of these languages: {targetLangs}. Follow these rules strictly:
+                        1) Directly translate content only; do not add, remove, or change anything.
+                        2) Do not translate placeholders/variables (like %player%, {player}, {item}, ${amount}, {0}) or command syntax (e.g. /warp, /msg).
+                        3) Preserve punctuation, spacing, capitalization, emoji, and the informal gaming tone.
+                        Return ONLY a JSON object whose keys are exactly the language codes above.
+                        
+                        Text:
+                        {message}""");
+
         
         DEFAULT_PROMPTS.put("gemini.systemInstruction",
                 """
@@ -86,7 +152,7 @@ public class PromptManager {
                         - Preserve gaming terminology, slang, and Minecraft-specific terms
                         - Keep the informal, casual tone typical of gaming chat
                         - Don't translate proper nouns unless contextually necessary
-                        - Player names in the 'Online players' list should not be translated
+                        - Player names in the 'Players mentioned' list should not be translated
                         - For ambiguous words, choose meaning based on gaming/chat context
                         - Return ONLY the translated text, no explanations or extra formatting
                         - If the text is already in the target language, return it unchanged
@@ -99,10 +165,42 @@ public class PromptManager {
                 "Automatically detect the language of the following text and translate it to {targetLang}:\n\n{message}");
 
         DEFAULT_PROMPTS.put("gemini.translationPromptWithContext",
-                "Online players: {playerContext}\n\nTranslate the following text from {sourceLang} to {targetLang}:\n\n{message}");
+                "Players mentioned: {playerContext}\n\nTranslate the following text from {sourceLang} to {targetLang}:\n\n{message}");
 
         DEFAULT_PROMPTS.put("gemini.autoDetectPromptWithContext",
-                "Online players: {playerContext}\n\nAutomatically detect the language of the following text and translate it to {targetLang}:\n\n{message}");
+                "Players mentioned: {playerContext}\n\nAutomatically detect the language of the following text and translate it to {targetLang}:\n\n{message}");
+
+        DEFAULT_PROMPTS.put("gemini.batchPrompt",
+                "Translate each message in the following JSON array from {sourceLang} to {targetLang}. "
+                        + "Respond with ONLY a JSON array of exactly {count} translated strings in the same order:\n\n{messages}");
+
+        DEFAULT_PROMPTS.put("gemini.autoDetectBatchPrompt",
+                "Automatically detect the language of each message in the following JSON array and translate it to {targetLang}. "
+                        + "Respond with ONLY a JSON array of exactly {count} translated strings in the same order:\n\n{messages}");
+
+        DEFAULT_PROMPTS.put("gemini.batchPromptWithContext",
+                "Players mentioned: {playerContext}\n\nTranslate each message in the following JSON array from {sourceLang} to {targetLang}. "
+                        + "Respond with ONLY a JSON array of exactly {count} translated strings in the same order:\n\n{messages}");
+
+        DEFAULT_PROMPTS.put("gemini.autoDetectBatchPromptWithContext",
+                "Players mentioned: {playerContext}\n\nAutomatically detect the language of each message in the following JSON array and translate it to {targetLang}. "
+                        + "Respond with ONLY a JSON array of exactly {count} translated strings in the same order:\n\n{messages}");
+
+        DEFAULT_PROMPTS.put("gemini.multiTargetPrompt",
+                "Translate the following text from {sourceLang} into each of these languages: {targetLangs}. "
+                        + "Respond with ONLY a JSON object whose keys are exactly the language codes and whose values are the translations:\n\n{message}");
+
+        DEFAULT_PROMPTS.put("gemini.autoDetectMultiTargetPrompt",
+                "Automatically detect the language of the following text and translate it into each of these languages: {targetLangs}. "
+                        + "Respond with ONLY a JSON object whose keys are exactly the language codes and whose values are the translations:\n\n{message}");
+
+        DEFAULT_PROMPTS.put("gemini.multiTargetPromptWithContext",
+                "Players mentioned: {playerContext}\n\nTranslate the following text from {sourceLang} into each of these languages: {targetLangs}. "
+                        + "Respond with ONLY a JSON object whose keys are exactly the language codes and whose values are the translations:\n\n{message}");
+
+        DEFAULT_PROMPTS.put("gemini.autoDetectMultiTargetPromptWithContext",
+                "Players mentioned: {playerContext}\n\nAutomatically detect the language of the following text and translate it into each of these languages: {targetLangs}. "
+                        + "Respond with ONLY a JSON object whose keys are exactly the language codes and whose values are the translations:\n\n{message}");
     }
 
     public PromptManager(MysterriaTranslator plugin) {
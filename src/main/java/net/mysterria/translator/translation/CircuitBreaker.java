@@ -0,0 +1,242 @@
+package net.mysterria.translator.translation;
+
+/**
+ * Circuit breaker for one translation engine or API key.
+ * <p>
+ * While closed, the outcomes of the most recent calls are kept in a rolling window. Once the
+ * window holds enough calls and the share of failed or slow calls crosses its threshold, the
+ * breaker opens and every call is refused until the open period ends. It then lets a single probe
+ * call through (half-open): a successful probe closes the breaker, a failed one opens it again for
+ * twice as long, up to a maximum. A rate limit response opens the breaker right away, until the
+ * time the provider asked for if it named one.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Breaker state.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Thresholds shared by all breakers.
+     *
+     * @param windowSize            Number of recent calls considered
+     * @param minimumCalls          Calls needed in the window before it can trip
+     * @param failureRateThreshold  Share of failed calls that trips the breaker, 0 to 1
+     * @param slowCallRateThreshold Share of slow calls that trips the breaker, 0 to 1
+     * @param slowCallMillis        Calls taking longer than this count as slow
+     * @param openMillis            How long the breaker stays open after tripping the first time
+     * @param maxOpenMillis         Upper bound for the open period after repeated trips
+     */
+    public record Settings(int windowSize, int minimumCalls, double failureRateThreshold,
+                           double slowCallRateThreshold, long slowCallMillis, long openMillis, long maxOpenMillis) {
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final boolean[] failed;
+    private final boolean[] slow;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int count;
+    private int failures;
+    private int slowCalls;
+    private int consecutiveTrips;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, Settings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.failed = new boolean[Math.max(settings.windowSize(), 1)];
+        this.slow = new boolean[failed.length];
+    }
+
+    /**
+     * Asks for permission to make a call. In the half-open state only one caller gets it.
+     *
+     * @return true if the call may go ahead
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN && now >= openUntil) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Checks without taking a permission whether a call would currently be refused.
+     */
+    public synchronized boolean isRejecting() {
+        return switch (state) {
+            case CLOSED -> false;
+            case OPEN -> System.currentTimeMillis() < openUntil;
+            case HALF_OPEN -> probeInFlight;
+        };
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @return The new state if the call changed it, otherwise null
+     */
+    public synchronized State onSuccess(long latencyMillis) {
+        if (state == State.HALF_OPEN) {
+            if (latencyMillis > settings.slowCallMillis()) {
+                return trip(System.currentTimeMillis());
+            }
+            state = State.CLOSED;
+            consecutiveTrips = 0;
+            resetWindow();
+            return State.CLOSED;
+        }
+        return record(false, latencyMillis > settings.slowCallMillis());
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @return The new state if the call changed it, otherwise null
+     */
+    public synchronized State onFailure(long latencyMillis) {
+        if (state == State.HALF_OPEN) {
+            return trip(System.currentTimeMillis());
+        }
+        return record(true, latencyMillis > settings.slowCallMillis());
+    }
+
+    /**
+     * Gives back a permission whose call was never made or whose outcome says nothing about the
+     * engine's health, such as a cancelled call.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Opens the breaker immediately, as after a rate limit response.
+     *
+     * @param untilMillis When the provider accepts requests again, or 0 for the usual open period
+     * @return The time until which the breaker stays open
+     */
+    public synchronized long forceOpen(long untilMillis) {
+        long now = System.currentTimeMillis();
+        trip(now);
+        if (untilMillis > now) {
+            openUntil = untilMillis;
+        }
+        return openUntil;
+    }
+
+    /**
+     * Keeps the breaker open until the given time without counting it as a trip, as when a
+     * provider reports that its quota is used up until then.
+     *
+     * @param untilMillis When the provider's quota resets
+     * @return true if this extended or started the open period
+     */
+    public synchronized boolean holdUntil(long untilMillis) {
+        if (state == State.OPEN && openUntil >= untilMillis) {
+            return false;
+        }
+        state = State.OPEN;
+        openUntil = untilMillis;
+        probeInFlight = false;
+        return true;
+    }
+
+    /**
+     * Closes the breaker and forgets all recorded calls.
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveTrips = 0;
+        probeInFlight = false;
+        resetWindow();
+    }
+
+    /**
+     * Returns the time until which the breaker is open, or 0 if it is not open.
+     */
+    public synchronized long getOpenUntil() {
+        return state == State.OPEN ? openUntil : 0;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long now = System.currentTimeMillis();
+        State current = state == State.OPEN && now >= openUntil ? State.HALF_OPEN : state;
+        return new Snapshot(name, current,
+                count == 0 ? 0 : (double) failures / count,
+                count == 0 ? 0 : (double) slowCalls / count,
+                current == State.OPEN ? Math.max(openUntil - now, 0) : 0);
+    }
+
+    /**
+     * Snapshot of a breaker.
+     *
+     * @param name            Engine name, or engine and key identifier
+     * @param state           Current state
+     * @param failureRate     Share of failed calls in the window
+     * @param slowCallRate    Share of slow calls in the window
+     * @param remainingMillis Time until an open breaker allows a probe
+     */
+    public record Snapshot(String name, State state, double failureRate, double slowCallRate, long remainingMillis) {
+    }
+
+    private State record(boolean isFailure, boolean isSlow) {
+        if (count == failed.length) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            count++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        if (isFailure) failures++;
+        if (isSlow) slowCalls++;
+        next = (next + 1) % failed.length;
+
+        if (state != State.CLOSED || count < settings.minimumCalls()) {
+            return null;
+        }
+        if ((double) failures / count >= settings.failureRateThreshold()
+                || (double) slowCalls / count >= settings.slowCallRateThreshold()) {
+            return trip(System.currentTimeMillis());
+        }
+        return null;
+    }
+
+    private State trip(long now) {
+        consecutiveTrips++;
+        long openMillis = settings.openMillis() << Math.min(consecutiveTrips - 1, 16);
+        openUntil = now + Math.min(openMillis, settings.maxOpenMillis());
+        state = State.OPEN;
+        probeInFlight = false;
+        resetWindow();
+        return State.OPEN;
+    }
+
+    private void resetWindow() {
+        next = 0;
+        count = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,166 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.util.PlayerNameIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A chat message with the parts no provider should translate replaced by numbered tokens.
+ * <p>
+ * Online player names, URLs, slash commands, coordinates and emoji are swapped for {@code {0}},
+ * {@code {1}}, ... in order of appearance before the cache lookup and the provider call, and put
+ * back into the translation afterwards. Messages that only differ in those parts share one cache
+ * entry and one provider call, and the prompts already tell the models to leave such placeholders
+ * alone. Lone numbers are kept in the text, since they decide the plural form of the words around
+ * them in languages such as Ukrainian.
+ */
+public final class EntityMask {
+
+    private static final Pattern ENTITY = Pattern.compile(
+            "(?<url>(?i:https?://|www\\.)\\S*[^\\s.,!?;:)\\]])"
+                    + "|(?<command>(?<!\\S)/[A-Za-z][\\w:-]*)"
+                    + "|(?<coordinates>(?<![\\w.-])-?\\d+(?:\\.\\d+)?(?:(?:\\s*,\\s*|\\s+)-?\\d+(?:\\.\\d+)?){1,2}(?![\\w.]))"
+                    + "|(?<emoji>[\\p{IsExtended_Pictographic}\\x{1F1E6}-\\x{1F1FF}]"
+                    + "[\\p{IsExtended_Pictographic}\\x{1F1E6}-\\x{1F1FF}\\x{FE0F}\\x{200D}\\x{1F3FB}-\\x{1F3FF}]*)"
+                    + "|(?<word>(?<![A-Za-z0-9_])[A-Za-z0-9_]{3,16}(?![A-Za-z0-9_]))");
+    private static final Pattern TOKEN = Pattern.compile("\\{\\s*(\\d+)\\s*}");
+
+    private final String text;
+    private final List<String> entities;
+
+    private EntityMask(String text, List<String> entities) {
+        this.text = text;
+        this.entities = entities;
+    }
+
+    /**
+     * Masks the entities of a message. A message that already contains something looking like a
+     * token is left as it is, so its own placeholders cannot be mistaken for masked entities.
+     *
+     * @param message The chat message
+     * @param names   Players currently online
+     * @return The mask; {@link #text} is the message itself if nothing was masked
+     */
+    public static EntityMask of(String message, PlayerNameIndex names) {
+        if (TOKEN.matcher(message).find()) {
+            return unmasked(message);
+        }
+
+        Matcher matcher = ENTITY.matcher(message);
+        StringBuilder masked = null;
+        List<String> entities = new ArrayList<>();
+        Map<String, Integer> tokens = new HashMap<>();
+        int last = 0;
+
+        while (matcher.find()) {
+            String entity = matcher.group();
+            if (matcher.start("word") >= 0 && !names.contains(entity)) {
+                continue;
+            }
+
+            Integer token = tokens.get(entity);
+            if (token == null) {
+                token = entities.size();
+                tokens.put(entity, token);
+                entities.add(entity);
+            }
+            if (masked == null) {
+                masked = new StringBuilder(message.length());
+            }
+            masked.append(message, last, matcher.start()).append('{').append(token).append('}');
+            last = matcher.end();
+        }
+
+        if (masked == null) {
+            return unmasked(message);
+        }
+        masked.append(message, last, message.length());
+        return new EntityMask(masked.toString(), List.copyOf(entities));
+    }
+
+    /**
+     * Returns a mask that leaves the message unchanged.
+     *
+     * @param message The chat message
+     */
+    public static EntityMask unmasked(String message) {
+        return new EntityMask(message, List.of());
+    }
+
+    /**
+     * Returns whether a translation has exactly the tokens of the text it was translated from,
+     * so it can be cached and restored. Always true for text and translation without tokens.
+     *
+     * @param source      The text that was translated
+     * @param translation Its translation
+     */
+    public static boolean keepsTokens(String source, String translation) {
+        return tokens(source).equals(tokens(translation));
+    }
+
+    /**
+     * Returns the text to translate and cache.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Returns whether any entity was masked.
+     */
+    public boolean isMasked() {
+        return !entities.isEmpty();
+    }
+
+    /**
+     * Puts the masked entities back into a translation of {@link #text}.
+     *
+     * @param translation The translation
+     * @return The translation with the original entities, or null if it lost or invented a token
+     */
+    public String restore(String translation) {
+        if (entities.isEmpty() || translation == null) {
+            return translation;
+        }
+        boolean[] restored = new boolean[entities.size()];
+        Matcher matcher = TOKEN.matcher(translation);
+        StringBuilder result = new StringBuilder(translation.length() + 32);
+
+        while (matcher.find()) {
+            int token;
+            try {
+                token = Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (token >= entities.size()) {
+                return null;
+            }
+            restored[token] = true;
+            matcher.appendReplacement(result, Matcher.quoteReplacement(entities.get(token)));
+        }
+        for (boolean done : restored) {
+            if (!done) {
+                return null;
+            }
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group(1));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,92 @@
+package net.mysterria.translator.translation;
+
+/**
+ * Count-Min sketch with 4-bit counters used as the admission filter of {@link TranslationCache}.
+ * Estimates how often a key has been requested recently; counters are halved periodically
+ * so that the popularity of old messages decays.
+ * <p>
+ * Not thread-safe; the owning cache guards it with its own lock.
+ */
+class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int[] SEEDS = {0x97cb3127, 0x3ec2b6e9, 0x61c88647, 0x27d4eb2f};
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries Maximum number of entries the cache holds
+     */
+    FrequencySketch(int expectedEntries) {
+        int size = tableSizeFor(Math.max(expectedEntries, 16));
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(expectedEntries, 16);
+    }
+
+    /**
+     * Returns the estimated frequency of the key, between 0 and 15.
+     */
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int shift = counterOffset(hash, i);
+            int count = (int) ((table[index] >>> shift) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one access of the key, aging the whole sketch once the sample period is reached.
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int shift) {
+        long mask = 0xfL << shift;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << shift;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int depth) {
+        int h = (hash ^ SEEDS[depth]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h & tableMask;
+    }
+
+    private int counterOffset(int hash, int depth) {
+        int h = hash * SEEDS[depth];
+        return ((h >>> 28) & 0xf) << 2;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n - 1) << 1;
+        return Math.max(size, 16);
+    }
+}
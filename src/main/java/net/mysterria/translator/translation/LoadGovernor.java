@@ -0,0 +1,296 @@
+package net.mysterria.translator.translation;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.mysterria.translator.MysterriaTranslator;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Degrades translation step by step while the server or the providers are overloaded.
+ * <p>
+ * Every check compares three signals with their limits: messages waiting in the
+ * {@link TranslationScheduler}, the average provider latency since the last check, and the
+ * server's TPS. If any of them is over its limit, the governor moves one {@link Tier} down; once
+ * all of them have stayed comfortably below their limits for {@code recoverySeconds}, it moves one
+ * tier back up. Each change is logged and announced to admins.
+ */
+public class LoadGovernor {
+
+    private static final String PERMISSION_ADMIN = "mtranslator.admin";
+    private static final double LATENCY_RECOVERY_FRACTION = 0.7;
+    private static final double TPS_RECOVERY_MARGIN = 1.0;
+
+    /**
+     * Degradation tiers, from full service to none. Each tier keeps the restrictions of the ones
+     * before it.
+     */
+    public enum Tier {
+        /**
+         * Full service.
+         */
+        NORMAL,
+        /**
+         * Gemini prompts leave out the chat context.
+         */
+        NO_CONTEXT,
+        /**
+         * The configured fast providers are tried first.
+         */
+        FAST_PROVIDERS,
+        /**
+         * Short messages are not translated.
+         */
+        LONG_MESSAGES_ONLY,
+        /**
+         * Only private messages are translated.
+         */
+        PRIVATE_ONLY,
+        /**
+         * Nothing is translated.
+         */
+        PAUSED
+    }
+
+    private final MysterriaTranslator plugin;
+    private final IntSupplier queuedMessages;
+    private final boolean enabled;
+    private final int maxQueued;
+    private final long maxLatencyMillis;
+    private final double minTps;
+    private final int recoveryChecks;
+    private final Tier maxTier;
+    private final List<String> fastProviders;
+    private final int minMessageLength;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder latencySum;
+    private final LongAdder latencyCount;
+
+    private volatile Tier tier = Tier.NORMAL;
+    private volatile Stats lastCheck;
+    private int calmChecks;
+
+    /**
+     * @param plugin         The plugin instance
+     * @param queuedMessages Number of messages waiting to be translated
+     */
+    public LoadGovernor(MysterriaTranslator plugin, IntSupplier queuedMessages) {
+        this.plugin = plugin;
+        this.queuedMessages = queuedMessages;
+        this.enabled = plugin.getConfig().getBoolean("translation.brownout.enabled", true);
+        this.maxQueued = plugin.getConfig().getInt("translation.brownout.maxQueued", 64);
+        this.maxLatencyMillis = plugin.getConfig().getLong("translation.brownout.maxLatencyMillis", 6000);
+        this.minTps = plugin.getConfig().getDouble("translation.brownout.minTps", 17.0);
+        this.minMessageLength = plugin.getConfig().getInt("translation.brownout.minMessageLength", 12);
+
+        int intervalSeconds = Math.max(plugin.getConfig().getInt("translation.brownout.checkIntervalSeconds", 5), 1);
+        int recoverySeconds = plugin.getConfig().getInt("translation.brownout.recoverySeconds", 30);
+        this.recoveryChecks = Math.max(recoverySeconds / intervalSeconds, 1);
+        this.maxTier = parseTier(plugin.getConfig().getString("translation.brownout.maxTier", "paused"));
+
+        List<String> providers = new ArrayList<>();
+        List<String> configured = plugin.getConfig().contains("translation.brownout.fastProviders")
+                ? plugin.getConfig().getStringList("translation.brownout.fastProviders")
+                : List.of("google", "libretranslate");
+        for (String provider : configured) {
+            providers.add(provider.trim().toLowerCase());
+        }
+        this.fastProviders = List.copyOf(providers);
+
+        this.latencySum = new LongAdder();
+        this.latencyCount = new LongAdder();
+        this.lastCheck = new Stats(Tier.NORMAL, 0, 0, 20.0);
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MysterriaTranslator-LoadGovernor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::check, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Returns the current tier.
+     */
+    public Tier getTier() {
+        return tier;
+    }
+
+    /**
+     * Records how long a provider call took, successful or not.
+     *
+     * @param latencyMillis Duration of the call
+     */
+    public void recordLatency(long latencyMillis) {
+        latencySum.add(latencyMillis);
+        latencyCount.increment();
+    }
+
+    /**
+     * Returns whether prompts may include the chat context.
+     */
+    public boolean allowsContext() {
+        return tier.compareTo(Tier.NO_CONTEXT) < 0;
+    }
+
+    /**
+     * Returns whether messages of the given class are translated at all.
+     *
+     * @param priority Priority class of the message
+     */
+    public boolean allows(TranslationPriority priority) {
+        if (tier.compareTo(Tier.PAUSED) >= 0) {
+            return false;
+        }
+        return tier.compareTo(Tier.PRIVATE_ONLY) < 0 || priority == TranslationPriority.PRIVATE;
+    }
+
+    /**
+     * Returns the shortest message that is translated.
+     *
+     * @param configured The configured minimum length
+     */
+    public int minMessageLength(int configured) {
+        return tier.compareTo(Tier.LONG_MESSAGES_ONLY) >= 0 ? Math.max(configured, minMessageLength) : configured;
+    }
+
+    /**
+     * Moves the fast providers to the front of the order while in {@link Tier#FAST_PROVIDERS} or
+     * above; otherwise returns the order unchanged.
+     *
+     * @param order Providers in the order they would be tried
+     */
+    public List<String> reorder(List<String> order) {
+        if (tier.compareTo(Tier.FAST_PROVIDERS) < 0 || fastProviders.isEmpty()) {
+            return order;
+        }
+        List<String> reordered = new ArrayList<>(order.size());
+        for (String provider : order) {
+            if (fastProviders.contains(provider)) {
+                reordered.add(provider);
+            }
+        }
+        for (String provider : order) {
+            if (!fastProviders.contains(provider)) {
+                reordered.add(provider);
+            }
+        }
+        return reordered;
+    }
+
+    /**
+     * Returns the signals measured by the last check.
+     */
+    public Stats getStats() {
+        return lastCheck;
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void check() {
+        try {
+            int queued = queuedMessages.getAsInt();
+            long calls = latencyCount.sumThenReset();
+            long totalLatency = latencySum.sumThenReset();
+            long latency = calls > 0 ? totalLatency / calls : 0;
+            double tps = Bukkit.getTPS()[0];
+
+            String overload = null;
+            if (queued > maxQueued) {
+                overload = queued + " messages waiting";
+            } else if (latency > maxLatencyMillis) {
+                overload = "providers answering in " + latency + " ms";
+            } else if (tps < minTps) {
+                overload = String.format(Locale.ROOT, "server at %.1f TPS", tps);
+            }
+            boolean calm = queued <= maxQueued / 2
+                    && latency <= maxLatencyMillis * LATENCY_RECOVERY_FRACTION
+                    && tps >= Math.min(minTps + TPS_RECOVERY_MARGIN, 20.0);
+
+            if (overload != null) {
+                calmChecks = 0;
+                if (tier.compareTo(maxTier) < 0) {
+                    changeTier(Tier.values()[tier.ordinal() + 1], overload);
+                }
+            } else if (calm && tier != Tier.NORMAL) {
+                if (++calmChecks >= recoveryChecks) {
+                    calmChecks = 0;
+                    changeTier(Tier.values()[tier.ordinal() - 1], "load is back to normal");
+                }
+            } else {
+                calmChecks = 0;
+            }
+
+            lastCheck = new Stats(tier, queued, latency, tps);
+        } catch (RuntimeException e) {
+            plugin.debug("Load check failed: " + e.getMessage());
+        }
+    }
+
+    private void changeTier(Tier next, String reason) {
+        boolean degrading = next.compareTo(tier) > 0;
+        tier = next;
+
+        String name = tierName(next);
+        plugin.getLogger().info("Translation load tier changed to '" + name + "': " + reason);
+        Component message = Component.text("Translation load tier is now ").color(degrading ? NamedTextColor.GOLD : NamedTextColor.GREEN)
+                .append(Component.text(name).color(NamedTextColor.YELLOW))
+                .append(Component.text(" (" + reason + ")").color(NamedTextColor.GRAY));
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(PERMISSION_ADMIN)) {
+                    player.sendMessage(message);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the name of a tier as written in the configuration.
+     */
+    public static String tierName(Tier tier) {
+        return tier.name().toLowerCase().replace('_', '-');
+    }
+
+    private Tier parseTier(String name) {
+        for (Tier candidate : Tier.values()) {
+            if (tierName(candidate).equalsIgnoreCase(name) || candidate.name().equalsIgnoreCase(name)) {
+                return candidate;
+            }
+        }
+        plugin.getLogger().warning("Unknown brownout tier '" + name + "', using 'paused'");
+        return Tier.PAUSED;
+    }
+
+    /**
+     * Signals measured by a check.
+     *
+     * @param tier          Tier after the check
+     * @param queued        Messages waiting to be translated
+     * @param latencyMillis Average provider latency since the previous check, 0 without calls
+     * @param tps           Server TPS over the last minute
+     */
+    public record Stats(Tier tier, int queued, long latencyMillis, double tps) {
+    }
+}
@@ -0,0 +1,86 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.util.LanguageDetector;
+import net.mysterria.translator.util.LanguageDetector.DetectedLanguage;
+import org.bukkit.entity.Player;
+
+/**
+ * Everything about a chat message that does not depend on who reads it, worked out once by
+ * {@link TranslationManager#analyze} when the message is sent.
+ * <p>
+ * A message used to be detected again for every recipient by the listener and once more for
+ * every recipient by the translation manager. The listeners now sort recipients with
+ * {@link #needsTranslation(Player)}, which only compares the recipient's target language with the
+ * detected one, and pass the analysis on, so the masked text and the source language are computed
+ * once per message however many players read it.
+ */
+public final class MessageAnalysis {
+
+    private final String message;
+    private final EntityMask mask;
+    private final DetectedLanguage sourceLanguage;
+    private final String untranslatableReason;
+
+    MessageAnalysis(String message, EntityMask mask, DetectedLanguage sourceLanguage, String untranslatableReason) {
+        this.message = message;
+        this.mask = mask;
+        this.sourceLanguage = sourceLanguage;
+        this.untranslatableReason = untranslatableReason;
+    }
+
+    /**
+     * Returns the target language of a player, from their client locale.
+     */
+    public static String targetLanguage(Player player) {
+        return LanguageDetector.getTargetLanguage(player.locale().toString().toLowerCase());
+    }
+
+    /**
+     * Checks whether a player should get this message translated.
+     *
+     * @param player The recipient
+     */
+    public boolean needsTranslation(Player player) {
+        return needsTranslation(targetLanguage(player));
+    }
+
+    /**
+     * Checks whether readers of the given language should get this message translated. False for
+     * messages that cannot be translated at all or whose language is unknown.
+     *
+     * @param targetLang Target language code
+     */
+    public boolean needsTranslation(String targetLang) {
+        return untranslatableReason == null && sourceLanguage != DetectedLanguage.UNKNOWN
+                && !sourceLanguage.getLangCode().equals(targetLang);
+    }
+
+    /**
+     * Returns the message as it was sent.
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Returns the text handed to the cache and the providers, with its entities masked.
+     */
+    public String text() {
+        return mask.text();
+    }
+
+    EntityMask mask() {
+        return mask;
+    }
+
+    public DetectedLanguage sourceLanguage() {
+        return sourceLanguage;
+    }
+
+    /**
+     * Returns why the message cannot be translated, or null if it can.
+     */
+    public String untranslatableReason() {
+        return untranslatableReason;
+    }
+}
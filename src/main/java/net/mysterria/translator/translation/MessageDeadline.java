@@ -0,0 +1,143 @@
+package net.mysterria.translator.translation;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The time by which the translation of one chat message must be done.
+ * <p>
+ * A translation that arrives after the conversation has moved on is worse than none, so the chat
+ * listeners create a deadline for every message and hand it down to the provider calls. Calls
+ * registered with {@link #track} are cancelled once the deadline passes or {@link #cancel} is
+ * called, which interrupts the engine request and aborts its HTTP exchange; retries and fallbacks
+ * check {@link #isExpired} before starting another call.
+ */
+public final class MessageDeadline {
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+    private final Set<CompletableFuture<?>> calls;
+    private final AtomicBoolean timerStarted;
+    private volatile boolean cancelled;
+    private volatile boolean passed;
+
+    private MessageDeadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+        this.calls = ConcurrentHashMap.newKeySet();
+        this.timerStarted = new AtomicBoolean();
+    }
+
+    /**
+     * Creates a deadline the given time from now.
+     *
+     * @param millis Time budget of the message; zero or less means no limit
+     */
+    public static MessageDeadline after(long millis) {
+        if (millis <= 0) {
+            return none();
+        }
+        return new MessageDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), true);
+    }
+
+    /**
+     * Creates a deadline that never passes but can still be cancelled.
+     */
+    public static MessageDeadline none() {
+        return new MessageDeadline(0, false);
+    }
+
+    /**
+     * Creates a deadline that passes at the same time as this one but is cancelled separately,
+     * for work shared between several messages.
+     */
+    public MessageDeadline fork() {
+        return new MessageDeadline(expiresAtNanos, bounded);
+    }
+
+    /**
+     * Returns whether the deadline has passed or was cancelled.
+     */
+    public boolean isExpired() {
+        return cancelled || (bounded && System.nanoTime() - expiresAtNanos >= 0);
+    }
+
+    /**
+     * Returns whether the time of the deadline ran out, as opposed to it only being cancelled
+     * because nobody waits for the message any more.
+     */
+    public boolean hasPassed() {
+        return passed || (bounded && System.nanoTime() - expiresAtNanos >= 0);
+    }
+
+    /**
+     * Returns the time left in milliseconds, or {@link Long#MAX_VALUE} without a limit.
+     */
+    public long remainingMillis() {
+        if (cancelled) {
+            return 0;
+        }
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()), 0);
+    }
+
+    /**
+     * Cancels every tracked call and every call tracked from now on.
+     */
+    public void cancel() {
+        cancelled = true;
+        calls.forEach(call -> call.cancel(true));
+    }
+
+    private void pass() {
+        passed = true;
+        cancel();
+    }
+
+    /**
+     * Cancels the call when the deadline passes or is cancelled before the call completes.
+     *
+     * @param call A provider call; may be null
+     * @return The same call
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+        if (call == null || call.isDone()) {
+            return call;
+        }
+        if (isExpired()) {
+            call.cancel(true);
+            return call;
+        }
+
+        calls.add(call);
+        call.whenComplete((result, throwable) -> calls.remove(call));
+        if (cancelled) {
+            call.cancel(true);
+        }
+
+        if (bounded && timerStarted.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(remainingMillis(), TimeUnit.MILLISECONDS).execute(this::pass);
+        }
+        return call;
+    }
+
+    /**
+     * Completes the future with a fallback value once the deadline passes, so the caller is never
+     * kept waiting longer than the deadline.
+     *
+     * @param future   The future to bound
+     * @param fallback Value used if the future is not done in time
+     * @return The same future
+     */
+    public <T> CompletableFuture<T> bound(CompletableFuture<T> future, T fallback) {
+        if (!bounded) {
+            return future;
+        }
+        return future.completeOnTimeout(fallback, remainingMillis(), TimeUnit.MILLISECONDS);
+    }
+}
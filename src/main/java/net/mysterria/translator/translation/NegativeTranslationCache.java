@@ -0,0 +1,102 @@
+package net.mysterria.translator.translation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Short-lived memory of texts that recently could not be translated into a language, either
+ * because every provider failed or because the translation came back unchanged. A spammed line
+ * that cannot be translated then only costs one provider call per time-to-live instead of one per
+ * repeat.
+ * <p>
+ * Entries are keyed by {@link TranslationKey} alone; a collision would only skip one translation
+ * until the entry expires.
+ */
+public class NegativeTranslationCache {
+
+    private final Map<TranslationKey, Long> entries;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongAdder hits;
+
+    /**
+     * @param ttlMillis  How long a text is skipped after it failed
+     * @param maxEntries Maximum number of remembered texts
+     */
+    public NegativeTranslationCache(long ttlMillis, int maxEntries) {
+        this.entries = new ConcurrentHashMap<>();
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.hits = new LongAdder();
+    }
+
+    /**
+     * Returns whether the text recently could not be translated into the language.
+     *
+     * @param message  The text, as sent to the providers
+     * @param fromLang Source language code
+     * @param toLang   Target language code
+     */
+    public boolean contains(String message, String fromLang, String toLang) {
+        if (ttlMillis <= 0) {
+            return false;
+        }
+        TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+        Long expiresAt = entries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, expiresAt);
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Remembers that the text could not be translated into the language. When the cache is full,
+     * expired entries are dropped first; if none have expired, the text is not remembered.
+     *
+     * @param message  The text, as sent to the providers
+     * @param fromLang Source language code
+     * @param toLang   Target language code
+     */
+    public void add(String message, String fromLang, String toLang) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(expiresAt -> expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(TranslationKey.of(message, fromLang, toLang), now + ttlMillis);
+    }
+
+    /**
+     * Forgets every remembered text.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns a snapshot of the counters.
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), entries.size());
+    }
+
+    /**
+     * Snapshot of the negative cache counters.
+     *
+     * @param hits Provider calls skipped because the text recently failed
+     * @param size Texts currently remembered, including expired ones not yet dropped
+     */
+    public record Stats(long hits, int size) {
+    }
+}
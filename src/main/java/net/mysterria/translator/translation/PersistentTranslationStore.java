@@ -0,0 +1,498 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.MysterriaTranslator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Disk tier of the translation cache, so paid-for translations survive restarts and reloads.
+ * <p>
+ * Translations are appended to fixed-size, memory-mapped segment files in the plugin data folder.
+ * An in-memory index maps each {@link TranslationKey} to the newest record for that key. Reads go
+ * straight to the mapped segment from any thread; all writes, segment rolls and compaction run on a
+ * single writer thread, so callers never block on disk I/O.
+ * <p>
+ * Record layout: magic, payload length, key (128 bits), expiry, from/to language, source text,
+ * translation, CRC32 of the payload. A torn record at the end of a segment (crash mid-write) fails
+ * its checksum and ends the scan for that segment.
+ */
+public class PersistentTranslationStore {
+
+    private static final int RECORD_MAGIC = 0x4D545231;
+    private static final int HEADER_BYTES = 8;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final MysterriaTranslator plugin;
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long ttlMillis;
+
+    private final Map<TranslationKey, Location> index;
+    private final Map<Integer, Segment> segments;
+    private final ExecutorService writer;
+
+    private Segment active;
+    private boolean compacting;
+    private volatile boolean closed;
+
+    /**
+     * @param plugin      The plugin instance
+     * @param directory   Folder holding the segment files
+     * @param segmentSize Size of each segment file in bytes
+     * @param maxSegments Number of segments kept before the oldest one is compacted
+     * @param ttlMillis   How long a stored translation stays valid
+     */
+    public PersistentTranslationStore(MysterriaTranslator plugin, File directory, int segmentSize,
+                                      int maxSegments, long ttlMillis) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(maxSegments, 2);
+        this.ttlMillis = ttlMillis;
+        this.index = new ConcurrentHashMap<>();
+        this.segments = new ConcurrentHashMap<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MysterriaTranslator-CacheWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Scans existing segments and rebuilds the index on the writer thread.
+     * Lookups made before warming finishes simply miss.
+     *
+     * @return Future completed once the index is loaded
+     */
+    public CompletableFuture<Void> warmAsync() {
+        return CompletableFuture.runAsync(this::warm, writer).exceptionally(throwable -> {
+            plugin.getLogger().warning("Failed to load persistent translation cache: " + throwable.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Looks up a stored translation.
+     *
+     * @param message  The original message
+     * @param fromLang Source language code
+     * @param toLang   Target language code
+     * @return The stored translation, or null if missing, expired or not yet warmed
+     */
+    public String get(String message, String fromLang, String toLang) {
+        if (closed) {
+            return null;
+        }
+
+        TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+        Location location = index.get(key);
+        if (location == null || location.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+
+        Segment segment = segments.get(location.segmentId);
+        if (segment == null) {
+            return null;
+        }
+
+        Record record = segment.read(location.offset);
+        if (record == null || !record.matches(message, fromLang, toLang)) {
+            return null;
+        }
+        return record.translation;
+    }
+
+    /**
+     * Queues a translation to be appended to the active segment.
+     *
+     * @param message     The original message
+     * @param fromLang    Source language code
+     * @param toLang      Target language code
+     * @param translation The translated text
+     */
+    public void put(String message, String fromLang, String toLang, String translation) {
+        if (closed) {
+            return;
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        try {
+            writer.execute(() -> append(new Record(TranslationKey.of(message, fromLang, toLang),
+                    expiresAt, fromLang, toLang, message, translation)));
+        } catch (RejectedExecutionException ignored) {
+            // Store is closing
+        }
+    }
+
+    /**
+     * Returns the number of translations currently indexed.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Flushes the active segment to disk and stops the writer thread.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        writer.execute(() -> {
+            for (Segment segment : segments.values()) {
+                segment.force();
+                segment.close();
+            }
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        index.clear();
+        segments.clear();
+    }
+
+    private void warm() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IllegalStateException("Could not create cache directory " + directory);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Integer> ids = listSegmentIds();
+        for (int id : ids) {
+            try {
+                Segment segment = Segment.open(segmentFile(id), id, segmentSize);
+                segments.put(id, segment);
+                segment.scan((offset, record) -> {
+                    if (record.expiresAt >= now) {
+                        index.put(record.key, new Location(id, offset, record.expiresAt, record.translation.hashCode()));
+                    }
+                });
+            } catch (IOException e) {
+                plugin.getLogger().warning("Skipping unreadable cache segment " + id + ": " + e.getMessage());
+            }
+        }
+
+        if (!ids.isEmpty()) {
+            active = segments.get(ids.get(ids.size() - 1));
+        }
+        if (active == null) {
+            roll();
+        }
+
+        compactIfNeeded();
+        plugin.debug("Persistent translation cache warmed: " + index.size() + " entries in " + segments.size() + " segment(s)");
+    }
+
+    private void append(Record record) {
+        if (active == null) {
+            return;
+        }
+
+        Location existing = index.get(record.key);
+        if (existing != null && existing.translationHash == record.translation.hashCode()
+                && existing.expiresAt - System.currentTimeMillis() > ttlMillis / 2) {
+            return;
+        }
+
+        byte[] encoded = record.encode();
+        if (encoded.length > segmentSize) {
+            return;
+        }
+
+        if (!active.hasRoom(encoded.length)) {
+            active.force();
+            roll();
+            compactIfNeeded();
+        }
+
+        int offset = active.append(encoded);
+        index.put(record.key, new Location(active.id, offset, record.expiresAt, record.translation.hashCode()));
+    }
+
+    private void roll() {
+        int nextId = segments.keySet().stream().max(Integer::compare).orElse(0) + 1;
+        try {
+            Segment segment = Segment.open(segmentFile(nextId), nextId, segmentSize);
+            segments.put(nextId, segment);
+            active = segment;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to create cache segment " + nextId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retires the oldest segments once there are too many. Live records of a mostly dead segment are
+     * carried over into the active one; a segment that is still mostly live is dropped as a whole,
+     * which evicts the oldest translations first and guarantees that compaction frees space.
+     */
+    private void compactIfNeeded() {
+        if (compacting) {
+            return;
+        }
+
+        compacting = true;
+        try {
+            while (segments.size() > maxSegments) {
+                int oldestId = segments.keySet().stream().min(Integer::compare).orElseThrow();
+                if (active == null || oldestId == active.id) {
+                    return;
+                }
+
+                Segment oldest = segments.get(oldestId);
+                long now = System.currentTimeMillis();
+                List<Record> live = new ArrayList<>();
+                int[] liveBytes = {0};
+                oldest.scan((offset, record) -> {
+                    Location location = index.get(record.key);
+                    if (location != null && location.segmentId == oldestId && location.offset == offset
+                            && record.expiresAt >= now) {
+                        live.add(record);
+                        liveBytes[0] += record.encode().length;
+                    }
+                });
+
+                segments.remove(oldestId);
+                index.values().removeIf(location -> location.segmentId == oldestId);
+                oldest.close();
+                File file = segmentFile(oldestId);
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+
+                if (liveBytes[0] > segmentSize / 2) {
+                    plugin.debug("Dropped cache segment " + oldestId + " with " + live.size() + " entries");
+                    continue;
+                }
+
+                for (Record record : live) {
+                    append(record);
+                }
+                plugin.debug("Compacted cache segment " + oldestId + ", carried over " + live.size() + " live entries");
+            }
+        } finally {
+            compacting = false;
+        }
+    }
+
+    private List<Integer> listSegmentIds() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return List.of();
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            } catch (NumberFormatException ignored) {
+                // Not one of ours
+            }
+        }
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    private File segmentFile(int id) {
+        return new File(directory, SEGMENT_PREFIX + String.format("%08d", id) + SEGMENT_SUFFIX);
+    }
+
+    private record Location(int segmentId, int offset, long expiresAt, int translationHash) {
+    }
+
+    private record Record(TranslationKey key, long expiresAt, String fromLang, String toLang,
+                          String source, String translation) {
+
+        boolean matches(String message, String from, String to) {
+            return source.equals(message) && Objects.equals(fromLang, from) && Objects.equals(toLang, to);
+        }
+
+        byte[] encode() {
+            byte[] from = String.valueOf(fromLang).getBytes(StandardCharsets.UTF_8);
+            byte[] to = String.valueOf(toLang).getBytes(StandardCharsets.UTF_8);
+            byte[] src = source.getBytes(StandardCharsets.UTF_8);
+            byte[] dst = translation.getBytes(StandardCharsets.UTF_8);
+
+            int payloadLength = 24 + 4 * 4 + from.length + to.length + src.length + dst.length;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength + CHECKSUM_BYTES);
+            buffer.putInt(RECORD_MAGIC);
+            buffer.putInt(payloadLength);
+            buffer.putLong(key.high());
+            buffer.putLong(key.low());
+            buffer.putLong(expiresAt);
+            putBytes(buffer, from);
+            putBytes(buffer, to);
+            putBytes(buffer, src);
+            putBytes(buffer, dst);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), HEADER_BYTES, payloadLength);
+            buffer.putInt((int) crc.getValue());
+            return buffer.array();
+        }
+
+        static Record decode(byte[] payload) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            TranslationKey key = new TranslationKey(buffer.getLong(), buffer.getLong());
+            long expiresAt = buffer.getLong();
+            String from = getString(buffer);
+            String to = getString(buffer);
+            String source = getString(buffer);
+            String translation = getString(buffer);
+            return new Record(key, expiresAt, "null".equals(from) ? null : from, to, source, translation);
+        }
+
+        private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private static String getString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalStateException("Corrupt cache record");
+            }
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(int offset, Record record);
+    }
+
+    /**
+     * One memory-mapped, append-only segment file.
+     */
+    private static final class Segment {
+        final int id;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int writePosition;
+
+        private Segment(int id, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, int id, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), segmentSize);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            Segment segment = new Segment(id, channel, buffer);
+            segment.writePosition = segment.scan((offset, record) -> {
+            });
+            return segment;
+        }
+
+        boolean hasRoom(int length) {
+            return writePosition + length <= buffer.capacity();
+        }
+
+        int append(byte[] encoded) {
+            int offset = writePosition;
+            buffer.put(offset, encoded);
+            writePosition += encoded.length;
+            return offset;
+        }
+
+        Record read(int offset) {
+            byte[] payload = readPayload(offset);
+            return payload != null ? Record.decode(payload) : null;
+        }
+
+        /**
+         * Visits every intact record in order.
+         *
+         * @return Offset just past the last intact record
+         */
+        int scan(RecordVisitor visitor) {
+            int offset = 0;
+            while (offset + HEADER_BYTES <= buffer.capacity()) {
+                byte[] payload = readPayload(offset);
+                if (payload == null) {
+                    break;
+                }
+                try {
+                    visitor.visit(offset, Record.decode(payload));
+                } catch (RuntimeException e) {
+                    break;
+                }
+                offset += HEADER_BYTES + payload.length + CHECKSUM_BYTES;
+            }
+            return offset;
+        }
+
+        void force() {
+            try {
+                buffer.force();
+            } catch (RuntimeException ignored) {
+                // Segment already released
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+
+        private byte[] readPayload(int offset) {
+            if (offset < 0 || offset + HEADER_BYTES > buffer.capacity()) {
+                return null;
+            }
+            if (buffer.getInt(offset) != RECORD_MAGIC) {
+                return null;
+            }
+
+            int length = buffer.getInt(offset + 4);
+            if (length <= 0 || offset + HEADER_BYTES + length + CHECKSUM_BYTES > buffer.capacity()) {
+                return null;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + HEADER_BYTES + length)) {
+                return null;
+            }
+            return payload;
+        }
+    }
+}
@@ -7,35 +7,90 @@ import net.mysterria.translator.exception.RateLimitException;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.net.http.HttpTimeoutException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * Handles provider fallback logic with retry mechanism and player notifications.
  * Manages the logic for trying multiple translation providers in sequence.
+ * The sequence for each message comes from a {@link ProviderRouter}, which moves providers
+ * that have been slow or failing for similar messages behind the ones that have not.
+ * <p>
+ * With hedging enabled, a call that takes longer than the provider's usual latency percentile
+ * also starts the next available provider; the first usable answer wins and the other call is
+ * cancelled. A budget refilled by a fraction of every call keeps the share of hedged calls bounded.
+ * <p>
+ * Every call runs against the {@link MessageDeadline} of its message: provider calls are cancelled
+ * when it passes, and no retry or fallback is started after it. Under load, the
+ * {@link LoadGovernor} may move fast providers to the front of the order.
  */
 public class ProviderFallbackHandler {
 
     private final MysterriaTranslator plugin;
     private final RateLimitManager suspensionManager;
     private final TranslationExecutor executor;
+    private final LoadGovernor governor;
     private volatile List<String> providers;
     private final int maxRetries;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+
+    private final ProviderRouter router;
+    private final ProviderLatencyTracker latencyTracker;
+    private final boolean hedgingEnabled;
+    private final int hedgePercentile;
+    private final long hedgeMinDelayMillis;
+    private final long hedgeCreditPerCall;
+    private final AtomicLong hedgeCredits;
+    private final LongAdder hedgedCalls;
+    private final LongAdder hedgeWins;
 
     private volatile String lastSuccessfulProvider = null;
     private volatile long lastFallbackNotificationTime = 0;
     private static final long FALLBACK_NOTIFICATION_COOLDOWN_MS = 15 * 60 * 1000;
+    private static final long HEDGE_CREDIT_UNIT = 1000;
+    private static final long MAX_HEDGE_CREDITS = 10 * HEDGE_CREDIT_UNIT;
 
     public ProviderFallbackHandler(MysterriaTranslator plugin,
                                    RateLimitManager suspensionManager,
                                    TranslationExecutor executor,
+                                   LoadGovernor governor,
                                    List<String> providers,
                                    int maxRetries) {
         this.plugin = plugin;
         this.suspensionManager = suspensionManager;
         this.executor = executor;
+        this.governor = governor;
         this.providers = providers;
         this.maxRetries = maxRetries;
+        this.retryBaseDelayMillis = Math.max(1, plugin.getConfig().getLong("translation.retryBaseDelayMillis", 500));
+        this.retryMaxDelayMillis = Math.max(retryBaseDelayMillis, plugin.getConfig().getLong("translation.retryMaxDelayMillis", 8000));
+
+        this.router = new ProviderRouter(plugin.getConfig().getBoolean("translation.routing.enabled", true),
+                plugin.getConfig().getDouble("translation.routing.tolerance", 1.25));
+        this.latencyTracker = new ProviderLatencyTracker();
+        this.hedgingEnabled = plugin.getConfig().getBoolean("translation.hedging.enabled", false);
+        this.hedgePercentile = plugin.getConfig().getInt("translation.hedging.percentile", 95);
+        this.hedgeMinDelayMillis = plugin.getConfig().getLong("translation.hedging.minDelayMillis", 250);
+        double maxRatio = Math.clamp(plugin.getConfig().getDouble("translation.hedging.maxRatio", 0.1), 0.0, 1.0);
+        this.hedgeCreditPerCall = Math.round(maxRatio * HEDGE_CREDIT_UNIT);
+        this.hedgeCredits = new AtomicLong();
+        this.hedgedCalls = new LongAdder();
+        this.hedgeWins = new LongAdder();
     }
 
     /**
@@ -55,10 +110,123 @@ public class ProviderFallbackHandler {
      * @param message  The message to translate
      * @param fromLang Source language code
      * @param toLang   Target language code
+     * @param deadline Deadline of the message
      * @return CompletableFuture with the translation and provider name, or null if all failed
      */
-    public CompletableFuture<TranslationWithProvider> translateWithFallback(String message, String fromLang, String toLang) {
-        return translateWithProviderFallback(message, fromLang, toLang, 0, 0);
+    public CompletableFuture<TranslationWithProvider> translateWithFallback(String message, String fromLang, String toLang,
+                                                                          MessageDeadline deadline) {
+        List<String> order = governor.reorder(router.order(providers, fromLang, toLang, message.length()));
+        return translateWithProviderFallback(message, fromLang, toLang, deadline, order, 0, 0);
+    }
+
+    /**
+     * Translates one message into several languages. The first available provider is asked for all
+     * languages in a single call when it supports that; any language it does not return, or every
+     * language if the call fails, goes through the regular per-language fallback chain.
+     *
+     * @param message  The message to translate
+     * @param fromLang Source language code
+     * @param toLangs  Target language codes
+     * @param deadline Deadline of the message
+     * @return CompletableFuture with a result for every requested language
+     */
+    public CompletableFuture<Map<String, TranslationWithProvider>> translateToManyWithFallback(
+            String message, String fromLang, Set<String> toLangs, MessageDeadline deadline) {
+        if (toLangs.size() < 2 || deadline.isExpired()) {
+            return translateEachWithFallback(message, fromLang, toLangs, deadline, Map.of());
+        }
+
+        String provider = nextAvailableProvider(governor.reorder(router.order(providers, fromLang, null, message.length())), 0);
+        if (provider == null || !suspensionManager.tryAcquire(provider)) {
+            return translateEachWithFallback(message, fromLang, toLangs, deadline, Map.of());
+        }
+
+        CompletableFuture<Map<String, String>> multiFuture = deadline.track(
+                executor.executeMulti(provider, message, fromLang, List.copyOf(toLangs)));
+        if (multiFuture == null) {
+            suspensionManager.release(provider, null);
+            return translateEachWithFallback(message, fromLang, toLangs, deadline, Map.of());
+        }
+
+        int index = providers.indexOf(provider);
+        long start = System.nanoTime();
+        return multiFuture.handle((translations, throwable) -> {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!multiFuture.isCancelled() && findCause(throwable, RejectedExecutionException.class) == null) {
+                governor.recordLatency(latencyMillis);
+            }
+            if (throwable != null) {
+                RateLimitException rateLimitEx = findRateLimit(throwable);
+                if (rateLimitEx != null) {
+                    suspensionManager.suspendEngine(rateLimitEx);
+                    checkAndNotifyFallback(provider, index);
+                } else if (multiFuture.isCancelled() || findCause(throwable, RejectedExecutionException.class) != null) {
+                    suspensionManager.release(provider, null);
+                } else {
+                    suspensionManager.recordFailure(provider, null, latencyMillis);
+                }
+                plugin.debug("Multi-target translation with '" + provider + "' failed, translating each language separately");
+                return Map.<String, TranslationWithProvider>of();
+            }
+
+            suspensionManager.recordSuccess(provider, null, latencyMillis);
+            Map<String, TranslationWithProvider> results = new HashMap<>();
+            if (translations != null) {
+                translations.forEach((toLang, translation) -> results.put(toLang, TranslationWithProvider.of(translation, provider)));
+                updateSuccessfulProvider(provider, index);
+            }
+            return results;
+        }).thenCompose(results -> translateEachWithFallback(message, fromLang, toLangs, deadline, results));
+    }
+
+    private CompletableFuture<Map<String, TranslationWithProvider>> translateEachWithFallback(
+            String message, String fromLang, Set<String> toLangs, MessageDeadline deadline,
+            Map<String, TranslationWithProvider> known) {
+        Map<String, TranslationWithProvider> results = new ConcurrentHashMap<>(known);
+        CompletableFuture<?>[] missing = toLangs.stream()
+                .filter(toLang -> !known.containsKey(toLang))
+                .map(toLang -> translateWithFallback(message, fromLang, toLang, deadline)
+                        .thenAccept(result -> results.put(toLang, result)))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(missing).thenApply(v -> results);
+    }
+
+    /**
+     * Returns the routing figures of each provider that has been called.
+     */
+    public List<ProviderRouter.Stats> getRoutingStats() {
+        return router.getStats();
+    }
+
+    /**
+     * Returns a snapshot of the hedging counters.
+     */
+    public HedgeStats getHedgeStats() {
+        return new HedgeStats(hedgingEnabled, hedgedCalls.sum(), hedgeWins.sum());
+    }
+
+    /**
+     * Snapshot of hedging counters.
+     *
+     * @param enabled     Whether hedging is enabled
+     * @param hedgedCalls Calls for which a second provider was started
+     * @param hedgeWins   Hedged calls where the second provider answered first
+     */
+    public record HedgeStats(boolean enabled, long hedgedCalls, long hedgeWins) {
+    }
+
+    private static RateLimitException findRateLimit(Throwable throwable) {
+        return findCause(throwable, RateLimitException.class);
+    }
+
+    private static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
     }
 
     /**
@@ -80,62 +248,254 @@ public class ProviderFallbackHandler {
      * @param message       The message to translate
      * @param fromLang      Source language code
      * @param toLang        Target language code
+     * @param deadline      Deadline of the message
+     * @param order         Providers in the order they are tried for this message
      * @param providerIndex Index of current provider being tried
      * @param retryAttempt  Current retry attempt for the current provider
      * @return CompletableFuture with the translated text, or null if all providers failed
      */
     private CompletableFuture<TranslationWithProvider> translateWithProviderFallback(
-            String message, String fromLang, String toLang, int providerIndex, int retryAttempt) {
+            String message, String fromLang, String toLang, MessageDeadline deadline,
+            List<String> order, int providerIndex, int retryAttempt) {
+
+        if (deadline.isExpired()) {
+            plugin.debug("Deadline of message passed, giving up on its translation");
+            return CompletableFuture.completedFuture(TranslationWithProvider.failed());
+        }
 
-        if (providerIndex >= providers.size()) {
+        if (providerIndex >= order.size()) {
             plugin.debug("All translation providers failed");
             return CompletableFuture.completedFuture(TranslationWithProvider.failed());
         }
 
-        String currentProvider = providers.get(providerIndex);
+        String currentProvider = order.get(providerIndex);
+        int configuredIndex = providers.indexOf(currentProvider);
 
-        if (suspensionManager.isSuspended(currentProvider)) {
-            plugin.debug("Provider '" + currentProvider + "' is currently suspended due to rate limits, skipping to next provider");
-            return translateWithProviderFallback(message, fromLang, toLang, providerIndex + 1, 0);
+        if (!suspensionManager.tryAcquire(currentProvider)) {
+            plugin.debug("Provider '" + currentProvider + "' is currently suspended, skipping to next provider");
+            return translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex + 1, 0);
         }
 
-        CompletableFuture<String> translationFuture = executor.execute(currentProvider, message, fromLang, toLang);
+        CompletableFuture<TranslationWithProvider> translationFuture = retryAttempt == 0
+                ? executeHedged(order, providerIndex, message, fromLang, toLang, deadline)
+                : executeTimed(currentProvider, message, fromLang, toLang, deadline)
+                .thenApply(result -> TranslationWithProvider.of(result, currentProvider));
 
-        return translationFuture.handle((result, throwable) -> {
+        return translationFuture.handle((attempt, throwable) -> {
             if (throwable != null) {
 
-                Throwable cause = throwable.getCause();
-                if (cause instanceof RateLimitException rateLimitEx) {
-                    suspensionManager.suspend(rateLimitEx);
+                // Cancelled by the deadline or because nobody waits for the result any more
+                if (deadline.isExpired()) {
+                    return CompletableFuture.completedFuture(TranslationWithProvider.failed());
+                }
 
+                if (findRateLimit(throwable) != null) {
                     plugin.debug("Provider '" + currentProvider + "' hit rate limit (429), suspended and moving to next provider");
-                    checkAndNotifyFallback(currentProvider, providerIndex);
-                    return translateWithProviderFallback(message, fromLang, toLang, providerIndex + 1, 0).join();
+                    checkAndNotifyFallback(currentProvider, configuredIndex);
+                    return translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex + 1, 0);
                 }
 
-                // Retry on other errors
-                if (retryAttempt < maxRetries) {
-                    try {
-                        Thread.sleep(1000L * (retryAttempt + 1));
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    return translateWithProviderFallback(message, fromLang, toLang, providerIndex, retryAttempt + 1).join();
+                // Provider's request queue is full, retrying would only add to it
+                if (findCause(throwable, RejectedExecutionException.class) != null) {
+                    plugin.debug("Provider '" + currentProvider + "' is saturated, moving to next provider");
+                    return translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex + 1, 0);
+                }
+
+                // Retry on other errors after a backoff, without holding a thread while waiting
+                long delay = retryDelayMillis(retryAttempt);
+                if (retryAttempt < maxRetries && delay < deadline.remainingMillis()) {
+                    plugin.debug("Provider '" + currentProvider + "' failed, retrying in " + delay + "ms");
+                    Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> null, delayed)
+                            .thenCompose(ignored -> translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex, retryAttempt + 1));
                 }
 
                 plugin.debug("Provider '" + currentProvider + "' failed, trying next");
-                checkAndNotifyFallback(currentProvider, providerIndex);
-                return translateWithProviderFallback(message, fromLang, toLang, providerIndex + 1, 0).join();
+                checkAndNotifyFallback(currentProvider, configuredIndex);
+                return translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex + 1, 0);
+            }
+
+            if (attempt.translation() != null) {
+                updateSuccessfulProvider(attempt.providerName(), providers.indexOf(attempt.providerName()));
+                return CompletableFuture.completedFuture(attempt);
             }
 
-            if (result != null) {
-                updateSuccessfulProvider(currentProvider, providerIndex);
-                return TranslationWithProvider.of(result, currentProvider);
+            checkAndNotifyFallback(currentProvider, configuredIndex);
+            return translateWithProviderFallback(message, fromLang, toLang, deadline, order, providerIndex + 1, 0);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Calls a provider and records the outcome for routing, hedging and the provider's circuit
+     * breaker, whose permission the caller must already hold. A rate limit response suspends the
+     * provider. A provider without an initialized client answers with null. The call is cancelled
+     * when the deadline passes, which counts as a timeout for routing but only trips the provider's
+     * circuit breaker if the call already ran as long as the provider's own request timeout; a call
+     * cancelled for any other reason, such as a lost hedge race, is not held against it. Messages
+     * that shared a batch call record its outcome once, see {@link TranslationBatcher#claimOutcome}.
+     */
+    private CompletableFuture<String> executeTimed(String provider, String message, String fromLang, String toLang,
+                                                   MessageDeadline deadline) {
+        CompletableFuture<String> future = deadline.track(executor.execute(provider, message, fromLang, toLang));
+        if (future == null) {
+            suspensionManager.release(provider, null);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        future.whenComplete((result, throwable) -> {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            RateLimitException rateLimitEx = findRateLimit(throwable);
+            boolean missedDeadline = future.isCancelled() && deadline.hasPassed();
+            boolean rejected = findCause(throwable, RejectedExecutionException.class) != null;
+            if ((!future.isCancelled() || missedDeadline) && !rejected) {
+                governor.recordLatency(latencyMillis);
             }
+            if ((future.isCancelled() && !missedDeadline) || rejected || !TranslationBatcher.claimOutcome(future)) {
+                // Says nothing about the provider's health, or another message of the batch reports it
+                suspensionManager.release(provider, null);
+            } else if (missedDeadline) {
+                router.recordFailure(provider, fromLang, toLang, message.length(), latencyMillis, true);
+                if (latencyMillis >= TranslationExecutor.requestTimeoutMillis(plugin, provider)) {
+                    suspensionManager.recordFailure(provider, null, latencyMillis);
+                } else {
+                    // The deadline gave the provider less time than its own timeout allows
+                    suspensionManager.release(provider, null);
+                }
+            } else if (throwable == null && result != null) {
+                latencyTracker.record(provider, latencyMillis);
+                router.recordSuccess(provider, fromLang, toLang, message.length(), latencyMillis);
+                suspensionManager.recordSuccess(provider, null, latencyMillis);
+            } else if (throwable == null) {
+                suspensionManager.release(provider, null);
+                router.recordFailure(provider, fromLang, toLang, message.length(), latencyMillis, false);
+            } else if (rateLimitEx != null) {
+                router.recordFailure(provider, fromLang, toLang, message.length(), latencyMillis, false);
+                suspensionManager.suspendEngine(rateLimitEx);
+            } else {
+                boolean timedOut = findCause(throwable, HttpTimeoutException.class) != null
+                        || findCause(throwable, TimeoutException.class) != null;
+                router.recordFailure(provider, fromLang, toLang, message.length(), latencyMillis, timedOut);
+                suspensionManager.recordFailure(provider, null, latencyMillis);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Calls a provider and, if it is slower than its usual latency, also the next available one.
+     * Completes with the first usable translation; if there is none, with the outcome of the
+     * primary call so the fallback chain reacts to the primary provider's error.
+     */
+    private CompletableFuture<TranslationWithProvider> executeHedged(
+            List<String> order, int providerIndex, String message, String fromLang, String toLang,
+            MessageDeadline deadline) {
+        String provider = order.get(providerIndex);
+        CompletableFuture<String> primary = executeTimed(provider, message, fromLang, toLang, deadline);
+        if (!hedgingEnabled) {
+            return primary.thenApply(result -> TranslationWithProvider.of(result, provider));
+        }
+
+        hedgeCredits.getAndUpdate(credits -> Math.min(credits + hedgeCreditPerCall, MAX_HEDGE_CREDITS));
+        String backup = nextAvailableProvider(order, providerIndex + 1);
+        long delay = latencyTracker.percentile(provider, hedgePercentile);
+        if (backup == null || delay < 0 || primary.isDone()) {
+            return primary.thenApply(result -> TranslationWithProvider.of(result, provider));
+        }
 
-            checkAndNotifyFallback(currentProvider, providerIndex);
-            return translateWithProviderFallback(message, fromLang, toLang, providerIndex + 1, 0).join();
+        CompletableFuture<TranslationWithProvider> winner = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<String>> hedgeRef = new AtomicReference<>();
+
+        primary.whenComplete((result, throwable) -> {
+            if (throwable == null && result != null) {
+                if (winner.complete(TranslationWithProvider.of(result, provider))) {
+                    CompletableFuture<String> hedge = hedgeRef.get();
+                    if (hedge != null) hedge.cancel(true);
+                }
+                return;
+            }
+            CompletableFuture<String> hedge = hedgeRef.get();
+            if (hedge == null || hedge.isDone()) {
+                forward(primary, provider, winner);
+            }
         });
+
+        Executor delayed = CompletableFuture.delayedExecutor(Math.max(delay, hedgeMinDelayMillis), TimeUnit.MILLISECONDS);
+        delayed.execute(() -> {
+            if (primary.isDone() || deadline.isExpired() || !suspensionManager.tryAcquire(backup)) {
+                return;
+            }
+            if (!tryAcquireHedgeCredit()) {
+                suspensionManager.release(backup, null);
+                return;
+            }
+
+            plugin.debug("Provider '" + provider + "' is slower than usual, hedging with '" + backup + "'");
+            hedgedCalls.increment();
+            CompletableFuture<String> hedge = executeTimed(backup, message, fromLang, toLang, deadline);
+            hedgeRef.set(hedge);
+
+            hedge.whenComplete((result, throwable) -> {
+                if (throwable == null && result != null) {
+                    if (winner.complete(TranslationWithProvider.of(result, backup))) {
+                        hedgeWins.increment();
+                        primary.cancel(true);
+                    }
+                    return;
+                }
+                if (primary.isDone()) {
+                    forward(primary, provider, winner);
+                }
+            });
+
+            if (winner.isDone()) {
+                hedge.cancel(true);
+            }
+        });
+
+        return winner;
+    }
+
+    private boolean tryAcquireHedgeCredit() {
+        while (true) {
+            long credits = hedgeCredits.get();
+            if (credits < HEDGE_CREDIT_UNIT) {
+                return false;
+            }
+            if (hedgeCredits.compareAndSet(credits, credits - HEDGE_CREDIT_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    private String nextAvailableProvider(List<String> order, int fromIndex) {
+        for (int i = fromIndex; i < order.size(); i++) {
+            if (!suspensionManager.isSuspended(order.get(i))) {
+                return order.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static void forward(CompletableFuture<String> source, String provider, CompletableFuture<TranslationWithProvider> target) {
+        source.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                target.completeExceptionally(throwable);
+            } else {
+                target.complete(TranslationWithProvider.of(result, provider));
+            }
+        });
+    }
+
+    /**
+     * Exponential backoff with jitter: half of the delay is fixed, the other half random,
+     * so retries of many failed messages do not hit the provider at the same moment.
+     */
+    private long retryDelayMillis(int retryAttempt) {
+        long exponential = retryBaseDelayMillis << Math.min(retryAttempt, 16);
+        long delay = Math.min(exponential, retryMaxDelayMillis);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
     }
 
     /**
@@ -0,0 +1,70 @@
+package net.mysterria.translator.translation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the latencies of the most recent successful calls to each provider and answers
+ * percentile queries over them. Used to decide when a call is slow enough to hedge.
+ */
+public class ProviderLatencyTracker {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+
+    private final Map<String, Window> windows;
+
+    public ProviderLatencyTracker() {
+        this.windows = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records the latency of a successful call.
+     *
+     * @param provider      The provider name
+     * @param latencyMillis How long the call took
+     */
+    public void record(String provider, long latencyMillis) {
+        windows.computeIfAbsent(provider.toLowerCase(), k -> new Window()).add(latencyMillis);
+    }
+
+    /**
+     * Returns the given latency percentile of a provider's recent calls.
+     *
+     * @param provider   The provider name
+     * @param percentile Percentile between 1 and 100
+     * @return Latency in milliseconds, or -1 if too few calls have been recorded yet
+     */
+    public long percentile(String provider, int percentile) {
+        Window window = windows.get(provider.toLowerCase());
+        return window != null ? window.percentile(percentile) : -1;
+    }
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int next;
+        private int count;
+
+        synchronized void add(long latencyMillis) {
+            samples[next] = latencyMillis;
+            next = (next + 1) % WINDOW_SIZE;
+            if (count < WINDOW_SIZE) {
+                count++;
+            }
+        }
+
+        long percentile(int percentile) {
+            long[] sorted;
+            synchronized (this) {
+                if (count < MIN_SAMPLES) {
+                    return -1;
+                }
+                sorted = Arrays.copyOf(samples, count);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(Math.clamp(percentile, 1, 100) / 100.0 * sorted.length);
+            return sorted[Math.max(rank - 1, 0)];
+        }
+    }
+}
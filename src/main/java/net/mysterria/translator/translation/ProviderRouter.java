@@ -0,0 +1,216 @@
+package net.mysterria.translator.translation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Orders providers for each request by how they have recently performed.
+ * <p>
+ * For every provider the router keeps an exponentially weighted moving average (EWMA) of the
+ * latency and success rate of its calls, plus a count of recent timeouts that halves every minute.
+ * Figures are kept per language pair and message length, so one provider can be preferred for
+ * short messages in one pair and another elsewhere, and per provider as a whole for requests with
+ * no specific history yet. A provider's expected cost is its latency divided by its success rate
+ * plus a penalty for the failures, raised by recent timeouts, so a provider that fails fast does
+ * not look attractive. Costs are compared in coarse steps, so providers performing about
+ * the same keep the configured order.
+ * <p>
+ * A provider with no history is assumed to cost about two seconds, so a primary that has become
+ * slower than that lets the others be tried and measured. Figures that have not been updated for a
+ * while drift back towards that assumption, so a provider that was moved back gets another chance.
+ */
+public class ProviderRouter {
+
+    private static final double ALPHA = 0.2;
+    private static final int MIN_SAMPLES = 5;
+    private static final long TIMEOUT_HALF_LIFE_MS = 60_000;
+    private static final int SHORT_MESSAGE_LENGTH = 32;
+    private static final int MEDIUM_MESSAGE_LENGTH = 160;
+    private static final double FAILURE_PENALTY_MS = 5000;
+    private static final double PRIOR_COST_MS = 2000;
+    private static final long STALE_HALF_LIFE_MS = 5 * 60_000;
+
+    private final boolean enabled;
+    private final double stepLog;
+    private final Map<RouteKey, RouteStats> stats;
+
+    /**
+     * @param enabled   Whether providers are reordered at all
+     * @param tolerance Cost ratio below which two providers count as equal, e.g. 1.25
+     */
+    public ProviderRouter(boolean enabled, double tolerance) {
+        this.enabled = enabled;
+        this.stepLog = Math.log(Math.max(tolerance, 1.01));
+        this.stats = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the providers in the order they should be tried for a message.
+     *
+     * @param providers     Configured providers, in configured order
+     * @param fromLang      Source language code, may be null
+     * @param toLang        Target language code, or null to use only per-provider figures
+     * @param messageLength Length of the message
+     * @return Providers, best first
+     */
+    public List<String> order(List<String> providers, String fromLang, String toLang, int messageLength) {
+        if (!enabled || providers.size() < 2) {
+            return providers;
+        }
+
+        int bucket = lengthBucket(messageLength);
+        long now = System.currentTimeMillis();
+        Map<String, Integer> steps = new HashMap<>();
+        for (String provider : providers) {
+            String name = provider.toLowerCase();
+            RouteStats route = toLang != null ? usable(new RouteKey(name, fromLang, toLang, bucket)) : null;
+            if (route == null) {
+                route = usable(RouteKey.provider(name));
+            }
+            steps.put(provider, costStep(route != null ? route.cost(now) : PRIOR_COST_MS));
+        }
+
+        List<String> ordered = new ArrayList<>(providers);
+        ordered.sort(Comparator.comparingInt(steps::get));
+        return ordered;
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public void recordSuccess(String provider, String fromLang, String toLang, int messageLength, long latencyMillis) {
+        record(provider, fromLang, toLang, messageLength, route -> route.success(latencyMillis));
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param timedOut Whether the call failed because it timed out
+     */
+    public void recordFailure(String provider, String fromLang, String toLang, int messageLength,
+                              long latencyMillis, boolean timedOut) {
+        long now = System.currentTimeMillis();
+        record(provider, fromLang, toLang, messageLength, route -> route.failure(latencyMillis, timedOut, now));
+    }
+
+    /**
+     * Returns the overall figures of each provider that has been called.
+     */
+    public List<Stats> getStats() {
+        long now = System.currentTimeMillis();
+        List<Stats> result = new ArrayList<>();
+        stats.forEach((key, route) -> {
+            if (key.fromLang == null && key.toLang == null && key.bucket < 0) {
+                result.add(route.snapshot(key.provider, now));
+            }
+        });
+        result.sort(Comparator.comparing(Stats::provider));
+        return result;
+    }
+
+    /**
+     * Snapshot of a provider's routing figures.
+     *
+     * @param provider       The provider name
+     * @param latencyMillis  Average latency
+     * @param successRate    Average success rate between 0 and 1
+     * @param recentTimeouts Recent timeouts, decaying over time
+     * @param samples        Calls recorded
+     */
+    public record Stats(String provider, long latencyMillis, double successRate, double recentTimeouts, long samples) {
+    }
+
+    private void record(String provider, String fromLang, String toLang, int messageLength,
+                        Consumer<RouteStats> update) {
+        if (!enabled) {
+            return;
+        }
+        String name = provider.toLowerCase();
+        update.accept(stats.computeIfAbsent(RouteKey.provider(name), k -> new RouteStats()));
+        if (toLang != null) {
+            RouteKey key = new RouteKey(name, fromLang, toLang, lengthBucket(messageLength));
+            update.accept(stats.computeIfAbsent(key, k -> new RouteStats()));
+        }
+    }
+
+    private RouteStats usable(RouteKey key) {
+        RouteStats route = stats.get(key);
+        return route != null && route.samples() >= MIN_SAMPLES ? route : null;
+    }
+
+    private int costStep(double cost) {
+        return (int) Math.floor(Math.log(Math.max(cost, 1.0)) / stepLog);
+    }
+
+    private static int lengthBucket(int messageLength) {
+        if (messageLength <= SHORT_MESSAGE_LENGTH) {
+            return 0;
+        }
+        return messageLength <= MEDIUM_MESSAGE_LENGTH ? 1 : 2;
+    }
+
+    private record RouteKey(String provider, String fromLang, String toLang, int bucket) {
+        static RouteKey provider(String provider) {
+            return new RouteKey(provider.toLowerCase(), null, null, -1);
+        }
+    }
+
+    private static final class RouteStats {
+        private double latency;
+        private double successRate = 1.0;
+        private double timeouts;
+        private long timeoutsUpdatedAt;
+        private long updatedAt;
+        private long samples;
+
+        synchronized void success(long latencyMillis) {
+            update(latencyMillis, 1.0);
+        }
+
+        synchronized void failure(long latencyMillis, boolean timedOut, long now) {
+            update(latencyMillis, 0.0);
+            if (timedOut) {
+                timeouts = decayedTimeouts(now) + 1;
+                timeoutsUpdatedAt = now;
+            }
+        }
+
+        synchronized long samples() {
+            return samples;
+        }
+
+        synchronized double cost(long now) {
+            double expected = latency / Math.max(successRate, 0.05) + (1 - successRate) * FAILURE_PENALTY_MS;
+            double freshness = Math.pow(0.5, (double) (now - updatedAt) / STALE_HALF_LIFE_MS);
+            return (PRIOR_COST_MS + (expected - PRIOR_COST_MS) * freshness) * (1 + decayedTimeouts(now));
+        }
+
+        synchronized Stats snapshot(String provider, long now) {
+            return new Stats(provider, Math.round(latency), successRate, decayedTimeouts(now), samples);
+        }
+
+        private void update(long latencyMillis, double outcome) {
+            if (samples == 0) {
+                latency = latencyMillis;
+                successRate = outcome;
+            } else {
+                latency += ALPHA * (latencyMillis - latency);
+                successRate += ALPHA * (outcome - successRate);
+            }
+            samples++;
+            updatedAt = System.currentTimeMillis();
+        }
+
+        private double decayedTimeouts(long now) {
+            if (timeouts == 0) {
+                return 0;
+            }
+            return timeouts * Math.pow(0.5, (double) (now - timeoutsUpdatedAt) / TIMEOUT_HALF_LIFE_MS);
+        }
+    }
+}
@@ -1,34 +1,63 @@
 package net.mysterria.translator.translation;
 
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.RateLimitHeaders;
 import net.mysterria.translator.exception.RateLimitException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages temporary suspension of translation engines and API keys that encounter rate limits (HTTP 429).
- * When an engine/key is suspended, it will be completely skipped during translation attempts until
- * the suspension period expires.
+ * Keeps a {@link CircuitBreaker} for every translation engine and API key and decides whether
+ * they may be called.
  * <p>
- * For multi-key engines like Gemini, each API key is tracked separately.
- * For single-key engines like OpenAI/Ollama, the entire engine is suspended.
+ * Breakers open after a burst of failed or slow calls, such as timeouts or server errors, and
+ * immediately after a rate limit (HTTP 429). An open engine or key is skipped during translation
+ * attempts; after a short open period a single probe call decides whether it is healthy again.
+ * Repeated trips double the open period, up to the configured maximum. When a provider says when
+ * it accepts requests again (Retry-After or a quota reset time), the suspension ends exactly then,
+ * and an engine or key whose reported quota is nearly used up is paused until the quota resets
+ * instead of waiting for the 429.
+ * <p>
+ * Independently of the breakers, every engine or key can have a request and token budget per
+ * minute ({@code requestsPerMinute} and {@code tokensPerMinute} in the engine's config section),
+ * kept in {@link TokenBucket}s. Calls take their estimated token cost up front and are corrected
+ * with the usage the provider reports, so traffic stays just under the provider's limits.
+ * <p>
+ * Every API key in an engine's {@link net.mysterria.translator.engine.CredentialPool} has its own
+ * breaker and budget next to the engine's breaker; engines without keys, like Google, only have
+ * the engine's.
  */
 public class RateLimitManager {
     private final MysterriaTranslator plugin;
-    private final ConcurrentHashMap<String, Instant> suspensions;
-    private final int suspensionMinutes;
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers;
+    private final ConcurrentHashMap<String, Budget> budgets;
+    private final CircuitBreaker.Settings settings;
+    private final int quotaReserve;
 
     /**
-     * Creates a new RateLimitSuspensionManager.
+     * Creates a new RateLimitManager.
      *
      * @param plugin            The plugin instance
-     * @param suspensionMinutes How long to suspend engines/keys after a 429 error
+     * @param suspensionMinutes Longest time an engine/key stays suspended after repeated failures
      */
     public RateLimitManager(MysterriaTranslator plugin, int suspensionMinutes) {
         this.plugin = plugin;
-        this.suspensions = new ConcurrentHashMap<>();
-        this.suspensionMinutes = suspensionMinutes;
+        this.breakers = new ConcurrentHashMap<>();
+        this.budgets = new ConcurrentHashMap<>();
+        this.settings = new CircuitBreaker.Settings(
+                plugin.getConfig().getInt("translation.circuitBreaker.windowSize", 20),
+                plugin.getConfig().getInt("translation.circuitBreaker.minimumCalls", 10),
+                plugin.getConfig().getInt("translation.circuitBreaker.failureRateThreshold", 50) / 100.0,
+                plugin.getConfig().getInt("translation.circuitBreaker.slowCallRateThreshold", 80) / 100.0,
+                plugin.getConfig().getLong("translation.circuitBreaker.slowCallMillis", 8000),
+                plugin.getConfig().getLong("translation.circuitBreaker.openSeconds", 30) * 1000L,
+                Math.max(suspensionMinutes, 1) * 60_000L);
+        this.quotaReserve = plugin.getConfig().getInt("translation.rateLimitQuotaReserve", 1);
     }
 
     /**
@@ -37,49 +66,40 @@ public class RateLimitManager {
      * @param exception The RateLimitException containing engine and key information
      */
     public void suspend(RateLimitException exception) {
-        String suspensionKey = exception.getSuspensionKey();
-        Instant expiryTime = Instant.now().plusSeconds(suspensionMinutes * 60L);
-        suspensions.put(suspensionKey, expiryTime);
-
-        String logMessage;
-        if (exception.hasApiKeyIdentifier()) {
-            logMessage = String.format(
-                    "Suspended %s (key: %s) for %d minutes due to rate limit (HTTP %d)",
-                    exception.getEngineName(),
-                    exception.getApiKeyIdentifier(),
-                    suspensionMinutes,
-                    exception.getStatusCode()
-            );
-        } else {
-            logMessage = String.format(
-                    "Suspended %s engine for %d minutes due to rate limit (HTTP %d)",
-                    exception.getEngineName(),
-                    suspensionMinutes,
-                    exception.getStatusCode()
-            );
-        }
+        open(exception.getSuspensionKey(), exception);
+    }
 
-        plugin.getLogger().warning(logMessage);
+    /**
+     * Suspends a whole engine after a rate limit, even if the exception names a single key.
+     * Used when a multi-key engine reports that every key it tried was rate limited.
+     *
+     * @param exception The RateLimitException containing engine information
+     */
+    public void suspendEngine(RateLimitException exception) {
+        open(exception.getEngineName(), exception);
     }
 
     /**
-     * Checks if an engine is currently suspended.
-     * For single-key engines, checks if the engine is suspended.
-     * For multi-key engines, checks if ANY key for that engine is NOT suspended.
+     * Checks if an engine is currently suspended, without taking the half-open probe.
      *
      * @param engineName The name of the engine (e.g., "ollama", "gemini", "openai")
-     * @return true if the engine is completely suspended and should not be used
+     * @return true if the engine is suspended and should not be used
      */
     public boolean isSuspended(String engineName) {
-        cleanExpiredSuspensions();
-
-
-        if (suspensions.containsKey(engineName)) {
-            return true;
-        }
+        CircuitBreaker breaker = breakers.get(normalize(engineName));
+        return breaker != null && breaker.isRejecting();
+    }
 
-        return suspensions.keySet().stream()
-                .anyMatch(key -> key.startsWith(engineName + ":"));
+    /**
+     * Asks whether a call to an engine may go ahead. If the engine's breaker is half-open, only
+     * the first caller is let through as the probe. Every granted call must be followed by
+     * {@link #recordSuccess}, {@link #recordFailure} or {@link #release}.
+     *
+     * @param engineName The engine name
+     * @return true if the engine may be called
+     */
+    public boolean tryAcquire(String engineName) {
+        return breaker(normalize(engineName)).tryAcquire();
     }
 
     /**
@@ -90,9 +110,149 @@ public class RateLimitManager {
      * @return true if this specific key is suspended
      */
     public boolean isKeySuspended(String engineName, String apiKeyIdentifier) {
-        cleanExpiredSuspensions();
-        String suspensionKey = engineName + ":" + apiKeyIdentifier;
-        return suspensions.containsKey(suspensionKey);
+        CircuitBreaker breaker = breakers.get(normalize(engineName, apiKeyIdentifier));
+        return breaker != null && breaker.isRejecting();
+    }
+
+    /**
+     * Like {@link #tryAcquire}, for a specific API key.
+     */
+    public boolean tryAcquireKey(String engineName, String apiKeyIdentifier) {
+        return breaker(normalize(engineName, apiKeyIdentifier)).tryAcquire();
+    }
+
+    /**
+     * Records a successful call to an engine or key.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     * @param latencyMillis    How long the call took
+     */
+    public void recordSuccess(String engineName, String apiKeyIdentifier, long latencyMillis) {
+        String name = normalize(engineName, apiKeyIdentifier);
+        logTransition(name, breaker(name).onSuccess(latencyMillis));
+    }
+
+    /**
+     * Records a failed call to an engine or key, such as a timeout or server error.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     * @param latencyMillis    How long the call took
+     */
+    public void recordFailure(String engineName, String apiKeyIdentifier, long latencyMillis) {
+        String name = normalize(engineName, apiKeyIdentifier);
+        logTransition(name, breaker(name).onFailure(latencyMillis));
+    }
+
+    /**
+     * Records the quota a provider reported with a response. If no more than the configured
+     * reserve of requests is left, the engine or key is paused until the quota resets.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     * @param quota            The reported quota
+     */
+    public void recordQuota(String engineName, String apiKeyIdentifier, RateLimitHeaders.Quota quota) {
+        long now = System.currentTimeMillis();
+        if (!quota.isKnown() || quota.remaining() > quotaReserve || quota.resetAtMillis() <= now) {
+            return;
+        }
+
+        String name = normalize(engineName, apiKeyIdentifier);
+        if (breaker(name).holdUntil(quota.resetAtMillis())) {
+            plugin.debug(String.format("Pausing %s for %d ms until its quota resets (%d requests left)",
+                    name, quota.resetAtMillis() - now, quota.remaining()));
+        }
+    }
+
+    /**
+     * Checks without taking anything whether an engine has request budget left. For engines with
+     * per-key budgets, at least one key must have budget left.
+     *
+     * @param engineName The engine name
+     * @return true if a call to the engine fits its budget
+     */
+    public boolean hasBudget(String engineName) {
+        String name = normalize(engineName);
+        Budget engineBudget = budgets.get(name);
+        if (engineBudget != null && (!engineBudget.requests.hasAvailable(1) || !engineBudget.tokens.hasAvailable(1))) {
+            return false;
+        }
+
+        boolean anyKey = false;
+        for (Map.Entry<String, Budget> entry : budgets.entrySet()) {
+            if (entry.getKey().startsWith(name + ":")) {
+                if (entry.getValue().requests.hasAvailable(1) && entry.getValue().tokens.hasAvailable(1)) {
+                    return true;
+                }
+                anyKey = true;
+            }
+        }
+        return !anyKey;
+    }
+
+    /**
+     * Takes one request and the estimated tokens of a call from an engine's or key's budget.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     * @param estimatedTokens  Estimated tokens of the call, see {@link #estimateTokens}
+     * @return true if the call fits the budget and may be sent
+     */
+    public boolean tryAcquireBudget(String engineName, String apiKeyIdentifier, long estimatedTokens) {
+        Budget budget = budget(normalize(engineName, apiKeyIdentifier));
+        if (!budget.requests.tryConsume(1)) {
+            return false;
+        }
+        if (!budget.tokens.tryConsume(estimatedTokens)) {
+            budget.requests.adjust(-1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Corrects a budget with the token usage the provider reported for a call.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     * @param estimatedTokens  Tokens taken up front for the call
+     * @param actualTokens     Tokens the provider reported, or a negative value if it did not
+     */
+    public void recordUsage(String engineName, String apiKeyIdentifier, long estimatedTokens, long actualTokens) {
+        if (actualTokens < 0) {
+            return;
+        }
+        Budget budget = budgets.get(normalize(engineName, apiKeyIdentifier));
+        if (budget != null) {
+            budget.tokens.adjust(actualTokens - estimatedTokens);
+        }
+    }
+
+    /**
+     * Estimates the tokens a call costs from the prompt sent, counting roughly four characters
+     * per token for the prompt and a quarter of that again for the answer.
+     *
+     * @param prompt Everything sent to the model
+     * @return Estimated tokens
+     */
+    public static long estimateTokens(String prompt) {
+        long promptTokens = (prompt.length() + 3) / 4;
+        return promptTokens + (promptTokens + 3) / 4;
+    }
+
+    /**
+     * Gives back a permission whose call was not made or was cancelled.
+     *
+     * @param engineName       The engine name
+     * @param apiKeyIdentifier The key identifier, or null for the engine itself
+     */
+    public void release(String engineName, String apiKeyIdentifier) {
+        CircuitBreaker breaker = breakers.get(normalize(engineName, apiKeyIdentifier));
+        if (breaker != null) {
+            breaker.release();
+        }
     }
 
     /**
@@ -103,8 +263,6 @@ public class RateLimitManager {
      * @return The index of an available key, or -1 if all keys are suspended
      */
     public int getAvailableKeyIndex(String engineName, int totalKeyCount) {
-        cleanExpiredSuspensions();
-
         for (int i = 0; i < totalKeyCount; i++) {
             String keyIdentifier = "key-" + i;
             if (!isKeySuspended(engineName, keyIdentifier)) {
@@ -122,12 +280,11 @@ public class RateLimitManager {
      * @param apiKeyIdentifier The key identifier, or null for single-key engines
      */
     public void removeSuspension(String engineName, String apiKeyIdentifier) {
-        String suspensionKey = apiKeyIdentifier != null
-                ? engineName + ":" + apiKeyIdentifier
-                : engineName;
+        String suspensionKey = normalize(engineName, apiKeyIdentifier);
 
-        Instant removed = suspensions.remove(suspensionKey);
-        if (removed != null) {
+        CircuitBreaker breaker = breakers.get(suspensionKey);
+        if (breaker != null && breaker.getOpenUntil() > 0) {
+            breaker.reset();
             plugin.getLogger().info(String.format("Manually removed suspension for %s", suspensionKey));
         }
     }
@@ -136,46 +293,103 @@ public class RateLimitManager {
      * Clears all suspensions.
      */
     public void clearAll() {
-        int count = suspensions.size();
-        suspensions.clear();
+        int count = getActiveSuspensionCount();
+        breakers.values().forEach(CircuitBreaker::reset);
         if (count > 0) {
             plugin.getLogger().info(String.format("Cleared %d rate limit suspensions", count));
         }
     }
 
-    /**
-     * Removes expired suspensions from the map.
-     */
-    private void cleanExpiredSuspensions() {
-        Instant now = Instant.now();
-        suspensions.entrySet().removeIf(entry -> {
-            if (entry.getValue().isBefore(now)) {
-                plugin.getLogger().info(String.format(
-                        "Rate limit suspension expired for %s, re-enabling",
-                        entry.getKey()
-                ));
-                return true;
-            }
-            return false;
-        });
-    }
-
     /**
      * Gets the number of currently active suspensions.
      */
     public int getActiveSuspensionCount() {
-        cleanExpiredSuspensions();
-        return suspensions.size();
+        return (int) breakers.values().stream().filter(CircuitBreaker::isRejecting).count();
     }
 
     /**
      * Gets the expiry time for a suspension, or null if not suspended.
      */
     public Instant getSuspensionExpiry(String engineName, String apiKeyIdentifier) {
-        cleanExpiredSuspensions();
-        String suspensionKey = apiKeyIdentifier != null
-                ? engineName + ":" + apiKeyIdentifier
-                : engineName;
-        return suspensions.get(suspensionKey);
+        CircuitBreaker breaker = breakers.get(normalize(engineName, apiKeyIdentifier));
+        if (breaker == null || breaker.getOpenUntil() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return Instant.ofEpochMilli(breaker.getOpenUntil());
+    }
+
+    /**
+     * Returns the state of every engine and key breaker, sorted by name.
+     */
+    public List<CircuitBreaker.Snapshot> getBreakerStates() {
+        List<CircuitBreaker.Snapshot> states = new ArrayList<>();
+        breakers.values().forEach(breaker -> states.add(breaker.snapshot()));
+        states.sort(Comparator.comparing(CircuitBreaker.Snapshot::name));
+        return states;
+    }
+
+    private void open(String name, RateLimitException exception) {
+        String normalized = normalize(name);
+        long openUntil = breaker(normalized).forceOpen(exception.getRetryAtMillis());
+        long seconds = Math.max((openUntil - System.currentTimeMillis()) / 1000, 1);
+        String reason = exception.hasRetryAt() ? "as requested by the provider" : "due to rate limit";
+
+        String logMessage;
+        if (exception.hasApiKeyIdentifier() && !normalized.equals(normalize(exception.getEngineName()))) {
+            logMessage = String.format(
+                    "Suspended %s (key: %s) for %d seconds %s (HTTP %d)",
+                    exception.getEngineName(),
+                    exception.getApiKeyIdentifier(),
+                    seconds,
+                    reason,
+                    exception.getStatusCode()
+            );
+        } else {
+            logMessage = String.format(
+                    "Suspended %s engine for %d seconds %s (HTTP %d)",
+                    exception.getEngineName(),
+                    seconds,
+                    reason,
+                    exception.getStatusCode()
+            );
+        }
+
+        plugin.getLogger().warning(logMessage);
+    }
+
+    private void logTransition(String name, CircuitBreaker.State state) {
+        if (state == CircuitBreaker.State.OPEN) {
+            CircuitBreaker.Snapshot snapshot = breaker(name).snapshot();
+            plugin.getLogger().warning(String.format("Suspended %s for %d seconds after repeated failed or slow requests",
+                    name, Math.max(snapshot.remainingMillis() / 1000, 1)));
+        } else if (state == CircuitBreaker.State.CLOSED) {
+            plugin.getLogger().info(String.format("%s is responding normally again, re-enabling", name));
+        }
+    }
+
+    private Budget budget(String name) {
+        return budgets.computeIfAbsent(name, key -> {
+            String engineName = key.contains(":") ? key.substring(0, key.indexOf(':')) : key;
+            return new Budget(
+                    new TokenBucket(plugin.getConfig().getLong("translation." + engineName + ".requestsPerMinute", 0)),
+                    new TokenBucket(plugin.getConfig().getLong("translation." + engineName + ".tokensPerMinute", 0)));
+        });
+    }
+
+    private CircuitBreaker breaker(String name) {
+        return breakers.computeIfAbsent(name, key -> new CircuitBreaker(key, settings));
+    }
+
+    private static String normalize(String engineName) {
+        return engineName.toLowerCase();
+    }
+
+    private static String normalize(String engineName, String apiKeyIdentifier) {
+        return apiKeyIdentifier != null
+                ? normalize(engineName) + ":" + apiKeyIdentifier
+                : normalize(engineName);
+    }
+
+    private record Budget(TokenBucket requests, TokenBucket tokens) {
     }
 }
@@ -0,0 +1,99 @@
+package net.mysterria.translator.translation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket refilled continuously at a fixed rate per minute.
+ * <p>
+ * The bucket starts full and holds at most one minute's worth of tokens. Its balance may go
+ * negative when a call turns out to cost more than was taken for it up front (see
+ * {@link #adjust}), which delays later calls until the debt is paid off by the refill.
+ * A bucket with a rate of zero or less is unlimited.
+ */
+public class TokenBucket {
+
+    private final long perMinute;
+    private final double perNano;
+    private final AtomicReference<State> state;
+
+    /**
+     * @param perMinute Tokens added per minute, also the bucket's capacity; zero or less for unlimited
+     */
+    public TokenBucket(long perMinute) {
+        this.perMinute = perMinute;
+        this.perNano = perMinute / 60_000_000_000.0;
+        this.state = new AtomicReference<>(new State(perMinute, System.nanoTime()));
+    }
+
+    public boolean isUnlimited() {
+        return perMinute <= 0;
+    }
+
+    /**
+     * Takes tokens if the bucket holds enough. An amount above the capacity could never fit, so it
+     * is taken once the bucket is full and leaves the balance in debt, like an {@link #adjust}.
+     *
+     * @param amount Tokens to take
+     * @return true if they were taken
+     */
+    public boolean tryConsume(long amount) {
+        if (isUnlimited() || amount <= 0) {
+            return true;
+        }
+        while (true) {
+            State current = state.get();
+            State refilled = refill(current, System.nanoTime());
+            if (refilled.tokens < Math.min(amount, perMinute)) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(refilled.tokens - amount, refilled.nanos))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks without taking anything whether {@link #tryConsume} would take the given amount.
+     */
+    public boolean hasAvailable(long amount) {
+        return isUnlimited() || refill(state.get(), System.nanoTime()).tokens >= Math.min(amount, perMinute);
+    }
+
+    /**
+     * Corrects the balance once the real cost of a call is known: a positive delta takes more
+     * tokens, even into debt, and a negative one gives tokens back, up to the capacity.
+     *
+     * @param delta Real cost minus the tokens taken up front
+     */
+    public void adjust(long delta) {
+        if (isUnlimited() || delta == 0) {
+            return;
+        }
+        while (true) {
+            State current = state.get();
+            State refilled = refill(current, System.nanoTime());
+            double tokens = Math.min(refilled.tokens - delta, perMinute);
+            if (state.compareAndSet(current, new State(tokens, refilled.nanos))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current balance, rounded down.
+     */
+    public long available() {
+        return isUnlimited() ? Long.MAX_VALUE : (long) Math.floor(refill(state.get(), System.nanoTime()).tokens);
+    }
+
+    private State refill(State current, long now) {
+        long elapsed = now - current.nanos;
+        if (elapsed <= 0 || current.tokens >= perMinute) {
+            return new State(current.tokens, now);
+        }
+        return new State(Math.min(current.tokens + elapsed * perNano, perMinute), now);
+    }
+
+    private record State(double tokens, long nanos) {
+    }
+}
@@ -0,0 +1,245 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.MysterriaTranslator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects translation requests for a short window and sends them to a provider as one batch.
+ * <p>
+ * Requests are grouped by provider and language pair. A group is flushed when it reaches the
+ * configured size or when the window elapses, whichever comes first. If the provider's answer
+ * cannot be matched to the inputs (the batch call returns null), every message in the batch is
+ * retried with its own single call; any other failure is passed on to all waiting requests so
+ * the fallback handler can react to it. A batch call is cancelled once every request in it has
+ * been cancelled.
+ * <p>
+ * Since one failed or slow batch call would otherwise count against the provider once for every
+ * message in it, only one of the messages sharing a call may report its outcome; see
+ * {@link #claimOutcome}.
+ */
+public class TranslationBatcher {
+
+    private final MysterriaTranslator plugin;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final BatchCall batchCall;
+    private final SingleCall singleCall;
+    private final ScheduledExecutorService scheduler;
+    private final Map<BatchKey, Batch> pending;
+
+    /**
+     * Sends a batch of messages to a provider.
+     */
+    @FunctionalInterface
+    public interface BatchCall {
+        /**
+         * @return Future with translations in input order, or null if the response did not match the input
+         */
+        CompletableFuture<List<String>> translate(String provider, List<String> messages, String fromLang, String toLang);
+    }
+
+    /**
+     * Sends a single message to a provider.
+     */
+    @FunctionalInterface
+    public interface SingleCall {
+        CompletableFuture<String> translate(String provider, String message, String fromLang, String toLang);
+    }
+
+    /**
+     * @param plugin       The plugin instance
+     * @param windowMillis How long to wait for more requests before sending a batch
+     * @param maxBatchSize Maximum number of messages per batch
+     * @param batchCall    Sends a batch to a provider
+     * @param singleCall   Sends one message to a provider, used for lone requests and mismatched batches
+     */
+    public TranslationBatcher(MysterriaTranslator plugin, long windowMillis, int maxBatchSize,
+                              BatchCall batchCall, SingleCall singleCall) {
+        this.plugin = plugin;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.batchCall = batchCall;
+        this.singleCall = singleCall;
+        this.pending = new HashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MysterriaTranslator-Batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a message for the next batch of the given provider and language pair.
+     *
+     * @param provider The provider name
+     * @param message  The message to translate
+     * @param fromLang Source language code
+     * @param toLang   Target language code
+     * @return Future completed with this message's translation
+     */
+    public CompletableFuture<String> submit(String provider, String message, String fromLang, String toLang) {
+        BatchKey key = new BatchKey(provider, fromLang, toLang);
+        Member future = new Member();
+        Batch ready = null;
+
+        synchronized (pending) {
+            Batch batch = pending.get(key);
+            if (batch == null) {
+                batch = new Batch(key);
+                pending.put(key, batch);
+                Batch scheduled = batch;
+                try {
+                    batch.timer = scheduler.schedule(() -> flush(scheduled), windowMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    pending.remove(key);
+                    return singleCall.translate(provider, message, fromLang, toLang);
+                }
+            }
+
+            batch.messages.add(message);
+            batch.futures.add(future);
+
+            if (batch.messages.size() >= maxBatchSize) {
+                pending.remove(key);
+                batch.timer.cancel(false);
+                ready = batch;
+            }
+        }
+
+        if (ready != null) {
+            send(ready);
+        }
+        return future;
+    }
+
+    /**
+     * Decides whether the completion of a request should be recorded as the outcome of a provider
+     * call. Requests that were sent in a batch share one call, and only the first of them to claim
+     * it reports it; every other request of a single call reports its own.
+     *
+     * @param future A future returned by {@link #submit}, or any other provider call
+     * @return true if the caller should record the outcome, false if another request already did
+     */
+    static boolean claimOutcome(CompletableFuture<?> future) {
+        return !(future instanceof Member member) || member.outcome.compareAndSet(false, true);
+    }
+
+    /**
+     * Sends every pending batch immediately and stops the timer thread.
+     */
+    public void shutdown() {
+        List<Batch> remaining;
+        synchronized (pending) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        scheduler.shutdownNow();
+        remaining.forEach(this::send);
+    }
+
+    private void flush(Batch batch) {
+        synchronized (pending) {
+            if (pending.get(batch.key) != batch) {
+                return;
+            }
+            pending.remove(batch.key);
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        BatchKey key = batch.key;
+
+        if (batch.messages.size() == 1) {
+            forward(singleCall.translate(key.provider, batch.messages.getFirst(), key.fromLang, key.toLang),
+                    batch.futures.getFirst());
+            return;
+        }
+
+        plugin.debug("Sending batch of " + batch.messages.size() + " messages to " + key.provider
+                + " (" + key.fromLang + " -> " + key.toLang + ")");
+
+        CompletableFuture<List<String>> call = batchCall.translate(key.provider, batch.messages, key.fromLang, key.toLang);
+        AtomicBoolean outcome = new AtomicBoolean();
+        AtomicInteger waiting = new AtomicInteger(batch.futures.size());
+        for (Member future : batch.futures) {
+            future.outcome = outcome;
+            future.whenComplete((result, throwable) -> {
+                if (future.isCancelled() && waiting.decrementAndGet() == 0) {
+                    call.cancel(true);
+                }
+            });
+        }
+
+        call.whenComplete((translations, throwable) -> {
+            if (throwable != null) {
+                batch.futures.forEach(future -> future.completeExceptionally(throwable));
+                return;
+            }
+
+            if (translations == null || translations.size() != batch.messages.size()) {
+                plugin.debug("Batch response from " + key.provider + " did not match its input, translating "
+                        + batch.messages.size() + " messages one by one");
+                for (int i = 0; i < batch.messages.size(); i++) {
+                    if (batch.futures.get(i).isDone()) {
+                        continue;
+                    }
+                    batch.futures.get(i).outcome = new AtomicBoolean();
+                    forward(singleCall.translate(key.provider, batch.messages.get(i), key.fromLang, key.toLang),
+                            batch.futures.get(i));
+                }
+                return;
+            }
+
+            for (int i = 0; i < translations.size(); i++) {
+                batch.futures.get(i).complete(translations.get(i));
+            }
+        });
+    }
+
+    private static void forward(CompletableFuture<String> source, CompletableFuture<String> target) {
+        source.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                target.completeExceptionally(throwable);
+            } else {
+                target.complete(result);
+            }
+        });
+        // A single call serves only this request, so it can be aborted along with it
+        target.whenComplete((result, throwable) -> {
+            if (target.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+    }
+
+    private record BatchKey(String provider, String fromLang, String toLang) {
+    }
+
+    private static final class Member extends CompletableFuture<String> {
+        volatile AtomicBoolean outcome = new AtomicBoolean();
+    }
+
+    private static final class Batch {
+        final BatchKey key;
+        final List<String> messages = new ArrayList<>();
+        final List<Member> futures = new ArrayList<>();
+        ScheduledFuture<?> timer;
+
+        Batch(BatchKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,26 +1,93 @@
 package net.mysterria.translator.translation;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manages caching of translation results with automatic expiry.
- * Uses a concurrent hash map for thread-safe access and scheduled cleanup.
+ * Bounded cache of translation results using a W-TinyLFU eviction policy.
+ * <p>
+ * New entries land in a small LRU admission window. When the window overflows, its oldest entry
+ * competes with the oldest entry of the main space; a {@link FrequencySketch} decides which of the
+ * two has been requested more often recently and keeps that one. The main space is a segmented LRU
+ * (probation and protected), so entries that are hit again are shielded from one-off chat spikes.
+ * <p>
+ * The cache is bounded both by entry count and by estimated memory weight, every entry carries its
+ * own expiry time, and entries are keyed by a 128-bit {@link TranslationKey} that is verified against
+ * the stored source text on every hit.
+ * <p>
+ * An optional {@link PersistentTranslationStore} sits behind the in-memory tier: misses fall through
+ * to it, disk hits are promoted back into memory, and every new translation is written through.
  */
 public class TranslationCache {
 
-    private final Map<String, CachedTranslation> cache;
-    private final ScheduledExecutorService scheduler;
-    private final int cacheExpirySeconds;
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.80;
+    private static final int EXPIRY_SCAN_LIMIT = 4;
 
-    public TranslationCache(int cacheExpirySeconds) {
-        this.cache = new ConcurrentHashMap<>();
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        this.cacheExpirySeconds = cacheExpirySeconds;
-        startCleanup();
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final ReentrantLock lock;
+    private final Map<TranslationKey, Node> data;
+    private final FrequencySketch sketch;
+    private final AccessQueue window;
+    private final AccessQueue probation;
+    private final AccessQueue protectedQueue;
+
+    private final long defaultTtlMillis;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final int windowMax;
+    private final int protectedMax;
+    private long weight;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder diskHits;
+
+    private final PersistentTranslationStore persistentStore;
+
+    /**
+     * @param cacheExpirySeconds Default time-to-live of an entry
+     * @param maxEntries         Maximum number of cached translations
+     * @param maxWeightBytes     Maximum estimated memory used by cached translations
+     */
+    public TranslationCache(int cacheExpirySeconds, int maxEntries, long maxWeightBytes) {
+        this(cacheExpirySeconds, maxEntries, maxWeightBytes, null);
+    }
+
+    /**
+     * @param cacheExpirySeconds Default time-to-live of an entry
+     * @param maxEntries         Maximum number of cached translations
+     * @param maxWeightBytes     Maximum estimated memory used by cached translations
+     * @param persistentStore    Disk tier consulted on misses, or null to keep the cache memory-only
+     */
+    public TranslationCache(int cacheExpirySeconds, int maxEntries, long maxWeightBytes,
+                            PersistentTranslationStore persistentStore) {
+        this.persistentStore = persistentStore;
+        this.lock = new ReentrantLock();
+        this.maxEntries = Math.max(maxEntries, 2);
+        this.maxWeight = Math.max(maxWeightBytes, ENTRY_OVERHEAD_BYTES * 2L);
+        this.defaultTtlMillis = cacheExpirySeconds * 1000L;
+        this.windowMax = Math.max(1, (int) (this.maxEntries * WINDOW_RATIO));
+        this.protectedMax = (int) ((this.maxEntries - windowMax) * PROTECTED_RATIO);
+
+        this.data = new HashMap<>();
+        this.sketch = new FrequencySketch(this.maxEntries);
+        this.window = new AccessQueue();
+        this.probation = new AccessQueue();
+        this.protectedQueue = new AccessQueue();
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.diskHits = new LongAdder();
     }
 
     /**
@@ -32,18 +99,54 @@ public class TranslationCache {
      * @return The cached translation, or null if not found or expired
      */
     public String get(String message, String fromLang, String toLang) {
-        String cacheKey = generateCacheKey(message, fromLang, toLang);
-        CachedTranslation cached = cache.get(cacheKey);
+        String translation = getFromMemory(message, fromLang, toLang);
+        if (translation != null || persistentStore == null) {
+            return translation;
+        }
 
-        if (cached != null && !cached.isExpired(cacheExpirySeconds)) {
-            return cached.translation();
+        translation = persistentStore.get(message, fromLang, toLang);
+        if (translation != null) {
+            diskHits.increment();
+            putInMemory(message, fromLang, toLang, translation, defaultTtlMillis);
         }
+        return translation;
+    }
+
+    private String getFromMemory(String message, String fromLang, String toLang) {
+        TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            sketch.increment(key.spread());
+            Node node = data.get(key);
+
+            if (node == null) {
+                misses.increment();
+                return null;
+            }
+
+            if (node.isExpired(now)) {
+                remove(node);
+                misses.increment();
+                return null;
+            }
+
+            if (!node.matches(message, fromLang, toLang)) {
+                misses.increment();
+                return null;
+            }
 
-        return null;
+            onHit(node);
+            hits.increment();
+            return node.translation;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Stores a translation in the cache.
+     * Stores a translation in the cache using the default time-to-live.
      *
      * @param message      The original message
      * @param fromLang     Source language code
@@ -51,51 +154,310 @@ public class TranslationCache {
      * @param translation  The translated text
      */
     public void put(String message, String fromLang, String toLang, String translation) {
-        String cacheKey = generateCacheKey(message, fromLang, toLang);
-        cache.put(cacheKey, new CachedTranslation(translation, System.currentTimeMillis()));
+        put(message, fromLang, toLang, translation, defaultTtlMillis);
+    }
+
+    /**
+     * Stores a translation in the cache with its own time-to-live.
+     *
+     * @param message      The original message
+     * @param fromLang     Source language code
+     * @param toLang       Target language code
+     * @param translation  The translated text
+     * @param ttlMillis    How long the entry stays valid
+     */
+    public void put(String message, String fromLang, String toLang, String translation, long ttlMillis) {
+        putInMemory(message, fromLang, toLang, translation, ttlMillis);
+        if (persistentStore != null) {
+            persistentStore.put(message, fromLang, toLang, translation);
+        }
+    }
+
+    private void putInMemory(String message, String fromLang, String toLang, String translation, long ttlMillis) {
+        TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        int entryWeight = weigh(message, fromLang, toLang, translation);
+
+        if (entryWeight > maxWeight) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            sketch.increment(key.spread());
+            Node node = data.get(key);
+
+            if (node != null) {
+                weight += entryWeight - node.weight;
+                node.update(message, fromLang, toLang, translation, expiresAt, entryWeight);
+                onHit(node);
+            } else {
+                node = new Node(key, message, fromLang, toLang, translation, expiresAt, entryWeight);
+                data.put(key, node);
+                window.addLast(node, WINDOW);
+                weight += entryWeight;
+            }
+
+            expireStaleHeads(System.currentTimeMillis());
+            evict();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Clears all cached translations.
      */
     public void clear() {
-        cache.clear();
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Shuts down the cache cleanup scheduler.
+     * Releases resources held by the cache, flushing the disk tier if present.
      */
     public void shutdown() {
-        scheduler.shutdown();
+        clear();
+        if (persistentStore != null) {
+            persistentStore.close();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     */
+    public Stats getStats() {
+        lock.lock();
         try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), data.size(), weight,
+                    diskHits.sum(), persistentStore != null ? persistentStore.size() : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onHit(Node node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToLast(node);
+            case PROBATION -> {
+                probation.remove(node);
+                protectedQueue.addLast(node, PROTECTED);
+                while (protectedQueue.size > protectedMax) {
+                    Node demoted = protectedQueue.pollFirst();
+                    probation.addLast(demoted, PROBATION);
+                }
             }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+            default -> protectedQueue.moveToLast(node);
         }
     }
 
-    private String generateCacheKey(String message, String fromLang, String toLang) {
-        return fromLang + ":" + toLang + ":" + message.hashCode();
+    /**
+     * Drops a few expired entries from the cold ends of the queues so stale
+     * translations do not occupy space until capacity pressure removes them.
+     */
+    private void expireStaleHeads(long now) {
+        expireStaleHead(window, now);
+        expireStaleHead(probation, now);
+        expireStaleHead(protectedQueue, now);
+    }
+
+    private void expireStaleHead(AccessQueue queue, long now) {
+        for (int i = 0; i < EXPIRY_SCAN_LIMIT; i++) {
+            Node head = queue.head;
+            if (head == null || !head.isExpired(now)) {
+                return;
+            }
+            remove(head);
+        }
+    }
+
+    private void evict() {
+        while (window.size > windowMax) {
+            Node candidate = window.pollFirst();
+            probation.addLast(candidate, PROBATION);
+        }
+
+        while (data.size() > maxEntries || weight > maxWeight) {
+            if (probation.head == null && protectedQueue.head != null) {
+                probation.addLast(protectedQueue.pollFirst(), PROBATION);
+            }
+
+            Node victim = probation.head;
+            Node candidate = probation.tail;
+
+            if (victim == null) {
+                victim = window.head;
+                if (victim == null) {
+                    return;
+                }
+                evictNode(victim);
+                continue;
+            }
+
+            if (victim == candidate) {
+                victim = protectedQueue.head;
+                if (victim == null) {
+                    evictNode(candidate);
+                    continue;
+                }
+            }
+
+            int candidateFrequency = sketch.frequency(candidate.key.spread());
+            int victimFrequency = sketch.frequency(victim.key.spread());
+            evictNode(candidateFrequency > victimFrequency ? victim : candidate);
+        }
+    }
+
+    private void evictNode(Node node) {
+        remove(node);
+        evictions.increment();
+    }
+
+    private void remove(Node node) {
+        data.remove(node.key);
+        queueOf(node).remove(node);
+        weight -= node.weight;
     }
 
-    private void startCleanup() {
-        scheduler.scheduleAtFixedRate(() -> {
-            long currentTime = System.currentTimeMillis();
-            cache.entrySet().removeIf(entry -> entry.getValue().isExpired(currentTime, cacheExpirySeconds));
-        }, cacheExpirySeconds, cacheExpirySeconds, TimeUnit.SECONDS);
+    private AccessQueue queueOf(Node node) {
+        return switch (node.queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedQueue;
+        };
     }
 
-    private record CachedTranslation(String translation, long timestamp) {
+    private static int weigh(String message, String fromLang, String toLang, String translation) {
+        int chars = message.length() + translation.length()
+                + (fromLang != null ? fromLang.length() : 0)
+                + (toLang != null ? toLang.length() : 0);
+        return ENTRY_OVERHEAD_BYTES + chars * 2;
+    }
 
-        boolean isExpired(int expirySeconds) {
-            return isExpired(System.currentTimeMillis(), expirySeconds);
+    /**
+     * Snapshot of cache counters.
+     *
+     * @param hits        Lookups that returned a translation from memory
+     * @param misses      Lookups that found nothing in memory, an expired entry, or a hash collision
+     * @param evictions   Entries removed to respect the size or memory bounds
+     * @param size        Current number of entries in memory
+     * @param weightBytes Current estimated memory weight
+     * @param diskHits    Memory misses answered by the disk tier
+     * @param diskSize    Number of translations indexed on disk
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long weightBytes,
+                        long diskHits, int diskSize) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) (hits + diskHits) / total;
+        }
+    }
+
+    private static final class Node {
+        final TranslationKey key;
+        String source;
+        String fromLang;
+        String toLang;
+        String translation;
+        long expiresAt;
+        int weight;
+
+        byte queue;
+        Node prev;
+        Node next;
+
+        Node(TranslationKey key, String source, String fromLang, String toLang,
+             String translation, long expiresAt, int weight) {
+            this.key = key;
+            update(source, fromLang, toLang, translation, expiresAt, weight);
+        }
+
+        void update(String source, String fromLang, String toLang, String translation, long expiresAt, int weight) {
+            this.source = source;
+            this.fromLang = fromLang;
+            this.toLang = toLang;
+            this.translation = translation;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+
+        boolean isExpired(long now) {
+            return now > expiresAt;
+        }
+
+        boolean matches(String message, String from, String to) {
+            return source.equals(message)
+                    && Objects.equals(fromLang, from)
+                    && Objects.equals(toLang, to);
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list ordered from least to most recently used.
+     */
+    private static final class AccessQueue {
+        Node head;
+        Node tail;
+        int size;
+
+        void addLast(Node node, byte queueId) {
+            node.queue = queueId;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node pollFirst() {
+            Node first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+
+        void moveToLast(Node node) {
+            if (node != tail) {
+                byte queueId = node.queue;
+                remove(node);
+                addLast(node, queueId);
+            }
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
         }
 
-        boolean isExpired(long currentTime, int expirySeconds) {
-            return (currentTime - timestamp) > (expirySeconds * 1000L);
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
         }
     }
 }
@@ -0,0 +1,237 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.translation.ProviderFallbackHandler.TranslationWithProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one provider call between concurrent requests for the same (message, from, to) triple.
+ * <p>
+ * The cache is only filled once a translation completes, so a burst of identical messages
+ * ("gg", "hi") would otherwise start one provider call per recipient group. Requests are keyed
+ * like the cache; the first one starts the call and later ones attach to its future until it
+ * completes. The entry is removed on success and on failure alike, after the cache or the
+ * {@link NegativeTranslationCache} has been filled, so a retry after a failure starts a fresh call
+ * once the negative entry has expired.
+ * <p>
+ * A shared call runs until the deadline of the request that started it. It is cancelled early
+ * once every request waiting for it has cancelled its future, for example because all of the
+ * message's recipients left the server.
+ */
+public class TranslationCoalescer {
+
+    private final ProviderFallbackHandler fallbackHandler;
+    private final TranslationCache cache;
+    private final NegativeTranslationCache negativeCache;
+    private final Map<TranslationKey, InFlight> inFlight;
+
+    private final LongAdder startedCalls;
+    private final LongAdder savedCalls;
+
+    public TranslationCoalescer(ProviderFallbackHandler fallbackHandler, TranslationCache cache,
+                                NegativeTranslationCache negativeCache) {
+        this.fallbackHandler = fallbackHandler;
+        this.cache = cache;
+        this.negativeCache = negativeCache;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.startedCalls = new LongAdder();
+        this.savedCalls = new LongAdder();
+    }
+
+    /**
+     * Translates a message, joining an identical call that is already running if there is one.
+     * Successful translations are stored in the cache before the future completes.
+     *
+     * @param message  The message to translate
+     * @param fromLang Source language code
+     * @param toLang   Target language code
+     * @param deadline Deadline of the message
+     * @return Future with the translation and the provider that produced it; each caller gets
+     * its own copy, so cancelling it does not affect other waiters
+     */
+    public CompletableFuture<TranslationWithProvider> translate(String message, String fromLang, String toLang,
+                                                                MessageDeadline deadline) {
+        TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+        InFlight call = new InFlight(message, fromLang, toLang, new CompletableFuture<>(), new SharedCall(deadline.fork()));
+
+        InFlight existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            if (existing.joinable(message, fromLang, toLang)) {
+                savedCalls.increment();
+                return existing.attach();
+            }
+            return fallbackHandler.translateWithFallback(message, fromLang, toLang, deadline);
+        }
+
+        startedCalls.increment();
+        CompletableFuture<TranslationWithProvider> waiter = call.attach();
+        CompletableFuture<TranslationWithProvider> providerCall;
+        try {
+            providerCall = fallbackHandler.translateWithFallback(message, fromLang, toLang, call.shared.deadline);
+        } catch (RuntimeException e) {
+            providerCall = CompletableFuture.failedFuture(e);
+        }
+
+        providerCall.whenComplete((result, throwable) -> {
+            if (throwable == null && result != null) {
+                remember(message, fromLang, toLang, result, call.shared.deadline);
+            }
+            inFlight.remove(key, call);
+
+            if (throwable != null) {
+                call.future.completeExceptionally(throwable);
+            } else {
+                call.future.complete(result);
+            }
+        });
+
+        return waiter;
+    }
+
+    /**
+     * Translates a message into several languages. Languages with an identical call already running
+     * join it; the remaining ones are requested together with one multi-target provider call.
+     *
+     * @param message  The message to translate
+     * @param fromLang Source language code
+     * @param toLangs  Target language codes
+     * @param deadline Deadline of the message
+     * @return One future per target language, each a private copy like {@link #translate}
+     */
+    public Map<String, CompletableFuture<TranslationWithProvider>> translateMany(String message, String fromLang, Set<String> toLangs,
+                                                                                 MessageDeadline deadline) {
+        Map<String, CompletableFuture<TranslationWithProvider>> results = new HashMap<>();
+        Map<String, InFlight> owned = new HashMap<>();
+        SharedCall shared = new SharedCall(deadline.fork());
+
+        for (String toLang : toLangs) {
+            TranslationKey key = TranslationKey.of(message, fromLang, toLang);
+            InFlight call = new InFlight(message, fromLang, toLang, new CompletableFuture<>(), shared);
+            InFlight existing = inFlight.putIfAbsent(key, call);
+
+            if (existing == null) {
+                owned.put(toLang, call);
+                results.put(toLang, call.attach());
+            } else if (existing.joinable(message, fromLang, toLang)) {
+                savedCalls.increment();
+                results.put(toLang, existing.attach());
+            } else {
+                results.put(toLang, fallbackHandler.translateWithFallback(message, fromLang, toLang, deadline));
+            }
+        }
+
+        if (owned.isEmpty()) {
+            return results;
+        }
+
+        startedCalls.increment();
+        CompletableFuture<Map<String, TranslationWithProvider>> providerCall;
+        try {
+            providerCall = fallbackHandler.translateToManyWithFallback(message, fromLang, owned.keySet(), shared.deadline);
+        } catch (RuntimeException e) {
+            providerCall = CompletableFuture.failedFuture(e);
+        }
+
+        providerCall.whenComplete((translations, throwable) -> owned.forEach((toLang, call) -> {
+            TranslationWithProvider result = translations != null ? translations.get(toLang) : null;
+            if (throwable == null && result == null) {
+                result = TranslationWithProvider.failed();
+            }
+            if (result != null) {
+                remember(message, fromLang, toLang, result, shared.deadline);
+            }
+            inFlight.remove(TranslationKey.of(message, fromLang, toLang), call);
+
+            if (throwable != null) {
+                call.future.completeExceptionally(throwable);
+            } else {
+                call.future.complete(result);
+            }
+        }));
+
+        return results;
+    }
+
+    /**
+     * Stores a finished call in the cache or, if it failed or came back unchanged, in the negative
+     * cache. Calls given up because of their deadline say nothing about the text and are not
+     * remembered. A translation that dropped or invented an {@link EntityMask} token cannot be
+     * restored, so it is handed to the waiting callers but kept out of the cache.
+     */
+    private void remember(String message, String fromLang, String toLang, TranslationWithProvider result,
+                          MessageDeadline deadline) {
+        String translation = result.translation();
+        if (translation == null) {
+            if (!deadline.isExpired()) {
+                negativeCache.add(message, fromLang, toLang);
+            }
+        } else if (translation.strip().equalsIgnoreCase(message.strip())) {
+            negativeCache.add(message, fromLang, toLang);
+        } else if (EntityMask.keepsTokens(message, translation)) {
+            cache.put(message, fromLang, toLang, translation);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the coalescing counters.
+     */
+    public Stats getStats() {
+        return new Stats(startedCalls.sum(), savedCalls.sum(), inFlight.size());
+    }
+
+    /**
+     * Snapshot of coalescing counters.
+     *
+     * @param startedCalls Provider calls actually started
+     * @param savedCalls   Requests that joined an identical call instead of starting one
+     * @param inFlight     Calls currently running
+     */
+    public record Stats(long startedCalls, long savedCalls, int inFlight) {
+    }
+
+    private record InFlight(String message, String fromLang, String toLang,
+                            CompletableFuture<TranslationWithProvider> future, SharedCall shared) {
+
+        boolean joinable(String otherMessage, String otherFrom, String otherTo) {
+            return message.equals(otherMessage)
+                    && Objects.equals(fromLang, otherFrom)
+                    && Objects.equals(toLang, otherTo)
+                    && !shared.deadline.isExpired();
+        }
+
+        CompletableFuture<TranslationWithProvider> attach() {
+            return shared.attach(future);
+        }
+    }
+
+    /**
+     * One provider call, possibly serving several languages, and the number of requests still
+     * waiting for it.
+     */
+    private static final class SharedCall {
+        final MessageDeadline deadline;
+        final AtomicInteger waiters = new AtomicInteger();
+
+        SharedCall(MessageDeadline deadline) {
+            this.deadline = deadline;
+        }
+
+        CompletableFuture<TranslationWithProvider> attach(CompletableFuture<TranslationWithProvider> future) {
+            waiters.incrementAndGet();
+            CompletableFuture<TranslationWithProvider> copy = future.copy();
+            copy.whenComplete((result, throwable) -> {
+                if (copy.isCancelled() && waiters.decrementAndGet() == 0) {
+                    deadline.cancel();
+                }
+            });
+            return copy;
+        }
+    }
+}
@@ -1,39 +1,71 @@
 package net.mysterria.translator.translation;
 
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.engine.gemini.GeminiClient;
 import net.mysterria.translator.engine.google.GoogleClient;
 import net.mysterria.translator.engine.libretranslate.LibreTranslateClient;
 import net.mysterria.translator.engine.ollama.OllamaClient;
 import net.mysterria.translator.engine.openai.OpenAIClient;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Executes translations using the configured provider clients.
  * Responsible for routing translation requests to the appropriate provider.
+ * Requests go through a {@link TranslationBatcher} when batching is enabled, so messages queued
+ * for the same provider and language pair share one round trip.
+ * Before a request is handed to a provider client, the provider's request budget is checked, so
+ * a provider that is out of budget is skipped right away instead of queueing on its executor.
+ * Gemini prompts include the chat context only while the {@link LoadGovernor} allows it.
  */
 public class TranslationExecutor {
 
     private final MysterriaTranslator plugin;
+    private final RateLimitManager suspensionManager;
+    private final LoadGovernor governor;
     private final OllamaClient ollamaClient;
     private final LibreTranslateClient libreTranslateClient;
     private final GeminiClient geminiClient;
     private final OpenAIClient openAIClient;
     private final GoogleClient googleClient;
+    private final TranslationBatcher batcher;
+    private final boolean multiTargetEnabled;
 
     public TranslationExecutor(MysterriaTranslator plugin,
+                               RateLimitManager suspensionManager,
+                               LoadGovernor governor,
                                OllamaClient ollamaClient,
                                LibreTranslateClient libreTranslateClient,
                                GeminiClient geminiClient,
                                OpenAIClient openAIClient,
                                GoogleClient googleClient) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
+        this.governor = governor;
         this.ollamaClient = ollamaClient;
         this.libreTranslateClient = libreTranslateClient;
         this.geminiClient = geminiClient;
         this.openAIClient = openAIClient;
         this.googleClient = googleClient;
+
+        this.multiTargetEnabled = plugin.getConfig().getBoolean("translation.multiTarget.enabled", true);
+
+        if (plugin.getConfig().getBoolean("translation.batching.enabled", true)) {
+            long windowMillis = plugin.getConfig().getLong("translation.batching.windowMillis", 25);
+            int maxBatchSize = plugin.getConfig().getInt("translation.batching.maxBatchSize", 8);
+            this.batcher = new TranslationBatcher(plugin, windowMillis, maxBatchSize,
+                    this::executeBatch, this::executeSingle);
+        } else {
+            this.batcher = null;
+        }
     }
 
     /**
@@ -47,6 +79,172 @@ public class TranslationExecutor {
      * @return CompletableFuture with the translation, or null if provider unavailable
      */
     public CompletableFuture<String> execute(String provider, String message, String fromLang, String toLang) {
+        if (batcher != null && supportsBatching(provider)) {
+            return batcher.submit(provider.toLowerCase(), message, fromLang, toLang);
+        }
+        return executeSingle(provider, message, fromLang, toLang);
+    }
+
+    /**
+     * Translates one message into several languages with a single call to the provider.
+     * Only the LLM providers support this.
+     *
+     * @param provider The provider name
+     * @param message  The message to translate
+     * @param fromLang Source language code
+     * @param toLangs  Target language codes
+     * @return CompletableFuture with translations keyed by language code, or null if the provider
+     * cannot translate into several languages at once
+     */
+    public CompletableFuture<Map<String, String>> executeMulti(String provider, String message, String fromLang, List<String> toLangs) {
+        if (!multiTargetEnabled || !supportsMultiTarget(provider)) {
+            return null;
+        }
+        if (!suspensionManager.hasBudget(provider)) {
+            return overBudget(provider);
+        }
+
+        return switch (provider.toLowerCase()) {
+            case "gemini" -> geminiClient.translateMultiAsync(message, fromLang, toLangs, includeContext());
+            case "openai" -> openAIClient.translateMultiAsync(message, fromLang, toLangs);
+            default -> ollamaClient.translateMultiAsync(message, fromLang, toLangs);
+        };
+    }
+
+    /**
+     * Returns how long a provider's client lets one request take before it gives up, from the
+     * provider's {@code requestTimeout} or {@code readTimeout} setting.
+     *
+     * @param plugin   The plugin instance
+     * @param provider The provider name
+     * @return The timeout in milliseconds
+     */
+    public static long requestTimeoutMillis(MysterriaTranslator plugin, String provider) {
+        long seconds = switch (provider.toLowerCase()) {
+            case "libretranslate" -> plugin.getConfig().getInt("translation.libretranslate.readTimeout", 10);
+            case "gemini" -> plugin.getConfig().getInt("translation.gemini.readTimeout", 15);
+            case "openai" -> plugin.getConfig().getInt("translation.openai.readTimeout", 30);
+            case "google" -> plugin.getConfig().getInt("translation.google.readTimeout", 10);
+            default -> plugin.getConfig().getInt("translation.ollama.requestTimeout", 90);
+        };
+        return seconds * 1000;
+    }
+
+    /**
+     * Returns request executor counters for every initialized provider client.
+     */
+    public List<EngineExecutor.Stats> getEngineStats() {
+        List<EngineExecutor.Stats> stats = new ArrayList<>();
+        if (ollamaClient != null) stats.add(ollamaClient.getExecutorStats());
+        if (libreTranslateClient != null) stats.add(libreTranslateClient.getExecutorStats());
+        if (geminiClient != null) stats.add(geminiClient.getExecutorStats());
+        if (openAIClient != null) stats.add(openAIClient.getExecutorStats());
+        if (googleClient != null) stats.add(googleClient.getExecutorStats());
+        return stats;
+    }
+
+    /**
+     * Returns API key counters for every initialized provider client that uses keys, keyed by
+     * provider name.
+     */
+    public Map<String, List<CredentialPool.Stats>> getCredentialStats() {
+        Map<String, List<CredentialPool.Stats>> stats = new LinkedHashMap<>();
+        if (ollamaClient != null) stats.put("ollama", ollamaClient.getCredentialStats());
+        if (libreTranslateClient != null) stats.put("libretranslate", libreTranslateClient.getCredentialStats());
+        if (geminiClient != null) stats.put("gemini", geminiClient.getCredentialStats());
+        if (openAIClient != null) stats.put("openai", openAIClient.getCredentialStats());
+        return stats;
+    }
+
+    /**
+     * Returns streaming counters for every initialized provider client that streams its answers.
+     */
+    public List<StreamCutoff.Stats> getStreamingStats() {
+        List<StreamCutoff.Stats> stats = new ArrayList<>();
+        if (ollamaClient != null) stats.add(ollamaClient.getStreamingStats());
+        if (geminiClient != null) stats.add(geminiClient.getStreamingStats());
+        if (openAIClient != null) stats.add(openAIClient.getStreamingStats());
+        return stats;
+    }
+
+    /**
+     * Opens connections to the given providers ahead of their first translation.
+     *
+     * @param providers Names of the enabled providers
+     */
+    public void warmUp(List<String> providers) {
+        for (String provider : providers) {
+            switch (provider.toLowerCase()) {
+                case "ollama":
+                    if (ollamaClient != null) ollamaClient.warmUp();
+                    break;
+                case "libretranslate":
+                    if (libreTranslateClient != null) libreTranslateClient.warmUp();
+                    break;
+                case "gemini":
+                    if (geminiClient != null) geminiClient.warmUp();
+                    break;
+                case "openai":
+                    if (openAIClient != null) openAIClient.warmUp();
+                    break;
+                case "google":
+                    if (googleClient != null) googleClient.warmUp();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Flushes pending batches and stops the provider clients from accepting new requests.
+     */
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        if (ollamaClient != null) ollamaClient.shutdown();
+        if (libreTranslateClient != null) libreTranslateClient.shutdown();
+        if (geminiClient != null) geminiClient.shutdown();
+        if (openAIClient != null) openAIClient.shutdown();
+        if (googleClient != null) googleClient.shutdown();
+    }
+
+    private boolean supportsBatching(String provider) {
+        return switch (provider.toLowerCase()) {
+            case "ollama" -> ollamaClient != null;
+            case "openai" -> openAIClient != null;
+            case "gemini" -> geminiClient != null;
+            case "libretranslate" -> libreTranslateClient != null;
+            case "google" -> googleClient != null;
+            default -> false;
+        };
+    }
+
+    private boolean supportsMultiTarget(String provider) {
+        return switch (provider.toLowerCase()) {
+            case "gemini" -> geminiClient != null;
+            case "openai" -> openAIClient != null;
+            case "ollama" -> ollamaClient != null;
+            default -> false;
+        };
+    }
+
+    private CompletableFuture<List<String>> executeBatch(String provider, List<String> messages, String fromLang, String toLang) {
+        if (!suspensionManager.hasBudget(provider)) {
+            return overBudget(provider);
+        }
+        return switch (provider) {
+            case "gemini" -> geminiClient.translateBatchAsync(messages, fromLang, toLang, includeContext());
+            case "openai" -> openAIClient.translateBatchAsync(messages, fromLang, toLang);
+            case "libretranslate" -> libreTranslateClient.translateBatchAsync(messages, fromLang, toLang);
+            case "google" -> googleClient.translateBatchAsync(messages, fromLang, toLang);
+            default -> ollamaClient.translateBatchAsync(messages, fromLang, toLang);
+        };
+    }
+
+    private CompletableFuture<String> executeSingle(String provider, String message, String fromLang, String toLang) {
+        if (!suspensionManager.hasBudget(provider)) {
+            return overBudget(provider);
+        }
         switch (provider.toLowerCase()) {
             case "libretranslate":
                 if (libreTranslateClient == null) {
@@ -60,8 +258,7 @@ public class TranslationExecutor {
                     plugin.debug("Gemini client not initialized");
                     return CompletableFuture.completedFuture(null);
                 }
-                boolean includeContext = plugin.getConfig().getBoolean("translation.gemini.includeContext", true);
-                if (includeContext) {
+                if (includeContext()) {
                     return geminiClient.translateAsyncWithContext(message, fromLang, toLang);
                 } else {
                     return geminiClient.translateAsync(message, fromLang, toLang);
@@ -90,4 +287,12 @@ public class TranslationExecutor {
                 return ollamaClient.translateAsync(message, fromLang, toLang);
         }
     }
+
+    private boolean includeContext() {
+        return plugin.getConfig().getBoolean("translation.gemini.includeContext", true) && governor.allowsContext();
+    }
+
+    private static <T> CompletableFuture<T> overBudget(String provider) {
+        return CompletableFuture.failedFuture(new RejectedExecutionException(provider + " is over its request budget"));
+    }
 }
@@ -0,0 +1,123 @@
+package net.mysterria.translator.translation;
+
+/**
+ * Compact 128-bit content key for a (message, source language, target language) triple.
+ * Computed with MurmurHash3 (x64, 128-bit variant) over the UTF-16 code units of the triple,
+ * so two distinct messages practically never share a key. Callers that need certainty still
+ * verify the stored source text on lookup.
+ *
+ * @param high Upper 64 bits of the hash
+ * @param low  Lower 64 bits of the hash
+ */
+public record TranslationKey(long high, long low) {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * Builds the key for a translation request.
+     *
+     * @param message  The original message
+     * @param fromLang Source language code (may be null or "auto")
+     * @param toLang   Target language code
+     * @return The content key
+     */
+    public static TranslationKey of(String message, String fromLang, String toLang) {
+        String material = String.valueOf(fromLang) + SEPARATOR + toLang + SEPARATOR + message;
+        return hash(material);
+    }
+
+    /**
+     * Returns a well-mixed 32-bit hash derived from the key, for use in frequency sketches.
+     */
+    public int spread() {
+        long h = high ^ low;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static TranslationKey hash(CharSequence data) {
+        int length = data.length();
+        int blocks = length / 8;
+        long h1 = 0;
+        long h2 = 0;
+
+        for (int i = 0; i < blocks; i++) {
+            int offset = i * 8;
+            long k1 = packChars(data, offset);
+            long k2 = packChars(data, offset + 4);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 8;
+        int remaining = length - tail;
+        for (int i = remaining - 1; i >= 4; i--) {
+            k2 |= (long) data.charAt(tail + i) << ((i - 4) * 16);
+        }
+        for (int i = Math.min(remaining, 4) - 1; i >= 0; i--) {
+            k1 |= (long) data.charAt(tail + i) << (i * 16);
+        }
+        if (remaining > 4) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (remaining > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        long byteLength = length * 2L;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new TranslationKey(h1, h2);
+    }
+
+    private static long packChars(CharSequence data, int offset) {
+        return (long) data.charAt(offset)
+                | (long) data.charAt(offset + 1) << 16
+                | (long) data.charAt(offset + 2) << 32
+                | (long) data.charAt(offset + 3) << 48;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -1,39 +1,74 @@
 package net.mysterria.translator.translation;
 
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.engine.EngineExecutor;
+import net.mysterria.translator.engine.StreamCutoff;
 import net.mysterria.translator.engine.gemini.GeminiClient;
 import net.mysterria.translator.engine.google.GoogleClient;
 import net.mysterria.translator.engine.libretranslate.LibreTranslateClient;
 import net.mysterria.translator.engine.ollama.OllamaClient;
 import net.mysterria.translator.engine.openai.OpenAIClient;
+import net.mysterria.translator.translation.ProviderFallbackHandler.TranslationWithProvider;
 import net.mysterria.translator.util.LanguageDetector;
+import net.mysterria.translator.util.MessageClassifier;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Orchestrates translation requests by coordinating between specialized components.
  * Delegates caching, rate limiting, and provider fallback to dedicated classes.
+ * <p>
+ * Every request carries the {@link MessageDeadline} of its chat message; once it passes, the
+ * recipients still waiting get the original text. A translation whose recipients have all left
+ * the server is cancelled through {@link #cancelPending}. Provider calls are started by a
+ * {@link TranslationScheduler}, which lets private messages go first and keeps one sender from
+ * crowding out the others when more messages arrive than the providers can take. Under load,
+ * a {@link LoadGovernor} steps translation down through its degradation tiers.
+ * <p>
+ * Player names, URLs, commands, coordinates and emoji are masked with an {@link EntityMask}
+ * before the cache lookup and the provider call, and restored in the translation. Messages the
+ * {@link MessageClassifier} finds untranslatable, and texts in the {@link NegativeTranslationCache},
+ * never reach a provider. All of this is done once per chat message by {@link #analyze}; the
+ * listeners sort recipients with the resulting {@link MessageAnalysis} and pass it on here.
  */
 public class TranslationManager {
 
     private final MysterriaTranslator plugin;
     private final TranslationCache cache;
+    private final NegativeTranslationCache negativeCache;
     private final PlayerRateLimiter rateLimiter;
+    private final TranslationExecutor executor;
     private final ProviderFallbackHandler fallbackHandler;
+    private final TranslationCoalescer coalescer;
+    private final TranslationScheduler scheduler;
+    private final LoadGovernor governor;
+    private final RateLimitManager suspensionManager;
     private final List<String> providers;
     private final int minMessageLength;
+    private final boolean entityMasking;
+    private final long messageDeadlineMillis;
+    private final Map<UUID, Set<PendingTranslation>> pendingByPlayer;
 
     public TranslationManager(MysterriaTranslator plugin, RateLimitManager suspensionManager,
                               OllamaClient ollamaClient, LibreTranslateClient libreTranslateClient,
                               GeminiClient geminiClient, OpenAIClient openAIClient, GoogleClient googleClient) {
         this.plugin = plugin;
+        this.suspensionManager = suspensionManager;
 
         String providerConfig = plugin.getConfig().getString("translation.provider", "ollama");
         this.providers = Arrays.stream(providerConfig.split(","))
@@ -43,30 +78,106 @@ public class TranslationManager {
                 .collect(Collectors.toList());
 
         int cacheExpirySeconds = plugin.getConfig().getInt("translation.cacheExpirySeconds", 30);
+        int cacheMaxEntries = plugin.getConfig().getInt("translation.cacheMaxEntries", 10000);
+        int cacheMaxMemoryKb = plugin.getConfig().getInt("translation.cacheMaxMemoryKb", 16384);
         int rateLimitMessages = plugin.getConfig().getInt("translation.rateLimitMessages", 2);
         int rateLimitWindowSeconds = plugin.getConfig().getInt("translation.rateLimitWindowSeconds", 10);
         int maxRetries = plugin.getConfig().getInt("translation.maxRetries", 2);
         this.minMessageLength = plugin.getConfig().getInt("translation.minMessageLength", 3);
-
-        this.cache = new TranslationCache(cacheExpirySeconds);
+        this.entityMasking = plugin.getConfig().getBoolean("translation.entityMasking.enabled", true);
+        this.messageDeadlineMillis = plugin.getConfig().getLong("translation.messageDeadlineMillis", 0);
+        this.pendingByPlayer = new ConcurrentHashMap<>();
+
+        this.cache = new TranslationCache(cacheExpirySeconds, cacheMaxEntries, cacheMaxMemoryKb * 1024L,
+                createPersistentStore());
+        this.negativeCache = new NegativeTranslationCache(
+                plugin.getConfig().getBoolean("translation.negativeCache.enabled", true)
+                        ? plugin.getConfig().getInt("translation.negativeCache.ttlSeconds", 60) * 1000L : 0,
+                plugin.getConfig().getInt("translation.negativeCache.maxEntries", 4096));
         this.rateLimiter = new PlayerRateLimiter(rateLimitMessages, rateLimitWindowSeconds);
 
-        TranslationExecutor executor = new TranslationExecutor(plugin, ollamaClient, libreTranslateClient,
+        if (plugin.getConfig().getBoolean("translation.scheduler.enabled", true)) {
+            this.scheduler = new TranslationScheduler(plugin,
+                    plugin.getConfig().getInt("translation.scheduler.maxConcurrent", 16),
+                    plugin.getConfig().getInt("translation.scheduler.maxQueued", 256));
+        } else {
+            this.scheduler = null;
+        }
+        TranslationScheduler queue = scheduler;
+        this.governor = new LoadGovernor(plugin, () -> queue != null ? queue.getQueued() : 0);
+
+        this.executor = new TranslationExecutor(plugin, suspensionManager, governor, ollamaClient, libreTranslateClient,
                 geminiClient, openAIClient, googleClient);
-        this.fallbackHandler = new ProviderFallbackHandler(plugin, suspensionManager, executor,
+        this.fallbackHandler = new ProviderFallbackHandler(plugin, suspensionManager, executor, governor,
                 providers, maxRetries);
+        this.coalescer = new TranslationCoalescer(fallbackHandler, cache, negativeCache);
+
+        if (plugin.getConfig().getBoolean("translation.http.prewarm", true)) {
+            executor.warmUp(providers);
+        }
+    }
+
+    private PersistentTranslationStore createPersistentStore() {
+        if (!plugin.getConfig().getBoolean("translation.persistentCache.enabled", true)) {
+            return null;
+        }
+
+        int ttlHours = plugin.getConfig().getInt("translation.persistentCache.ttlHours", 168);
+        int segmentSizeMb = plugin.getConfig().getInt("translation.persistentCache.segmentSizeMb", 8);
+        int maxSegments = plugin.getConfig().getInt("translation.persistentCache.maxSegments", 8);
+
+        PersistentTranslationStore store = new PersistentTranslationStore(plugin,
+                new File(plugin.getDataFolder(), "cache"), segmentSizeMb * 1024 * 1024, maxSegments,
+                ttlHours * 3600_000L);
+        store.warmAsync();
+        return store;
+    }
+
+    /**
+     * Creates the deadline of a chat message that is about to be translated.
+     */
+    public MessageDeadline newDeadline() {
+        return MessageDeadline.after(messageDeadlineMillis);
+    }
+
+    /**
+     * Works out what a chat message needs for translation: masks its entities, classifies it and
+     * detects its language. Call it once per message and pass the result to every recipient check
+     * and translation of that message.
+     *
+     * @param message The message as it was sent
+     */
+    public MessageAnalysis analyze(String message) {
+        EntityMask mask = mask(message);
+        String untranslatable = MessageClassifier.untranslatableReason(mask.text());
+        LanguageDetector.DetectedLanguage sourceLang = untranslatable == null
+                ? LanguageDetector.detectLanguage(mask.text()) : LanguageDetector.DetectedLanguage.UNKNOWN;
+        return new MessageAnalysis(message, mask, sourceLang, untranslatable);
     }
 
-    public CompletableFuture<TranslationResult> translateForPlayer(String message, Player player) {
-        if (message.length() < minMessageLength) {
+    public CompletableFuture<TranslationResult> translateForPlayer(MessageAnalysis analysis, Player player, UUID senderId,
+                                                                  TranslationPriority priority, MessageDeadline deadline) {
+        String message = analysis.message();
+        if (!governor.allows(priority)) {
+            return CompletableFuture.completedFuture(
+                    TranslationResult.noTranslation(message, "Translation paused under load")
+            );
+        }
+
+        if (message.length() < governor.minMessageLength(minMessageLength)) {
             return CompletableFuture.completedFuture(
                     TranslationResult.noTranslation(message, "Message too short")
             );
         }
 
-        String playerLocale = player.locale().toString().toLowerCase();
+        if (analysis.untranslatableReason() != null) {
+            return CompletableFuture.completedFuture(
+                    TranslationResult.noTranslation(message, analysis.untranslatableReason())
+            );
+        }
 
-        if (!LanguageDetector.needsTranslation(message, playerLocale)) {
+        String targetLang = MessageAnalysis.targetLanguage(player);
+        if (!analysis.needsTranslation(targetLang)) {
             return CompletableFuture.completedFuture(
                     TranslationResult.noTranslation(message, "No translation needed")
             );
@@ -78,36 +189,61 @@ public class TranslationManager {
             );
         }
 
-        String targetLang = LanguageDetector.getTargetLanguage(playerLocale);
+        EntityMask mask = analysis.mask();
+        String text = analysis.text();
+        String sourceLangCode = analysis.sourceLanguage().getLangCode();
+        String sourceLangDisplay = analysis.sourceLanguage().getDisplayName();
 
-        LanguageDetector.DetectedLanguage sourceLang = LanguageDetector.detectLanguage(message);
-
-        String sourceLangCode = sourceLang.getLangCode();
-        String sourceLangDisplay = sourceLang.getDisplayName();
-
-        String cached = cache.get(message, sourceLangCode, targetLang);
+        String cached = mask.restore(cache.get(text, sourceLangCode, targetLang));
         if (cached != null) {
             return CompletableFuture.completedFuture(
                     TranslationResult.success(cached, message, sourceLangDisplay, getLanguageDisplayName(targetLang))
             );
         }
 
+        if (negativeCache.contains(text, sourceLangCode, targetLang)) {
+            return CompletableFuture.completedFuture(
+                    TranslationResult.noTranslation(message, "Recently untranslatable")
+            );
+        }
+
         rateLimiter.recordUsage(player.getUniqueId());
 
-        return fallbackHandler.translateWithFallback(message, sourceLangCode, targetLang)
+        CompletableFuture<TranslationWithProvider> translation = schedule(Set.of(targetLang), senderId, priority, deadline,
+                wanted -> Map.of(targetLang, coalescer.translate(text, sourceLangCode, targetLang, deadline)))
+                .get(targetLang);
+
+        return awaitTranslation(message, translation, Set.of(player), deadline)
                 .thenApply(result -> {
-                    if (result.translation() != null) {
-                        cache.put(message, sourceLangCode, targetLang, result.translation());
-                        plugin.debug("[" + result.providerName().toUpperCase() + "] Translation result: \"" + message + "\" -> \"" + result.translation() + "\"");
-                        return TranslationResult.success(result.translation(), message, sourceLangDisplay, getLanguageDisplayName(targetLang));
+                    String translated = restore(mask, result.translation());
+                    if (translated != null) {
+                        plugin.debug("[" + result.providerName().toUpperCase() + "] Translation result: \"" + message + "\" -> \"" + translated + "\"");
+                        return TranslationResult.success(translated, message, sourceLangDisplay, getLanguageDisplayName(targetLang));
                     } else {
                         return TranslationResult.failed(message, "Translation service unavailable");
                     }
                 });
     }
 
-    public CompletableFuture<Map<String, TranslationResult>> translateForMultiplePlayers(String message, Set<Player> players) {
-        if (message.length() < minMessageLength) {
+    /**
+     * Translates a message for several players at once. Players are grouped by target language
+     * first, so the language check and the cache lookups are done once per group rather than once
+     * per player.
+     */
+    public CompletableFuture<Map<String, TranslationResult>> translateForMultiplePlayers(MessageAnalysis analysis, Set<Player> players,
+                                                                                       UUID senderId, TranslationPriority priority,
+                                                                                       MessageDeadline deadline) {
+        String message = analysis.message();
+        if (!governor.allows(priority)) {
+            Map<String, TranslationResult> results = new ConcurrentHashMap<>();
+            for (Player player : players) {
+                results.put(player.getUniqueId().toString(),
+                        TranslationResult.noTranslation(message, "Translation paused under load"));
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+
+        if (message.length() < governor.minMessageLength(minMessageLength)) {
             Map<String, TranslationResult> results = new ConcurrentHashMap<>();
             for (Player player : players) {
                 results.put(player.getUniqueId().toString(),
@@ -116,67 +252,85 @@ public class TranslationManager {
             return CompletableFuture.completedFuture(results);
         }
 
+        if (analysis.untranslatableReason() != null) {
+            Map<String, TranslationResult> results = new ConcurrentHashMap<>();
+            for (Player player : players) {
+                results.put(player.getUniqueId().toString(),
+                        TranslationResult.noTranslation(message, analysis.untranslatableReason()));
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+
+        EntityMask mask = analysis.mask();
+        String text = analysis.text();
         String sourceLangCode;
         String sourceLangDisplay;
         if (providers.contains("gemini")) {
             sourceLangCode = "auto";
             sourceLangDisplay = "Auto-detected";
         } else {
-            LanguageDetector.DetectedLanguage sourceLang = LanguageDetector.detectLanguage(message);
-            sourceLangCode = sourceLang.getLangCode();
-            sourceLangDisplay = sourceLang.getDisplayName();
+            sourceLangCode = analysis.sourceLanguage().getLangCode();
+            sourceLangDisplay = analysis.sourceLanguage().getDisplayName();
         }
-        Map<String, Set<Player>> playersByTargetLang = new ConcurrentHashMap<>();
-        Map<String, TranslationResult> results = new ConcurrentHashMap<>();
-
 
+        Map<String, List<Player>> recipientsByTargetLang = new HashMap<>();
         for (Player player : players) {
-            String playerLocale = player.locale().toString().toLowerCase();
+            recipientsByTargetLang.computeIfAbsent(MessageAnalysis.targetLanguage(player), k -> new ArrayList<>()).add(player);
+        }
 
-            if (!LanguageDetector.needsTranslation(message, playerLocale)) {
-                results.put(player.getUniqueId().toString(),
-                        TranslationResult.noTranslation(message, "No translation needed"));
-                continue;
-            }
+        Map<String, Set<Player>> playersByTargetLang = new ConcurrentHashMap<>();
+        Map<String, TranslationResult> results = new ConcurrentHashMap<>();
 
-            if (!rateLimiter.canTranslate(player.getUniqueId())) {
-                results.put(player.getUniqueId().toString(),
-                        TranslationResult.rateLimited(message));
-                continue;
+        recipientsByTargetLang.forEach((targetLang, recipients) -> {
+            if (!analysis.needsTranslation(targetLang)) {
+                for (Player player : recipients) {
+                    results.put(player.getUniqueId().toString(),
+                            TranslationResult.noTranslation(message, "No translation needed"));
+                }
+                return;
             }
 
-            String targetLang = LanguageDetector.getTargetLanguage(playerLocale);
-            String cached = cache.get(message, sourceLangCode, targetLang);
-
-            if (cached != null) {
-                results.put(player.getUniqueId().toString(),
-                        TranslationResult.success(cached, message, sourceLangDisplay, getLanguageDisplayName(targetLang)));
-                continue;
+            String cached = mask.restore(cache.get(text, sourceLangCode, targetLang));
+            boolean untranslatable = cached == null && negativeCache.contains(text, sourceLangCode, targetLang);
+
+            for (Player player : recipients) {
+                if (!rateLimiter.canTranslate(player.getUniqueId())) {
+                    results.put(player.getUniqueId().toString(),
+                            TranslationResult.rateLimited(message));
+                } else if (cached != null) {
+                    results.put(player.getUniqueId().toString(),
+                            TranslationResult.success(cached, message, sourceLangDisplay, getLanguageDisplayName(targetLang)));
+                } else if (untranslatable) {
+                    results.put(player.getUniqueId().toString(),
+                            TranslationResult.noTranslation(message, "Recently untranslatable"));
+                } else {
+                    playersByTargetLang.computeIfAbsent(targetLang, k -> ConcurrentHashMap.newKeySet()).add(player);
+                    rateLimiter.recordUsage(player.getUniqueId());
+                }
             }
-
-            playersByTargetLang.computeIfAbsent(targetLang, k -> ConcurrentHashMap.newKeySet()).add(player);
-            rateLimiter.recordUsage(player.getUniqueId());
-        }
-
+        });
 
         if (playersByTargetLang.isEmpty()) {
             return CompletableFuture.completedFuture(results);
         }
 
+        Map<String, CompletableFuture<TranslationWithProvider>> translations = schedule(playersByTargetLang.keySet(),
+                senderId, priority, deadline, wanted -> coalescer.translateMany(text, sourceLangCode, wanted, deadline));
+
         CompletableFuture<Void> allTranslations = CompletableFuture.allOf(
                 playersByTargetLang.entrySet().stream().map(entry -> {
                     String targetLang = entry.getKey();
                     Set<Player> playersForLang = entry.getValue();
 
-                    return fallbackHandler.translateWithFallback(message, sourceLangCode, targetLang)
+                    return awaitTranslation(message, translations.get(targetLang), playersForLang, deadline)
                             .thenAccept(result -> {
-                                if (result.translation() != null) {
-                                    cache.put(message, sourceLangCode, targetLang, result.translation());
-                                    plugin.debug("[" + result.providerName().toUpperCase() + "] Translation result: \"" + message + "\" -> \"" + result.translation() + "\"");
+                                String translated = restore(mask, result.translation());
+                                if (translated != null) {
+                                    plugin.debug("[" + result.providerName().toUpperCase() + "] Translation result: \"" + message + "\" -> \"" + translated + "\"");
 
                                     for (Player player : playersForLang) {
                                         results.put(player.getUniqueId().toString(),
-                                                TranslationResult.success(result.translation(), message, sourceLangDisplay, getLanguageDisplayName(targetLang)));
+                                                TranslationResult.success(translated, message, sourceLangDisplay, getLanguageDisplayName(targetLang)));
                                     }
                                 } else {
                                     for (Player player : playersForLang) {
@@ -191,6 +345,151 @@ public class TranslationManager {
         return allTranslations.thenApply(v -> results);
     }
 
+    private EntityMask mask(String message) {
+        if (!entityMasking) {
+            return EntityMask.unmasked(message);
+        }
+        EntityMask mask = EntityMask.of(message, plugin.getPlayerNameIndex());
+        if (mask.isMasked()) {
+            plugin.debug("Masked entities: \"" + message + "\" -> \"" + mask.text() + "\"");
+        }
+        return mask;
+    }
+
+    /**
+     * Puts the masked entities back into a provider's translation. A translation that lost one of
+     * them is not delivered, since the original text is more useful than one missing a name or
+     * a URL.
+     */
+    private String restore(EntityMask mask, String translation) {
+        if (translation == null) {
+            return null;
+        }
+        String restored = mask.restore(translation);
+        if (restored == null) {
+            plugin.debug("Translation \"" + translation + "\" lost a masked entity of \"" + mask.text() + "\", delivering the original");
+        }
+        return restored;
+    }
+
+    /**
+     * Cancels the translations that only the given player was still waiting for. Called when the
+     * player leaves, so nobody pays for translations that cannot be delivered any more.
+     *
+     * @param player The player who left
+     */
+    public void cancelPending(Player player) {
+        Set<PendingTranslation> pending = pendingByPlayer.remove(player.getUniqueId());
+        if (pending == null) {
+            return;
+        }
+        for (PendingTranslation translation : pending) {
+            translation.recipients.remove(player.getUniqueId());
+            if (translation.recipients.isEmpty() && translation.future.cancel(true)) {
+                plugin.debug("Cancelled translation, all of its recipients left");
+            }
+        }
+    }
+
+    /**
+     * Hands the provider calls for the given languages to the scheduler. The returned futures
+     * complete once the calls started by the scheduler do; languages whose future was cancelled
+     * before their turn came are left out, and if the scheduler drops the message, all of them
+     * complete as failed.
+     *
+     * @param toLangs     Target language codes
+     * @param senderId    Player who sent the message, or null for the console
+     * @param priority    Priority class of the message
+     * @param deadline    Deadline of the message
+     * @param translation Starts the provider calls for the languages still wanted
+     * @return One future per target language
+     */
+    private Map<String, CompletableFuture<TranslationWithProvider>> schedule(
+            Set<String> toLangs, UUID senderId, TranslationPriority priority, MessageDeadline deadline,
+            Function<Set<String>, Map<String, CompletableFuture<TranslationWithProvider>>> translation) {
+        if (scheduler == null) {
+            return translation.apply(toLangs);
+        }
+
+        Map<String, CompletableFuture<TranslationWithProvider>> results = new HashMap<>();
+        for (String toLang : toLangs) {
+            results.put(toLang, new CompletableFuture<>());
+        }
+
+        scheduler.submit(priority, senderId, toLangs.size(), deadline, () -> {
+            Set<String> wanted = new HashSet<>();
+            results.forEach((toLang, result) -> {
+                if (!result.isDone()) {
+                    wanted.add(toLang);
+                }
+            });
+            if (wanted.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            Map<String, CompletableFuture<TranslationWithProvider>> started = translation.apply(wanted);
+            started.forEach((toLang, future) -> forward(future, results.get(toLang)));
+            return CompletableFuture.allOf(started.values().toArray(CompletableFuture[]::new));
+        }).whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                plugin.debug("Translation not started: " + throwable.getMessage());
+                results.values().forEach(result -> result.complete(TranslationWithProvider.failed()));
+            }
+        });
+        return results;
+    }
+
+    private static void forward(CompletableFuture<TranslationWithProvider> source, CompletableFuture<TranslationWithProvider> target) {
+        source.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                target.completeExceptionally(throwable);
+            } else {
+                target.complete(result);
+            }
+        });
+        target.whenComplete((result, throwable) -> {
+            if (target.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Registers a translation as pending for its recipients and bounds it by the deadline. A
+     * translation that misses the deadline or is cancelled because its recipients left completes
+     * as failed, so the original text is delivered instead.
+     */
+    private CompletableFuture<TranslationWithProvider> awaitTranslation(String message, CompletableFuture<TranslationWithProvider> translation,
+                                                                        Set<Player> recipients, MessageDeadline deadline) {
+        PendingTranslation pending = new PendingTranslation(translation);
+        for (Player recipient : recipients) {
+            pending.recipients.add(recipient.getUniqueId());
+            pendingByPlayer.computeIfAbsent(recipient.getUniqueId(), k -> ConcurrentHashMap.newKeySet()).add(pending);
+        }
+        translation.whenComplete((result, throwable) -> {
+            for (Player recipient : recipients) {
+                pendingByPlayer.computeIfPresent(recipient.getUniqueId(), (uuid, set) -> {
+                    set.remove(pending);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        });
+
+        return deadline.bound(translation, null).handle((result, throwable) -> {
+            if (translation.isCancelled()) {
+                return TranslationWithProvider.failed();
+            }
+            if (throwable != null) {
+                throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+            }
+            if (result == null) {
+                plugin.debug("Translation of \"" + message + "\" missed its deadline, delivering the original");
+                return TranslationWithProvider.failed();
+            }
+            return result;
+        });
+    }
+
     private String getLanguageDisplayName(String langCode) {
         return switch (langCode) {
             case "uk_ua" -> "Ukrainian";
@@ -226,12 +525,59 @@ public class TranslationManager {
     }
 
     public void shutdown() {
+        executor.shutdown();
         cache.shutdown();
         rateLimiter.shutdown();
+        governor.shutdown();
+    }
+
+    public TranslationCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    public NegativeTranslationCache.Stats getNegativeCacheStats() {
+        return negativeCache.getStats();
+    }
+
+    public TranslationCoalescer.Stats getCoalescerStats() {
+        return coalescer.getStats();
+    }
+
+    public List<ProviderRouter.Stats> getRoutingStats() {
+        return fallbackHandler.getRoutingStats();
+    }
+
+    public List<CircuitBreaker.Snapshot> getBreakerStates() {
+        return suspensionManager.getBreakerStates();
+    }
+
+    public ProviderFallbackHandler.HedgeStats getHedgeStats() {
+        return fallbackHandler.getHedgeStats();
+    }
+
+    public List<EngineExecutor.Stats> getEngineStats() {
+        return executor.getEngineStats();
+    }
+
+    public Map<String, List<CredentialPool.Stats>> getCredentialStats() {
+        return executor.getCredentialStats();
+    }
+
+    public List<StreamCutoff.Stats> getStreamingStats() {
+        return executor.getStreamingStats();
+    }
+
+    public LoadGovernor.Stats getLoadStats() {
+        return governor.getStats();
+    }
+
+    public List<TranslationScheduler.Stats> getSchedulerStats() {
+        return scheduler != null ? scheduler.getStats() : List.of();
     }
 
     public void clearCache() {
         cache.clear();
+        negativeCache.clear();
         rateLimiter.clear();
     }
 
@@ -254,4 +600,13 @@ public class TranslationManager {
             plugin.getLogger().info("Translation providers reloaded: " + String.join(", ", newProviders));
         }
     }
+
+    private static final class PendingTranslation {
+        final CompletableFuture<TranslationWithProvider> future;
+        final Set<UUID> recipients = ConcurrentHashMap.newKeySet();
+
+        PendingTranslation(CompletableFuture<TranslationWithProvider> future) {
+            this.future = future;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package net.mysterria.translator.translation;
+
+/**
+ * Priority class of a chat message waiting for translation, highest first. The
+ * {@link TranslationScheduler} always starts queued messages of a higher class before those of a
+ * lower one.
+ */
+public enum TranslationPriority {
+    /**
+     * Private messages, read by a single player who is usually waiting for the answer.
+     */
+    PRIVATE,
+    /**
+     * Messages to the players nearby or to a local channel.
+     */
+    LOCAL,
+    /**
+     * Messages to the whole server.
+     */
+    GLOBAL
+}
@@ -0,0 +1,301 @@
+package net.mysterria.translator.translation;
+
+import net.mysterria.translator.MysterriaTranslator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Decides which chat message is translated next when more messages arrive than the providers
+ * can take.
+ * <p>
+ * At most {@code maxConcurrent} messages are translated at once; the rest wait in one queue per
+ * {@link TranslationPriority}, and a message of a higher class always starts before one of a
+ * lower class. Within a class, senders take turns through start-time fair queuing: every message
+ * is tagged with the sender's virtual finish time, which grows with the number of provider calls
+ * the sender has queued, so a player flooding the chat only delays their own messages.
+ * <p>
+ * The queues hold at most {@code maxQueued} messages. When they are full, a new message pushes
+ * out the most recently queued message of the lowest class below its own, or is rejected if
+ * there is none. Messages whose deadline passes while they wait are dropped when their turn comes.
+ */
+public class TranslationScheduler {
+
+    private static final double WAIT_SMOOTHING = 0.2;
+
+    private final MysterriaTranslator plugin;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ClassQueue[] queues;
+
+    private int running;
+    private int queued;
+    private long sequence;
+
+    /**
+     * @param plugin        The plugin instance
+     * @param maxConcurrent Maximum number of messages translated at once
+     * @param maxQueued     Maximum number of messages waiting, across all classes
+     */
+    public TranslationScheduler(MysterriaTranslator plugin, int maxConcurrent, int maxQueued) {
+        this.plugin = plugin;
+        this.maxConcurrent = Math.max(maxConcurrent, 1);
+        this.maxQueued = Math.max(maxQueued, 0);
+        this.queues = new ClassQueue[TranslationPriority.values().length];
+        for (TranslationPriority priority : TranslationPriority.values()) {
+            queues[priority.ordinal()] = new ClassQueue(priority);
+        }
+    }
+
+    /**
+     * Runs a translation task when its turn comes.
+     *
+     * @param priority Priority class of the message
+     * @param sender   Player who sent the message, or null for the console
+     * @param cost     Provider calls the task is expected to make, usually its number of target languages
+     * @param deadline Deadline of the message; the task is dropped if it passes while queued
+     * @param task     Starts the translation and returns a future completed when it is done
+     * @return Future completed when the task's future completes, or exceptionally with a
+     * {@link RejectedExecutionException} if the task was rejected, pushed out or dropped
+     */
+    public CompletableFuture<Void> submit(TranslationPriority priority, UUID sender, int cost,
+                                          MessageDeadline deadline, Supplier<CompletableFuture<?>> task) {
+        Entry entry = new Entry(priority, sender, Math.max(cost, 1), deadline, task);
+        Entry pushedOut = null;
+
+        synchronized (this) {
+            if (running >= maxConcurrent && queued >= maxQueued) {
+                pushedOut = removeNewestBelow(priority);
+                if (pushedOut == null) {
+                    queues[priority.ordinal()].shed++;
+                    plugin.debug("Translation queue is full, rejecting " + priority.name().toLowerCase() + " message");
+                    entry.done.completeExceptionally(new RejectedExecutionException("Translation queue is full"));
+                    return entry.done;
+                }
+            }
+            entry.sequence = sequence++;
+            queues[priority.ordinal()].add(entry);
+            queued++;
+        }
+
+        if (pushedOut != null) {
+            plugin.debug("Translation queue is full, dropping a queued " + pushedOut.priority.name().toLowerCase() + " message");
+            pushedOut.done.completeExceptionally(new RejectedExecutionException("Pushed out of the translation queue"));
+        }
+        drain();
+        return entry.done;
+    }
+
+    /**
+     * Returns the number of messages waiting, across all classes.
+     */
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Returns a snapshot of the counters of every priority class.
+     */
+    public synchronized List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(queues.length);
+        for (ClassQueue queue : queues) {
+            stats.add(new Stats(queue.priority, queue.entries.size(), queue.dispatched, queue.shed, queue.expired,
+                    Math.max(Math.round(queue.averageWaitMillis), 0), queue.maxWaitMillis));
+        }
+        return stats;
+    }
+
+    /**
+     * Starts queued tasks while there are free slots. Tasks that complete right away free their
+     * slot in the same loop instead of recursing.
+     */
+    private void drain() {
+        while (true) {
+            Entry next;
+            List<Entry> expired = new ArrayList<>();
+            synchronized (this) {
+                next = running < maxConcurrent ? poll(expired) : null;
+                if (next != null) {
+                    running++;
+                }
+            }
+            for (Entry entry : expired) {
+                entry.done.completeExceptionally(new RejectedExecutionException("Deadline passed while queued"));
+            }
+            if (next == null) {
+                return;
+            }
+
+            CompletableFuture<?> result = start(next);
+            if (result.isDone()) {
+                finish(next, result);
+                continue;
+            }
+            result.whenComplete((value, throwable) -> {
+                finish(next, result);
+                drain();
+            });
+        }
+    }
+
+    private CompletableFuture<?> start(Entry entry) {
+        try {
+            CompletableFuture<?> result = entry.task.get();
+            return result != null ? result : CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void finish(Entry entry, CompletableFuture<?> result) {
+        synchronized (this) {
+            running--;
+        }
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                entry.done.completeExceptionally(throwable);
+            } else {
+                entry.done.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Takes the next entry of the highest non-empty class, dropping entries that are no longer
+     * wanted. Must be called while holding the lock.
+     */
+    private Entry poll(List<Entry> expired) {
+        for (ClassQueue queue : queues) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                queued--;
+                if (entry.done.isDone()) {
+                    continue;
+                }
+                if (entry.deadline.isExpired()) {
+                    queue.expired++;
+                    expired.add(entry);
+                    continue;
+                }
+                queue.recordDispatch(entry);
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the most recently queued entry of the lowest class below the given one. Must be
+     * called while holding the lock.
+     */
+    private Entry removeNewestBelow(TranslationPriority priority) {
+        for (int i = queues.length - 1; i > priority.ordinal(); i--) {
+            Entry newest = queues[i].removeNewest();
+            if (newest != null) {
+                queues[i].shed++;
+                queued--;
+                return newest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Snapshot of the counters of one priority class.
+     *
+     * @param priority          The priority class
+     * @param queued            Messages currently waiting
+     * @param dispatched        Messages started
+     * @param shed              Messages rejected or pushed out because the queue was full
+     * @param expired           Messages whose deadline passed while they waited
+     * @param averageWaitMillis Smoothed time messages waited before they started
+     * @param maxWaitMillis     Longest time a message waited before it started
+     */
+    public record Stats(TranslationPriority priority, int queued, long dispatched, long shed, long expired,
+                        long averageWaitMillis, long maxWaitMillis) {
+    }
+
+    private static final class Entry {
+        final TranslationPriority priority;
+        final UUID sender;
+        final int cost;
+        final MessageDeadline deadline;
+        final Supplier<CompletableFuture<?>> task;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+        long sequence;
+        double startTag;
+
+        Entry(TranslationPriority priority, UUID sender, int cost, MessageDeadline deadline,
+              Supplier<CompletableFuture<?>> task) {
+            this.priority = priority;
+            this.sender = sender;
+            this.cost = cost;
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+
+    private static final class ClassQueue {
+        final TranslationPriority priority;
+        final PriorityQueue<Entry> entries = new PriorityQueue<>(
+                Comparator.comparingDouble((Entry entry) -> entry.startTag).thenComparingLong(entry -> entry.sequence));
+        final Map<UUID, Double> finishTags = new HashMap<>();
+        double virtualTime;
+
+        long dispatched;
+        long shed;
+        long expired;
+        double averageWaitMillis = -1;
+        long maxWaitMillis;
+
+        ClassQueue(TranslationPriority priority) {
+            this.priority = priority;
+        }
+
+        void add(Entry entry) {
+            entry.startTag = Math.max(virtualTime, finishTags.getOrDefault(entry.sender, 0.0));
+            finishTags.put(entry.sender, entry.startTag + entry.cost);
+            entries.add(entry);
+        }
+
+        Entry poll() {
+            Entry entry = entries.poll();
+            if (entry != null) {
+                virtualTime = Math.max(virtualTime, entry.startTag);
+                // Senders whose messages have all been started are back at the current virtual time
+                finishTags.values().removeIf(finish -> finish <= virtualTime);
+            }
+            return entry;
+        }
+
+        Entry removeNewest() {
+            Entry newest = null;
+            for (Entry entry : entries) {
+                if (newest == null || entry.sequence > newest.sequence) {
+                    newest = entry;
+                }
+            }
+            if (newest != null) {
+                entries.remove(newest);
+            }
+            return newest;
+        }
+
+        void recordDispatch(Entry entry) {
+            long waitMillis = (System.nanoTime() - entry.enqueuedNanos) / 1_000_000;
+            dispatched++;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+            averageWaitMillis = averageWaitMillis < 0 ? waitMillis
+                    : averageWaitMillis + WAIT_SMOOTHING * (waitMillis - averageWaitMillis);
+        }
+    }
+}
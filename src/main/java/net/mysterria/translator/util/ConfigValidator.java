@@ -1,6 +1,8 @@
 package net.mysterria.translator.util;
 
 import net.mysterria.translator.MysterriaTranslator;
+import net.mysterria.translator.engine.CredentialPool;
+import net.mysterria.translator.translation.TranslationExecutor;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.net.URI;
@@ -53,10 +55,89 @@ public class ConfigValidator {
 
 
         validateNumericSetting("translation.cacheExpirySeconds", 1, 3600);
+        validateNumericSetting("translation.cacheMaxEntries", 100, 1000000);
+        validateNumericSetting("translation.cacheMaxMemoryKb", 256, 1048576);
+        if (plugin.getConfig().getBoolean("translation.persistentCache.enabled", true)) {
+            validateNumericSetting("translation.persistentCache.ttlHours", 1, 8760);
+            validateNumericSetting("translation.persistentCache.segmentSizeMb", 1, 256);
+            validateNumericSetting("translation.persistentCache.maxSegments", 2, 64);
+        }
+        if (plugin.getConfig().getBoolean("translation.negativeCache.enabled", true)) {
+            validateNumericSetting("translation.negativeCache.ttlSeconds", 1, 3600);
+            validateNumericSetting("translation.negativeCache.maxEntries", 16, 1000000);
+        }
+        if (plugin.getConfig().getBoolean("translation.batching.enabled", true)) {
+            validateNumericSetting("translation.batching.windowMillis", 1, 1000);
+            validateNumericSetting("translation.batching.maxBatchSize", 1, 50);
+        }
+        if (plugin.getConfig().getBoolean("translation.routing.enabled", true)) {
+            double tolerance = plugin.getConfig().getDouble("translation.routing.tolerance", 1.25);
+            if (tolerance < 1.0 || tolerance > 10.0) {
+                warnings.add("Setting 'translation.routing.tolerance' value " + tolerance + " is outside recommended range [1.0-10.0]");
+            }
+        }
+        if (plugin.getConfig().getBoolean("translation.hedging.enabled", false)) {
+            validateNumericSetting("translation.hedging.percentile", 50, 99);
+            validateNumericSetting("translation.hedging.minDelayMillis", 0, 15000);
+            double maxRatio = plugin.getConfig().getDouble("translation.hedging.maxRatio", 0.1);
+            if (maxRatio < 0.0 || maxRatio > 1.0) {
+                warnings.add("Setting 'translation.hedging.maxRatio' value " + maxRatio + " is outside recommended range [0.0-1.0]");
+            }
+        }
+        if (plugin.getConfig().getBoolean("translation.scheduler.enabled", true)) {
+            validateNumericSetting("translation.scheduler.maxConcurrent", 1, 1000);
+            validateNumericSetting("translation.scheduler.maxQueued", 0, 100000);
+        }
+        if (plugin.getConfig().getBoolean("translation.brownout.enabled", true)) {
+            validateNumericSetting("translation.brownout.checkIntervalSeconds", 1, 300);
+            validateNumericSetting("translation.brownout.maxQueued", 1, 100000);
+            validateNumericSetting("translation.brownout.maxLatencyMillis", 100, 600000);
+            validateNumericSetting("translation.brownout.recoverySeconds", 1, 3600);
+            validateNumericSetting("translation.brownout.minMessageLength", 0, 100);
+            double minTps = plugin.getConfig().getDouble("translation.brownout.minTps", 17.0);
+            if (minTps < 1.0 || minTps > 20.0) {
+                warnings.add("Setting 'translation.brownout.minTps' value " + minTps + " is outside recommended range [1.0-20.0]");
+            }
+        }
+        validateNumericSetting("translation.http.connectTimeout", 1, 300);
+        if (plugin.getConfig().getBoolean("translation.streaming.enabled", true)) {
+            validateNumericSetting("translation.streaming.minOutputChars", 1, 10000);
+            double maxLengthRatio = plugin.getConfig().getDouble("translation.streaming.maxLengthRatio", 3.0);
+            if (maxLengthRatio < 1.0 || maxLengthRatio > 20.0) {
+                warnings.add("Setting 'translation.streaming.maxLengthRatio' value " + maxLengthRatio + " is outside recommended range [1.0-20.0]");
+            }
+        }
         validateNumericSetting("translation.rateLimitMessages", 1, 100);
         validateNumericSetting("translation.rateLimitWindowSeconds", 1, 300);
         validateNumericSetting("translation.minMessageLength", 0, 100);
         validateNumericSetting("translation.maxRetries", 0, 10);
+        validateNumericSetting("translation.retryBaseDelayMillis", 1, 60000);
+        validateNumericSetting("translation.retryMaxDelayMillis", 1, 600000);
+        validateNumericSetting("translation.messageDeadlineMillis", 0, 600000);
+        validateNumericSetting("translation.rateLimitQuotaReserve", 0, 1000);
+        validateNumericSetting("translation.circuitBreaker.windowSize", 1, 1000);
+        validateNumericSetting("translation.circuitBreaker.minimumCalls", 1, 1000);
+        validateNumericSetting("translation.circuitBreaker.failureRateThreshold", 1, 100);
+        validateNumericSetting("translation.circuitBreaker.slowCallRateThreshold", 1, 100);
+        validateNumericSetting("translation.circuitBreaker.slowCallMillis", 100, 120000);
+        long slowCallMillis = plugin.getConfig().getLong("translation.circuitBreaker.slowCallMillis", 8000);
+        long messageDeadlineMillis = plugin.getConfig().getLong("translation.messageDeadlineMillis", 0);
+        if (messageDeadlineMillis > 0 && slowCallMillis >= messageDeadlineMillis) {
+            warnings.add("Setting 'translation.circuitBreaker.slowCallMillis' (" + slowCallMillis
+                    + ") is not below 'translation.messageDeadlineMillis' (" + messageDeadlineMillis
+                    + "), so no request can count as slow");
+        }
+        if (messageDeadlineMillis > 0) {
+            for (String provider : providers) {
+                long requestTimeoutMillis = TranslationExecutor.requestTimeoutMillis(plugin, provider);
+                if (messageDeadlineMillis < requestTimeoutMillis) {
+                    warnings.add("Setting 'translation.messageDeadlineMillis' (" + messageDeadlineMillis
+                            + ") is below the request timeout of provider '" + provider + "' (" + requestTimeoutMillis
+                            + "ms), so its slower answers are cancelled before they arrive");
+                }
+            }
+        }
+        validateNumericSetting("translation.circuitBreaker.openSeconds", 1, 3600);
         validateNumericSetting("translationCacheSize", 10, 10000);
 
         return new ValidationResult(errors, warnings);
@@ -98,6 +179,9 @@ public class ConfigValidator {
             case "openai":
                 validateOpenAI();
                 break;
+            case "google":
+                validateConcurrencySettings("google");
+                break;
         }
     }
 
@@ -114,8 +198,8 @@ public class ConfigValidator {
             errors.add("Ollama: Model is not configured");
         }
 
-        validateNumericSetting("translation.ollama.connectTimeout", 1, 300);
         validateNumericSetting("translation.ollama.requestTimeout", 1, 600);
+        validateConcurrencySettings("ollama");
     }
 
     private void validateLibreTranslate() {
@@ -126,14 +210,13 @@ public class ConfigValidator {
             errors.add("LibreTranslate: Invalid URL format: " + url);
         }
 
-        String apiKey = plugin.getConfig().getString("translation.libretranslate.apiKey", "");
-        if (apiKey.isEmpty()) {
+        if (CredentialPool.configuredKeys(plugin.getConfig(), "libretranslate").isEmpty()) {
             warnings.add("LibreTranslate: No API key configured (may be required by some instances)");
         }
 
         validateNumericSetting("translation.libretranslate.alternatives", 1, 10);
-        validateNumericSetting("translation.libretranslate.connectTimeout", 1, 300);
         validateNumericSetting("translation.libretranslate.readTimeout", 1, 600);
+        validateConcurrencySettings("libretranslate");
     }
 
     private void validateGemini() {
@@ -160,15 +243,21 @@ public class ConfigValidator {
             warnings.add("Gemini: No model specified, will use default (gemini-2.0-flash)");
         }
 
-        validateNumericSetting("translation.gemini.connectTimeout", 1, 300);
         validateNumericSetting("translation.gemini.readTimeout", 1, 600);
+        validateConcurrencySettings("gemini");
     }
 
     private void validateOpenAI() {
-        String apiKey = plugin.getConfig().getString("translation.openai.apiKey", "");
-        if (apiKey.isEmpty() || apiKey.contains("sk-...") || apiKey.contains("your-api-key")) {
+        List<String> apiKeys = CredentialPool.configuredKeys(plugin.getConfig(), "openai");
+        if (apiKeys.isEmpty()) {
             errors.add("OpenAI: API key is not configured or contains placeholder text");
         }
+        for (int i = 0; i < apiKeys.size(); i++) {
+            String key = apiKeys.get(i);
+            if (key.contains("sk-...") || key.contains("your-api-key")) {
+                errors.add("OpenAI: API key #" + (i + 1) + " is not configured or contains placeholder text");
+            }
+        }
 
         String model = plugin.getConfig().getString("translation.openai.model");
         if (model == null || model.isEmpty()) {
@@ -182,8 +271,23 @@ public class ConfigValidator {
             errors.add("OpenAI: Invalid base URL format: " + baseUrl);
         }
 
-        validateNumericSetting("translation.openai.connectTimeout", 1, 300);
         validateNumericSetting("translation.openai.readTimeout", 1, 600);
+        validateConcurrencySettings("openai");
+    }
+
+    /**
+     * Validates the bulkhead limits of a provider's request executor and its request budget.
+     */
+    private void validateConcurrencySettings(String provider) {
+        validateNumericSetting("translation." + provider + ".maxConcurrency", 1, 256);
+        validateNumericSetting("translation." + provider + ".maxQueue", 0, 10000);
+        if (!provider.equals("google")) {
+            validateNumericSetting("translation." + provider + ".maxConcurrencyPerKey", 0, 256);
+        }
+        validateNumericSetting("translation." + provider + ".requestsPerMinute", 0, 100000);
+        if (!provider.equals("libretranslate") && !provider.equals("google")) {
+            validateNumericSetting("translation." + provider + ".tokensPerMinute", 0, 100000000);
+        }
     }
 
     /**
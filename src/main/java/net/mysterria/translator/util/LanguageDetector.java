@@ -1,74 +1,329 @@
 package net.mysterria.translator.util;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.InputStream;
 
+/**
+ * Tells which language a chat message is written in from the scripts of its letters.
+ * <p>
+ * Detection is a single pass over the code points of the message that sorts every letter into a
+ * {@link Script} by its Unicode block and keeps one counter per script, without regular
+ * expressions or intermediate strings, so it costs next to nothing even when every chat line is
+ * checked for hundreds of recipients. The result is one of the shared {@link DetectedLanguage}
+ * constants, which callers can keep and pass to {@link #needsTranslation(DetectedLanguage, String)}
+ * instead of detecting again for every recipient.
+ * <p>
+ * Most scripts name a language outright. Latin and Cyrillic are shared by many, so once
+ * {@link #loadProfiles(InputStream) profiles are loaded} the letters of those scripts are handed to
+ * the {@link NgramLanguageIdentifier}, which leans towards the language that dominates the script
+ * on the server: Ukrainian for Cyrillic and English for Latin. Text too short to tell is taken as
+ * that language outright.
+ */
 public class LanguageDetector {
-    
-    private static final Pattern CYRILLIC_PATTERN = Pattern.compile("[\\u0400-\\u04FF]+");
-    private static final Pattern LATIN_PATTERN = Pattern.compile("[a-zA-Z]+");
-    
-    private static final double CYRILLIC_THRESHOLD = 0.3;
-    private static final double LATIN_THRESHOLD = 0.3;
-    
+
+    private static final double SCRIPT_THRESHOLD = 0.3;
+    private static final int MIN_LENGTH = 3;
+    private static final int MIN_IDENTIFIED_LETTERS = 6;
+
+    private static volatile NgramLanguageIdentifier identifier;
+
+    /**
+     * Writing systems told apart by {@link #scriptOf}.
+     */
+    public enum Script {
+        LATIN,
+        CYRILLIC,
+        GREEK,
+        ARABIC,
+        HEBREW,
+        DEVANAGARI,
+        THAI,
+        HANGUL,
+        KANA,
+        HAN,
+        /**
+         * Digits, punctuation, emoji, whitespace and letters of other scripts.
+         */
+        OTHER
+    }
+
     public enum DetectedLanguage {
         UKRAINIAN("Ukrainian", "uk_ua"),
         ENGLISH("English", "en_us"),
+        RUSSIAN("Russian", "ru_ru"),
+        SPANISH("Spanish", "es_es"),
+        FRENCH("French", "fr_fr"),
+        GERMAN("German", "de_de"),
+        ITALIAN("Italian", "it_it"),
+        PORTUGUESE("Portuguese", "pt_pt"),
+        POLISH("Polish", "pl_pl"),
+        DUTCH("Dutch", "nl_nl"),
+        SWEDISH("Swedish", "sv_se"),
+        NORWEGIAN("Norwegian", "no_no"),
+        DANISH("Danish", "da_dk"),
+        FINNISH("Finnish", "fi_fi"),
+        CZECH("Czech", "cs_cz"),
+        HUNGARIAN("Hungarian", "hu_hu"),
+        ROMANIAN("Romanian", "ro_ro"),
+        BULGARIAN("Bulgarian", "bg_bg"),
+        TURKISH("Turkish", "tr_tr"),
+        VIETNAMESE("Vietnamese", "vi_vn"),
+        GREEK("Greek", "el_gr"),
+        ARABIC("Arabic", "ar_sa"),
+        HEBREW("Hebrew", "he_il"),
+        HINDI("Hindi", "hi_in"),
+        THAI("Thai", "th_th"),
+        KOREAN("Korean", "ko_kr"),
+        JAPANESE("Japanese", "ja_jp"),
+        CHINESE("Chinese", "zh_cn"),
         UNKNOWN("Unknown", null);
-        
+
         private final String displayName;
         private final String langCode;
-        
+
         DetectedLanguage(String displayName, String langCode) {
             this.displayName = displayName;
             this.langCode = langCode;
         }
-        
+
         public String getDisplayName() {
             return displayName;
         }
-        
+
         public String getLangCode() {
             return langCode;
         }
+
+        /**
+         * Looks up a language by its code.
+         *
+         * @param langCode A language code such as {@code uk_ua}
+         * @return The language, or null if the code is unknown
+         */
+        public static DetectedLanguage fromCode(String langCode) {
+            for (DetectedLanguage language : values()) {
+                if (language.langCode != null && language.langCode.equalsIgnoreCase(langCode)) {
+                    return language;
+                }
+            }
+            return null;
+        }
     }
-    
+
+    /**
+     * Loads the trigram profiles that tell apart languages sharing the Latin and Cyrillic scripts.
+     * Until they are loaded, those scripts are detected as English and Ukrainian.
+     *
+     * @param profiles The profiles, in the format read by {@link NgramLanguageIdentifier#load}
+     * @throws IOException If the profiles cannot be read
+     */
+    public static void loadProfiles(InputStream profiles) throws IOException {
+        identifier = NgramLanguageIdentifier.load(profiles);
+    }
+
+    /**
+     * Detects the language of a text from the script most of its letters are written in. The
+     * winning script must make up at least 30% of the trimmed text; Han characters count as
+     * Japanese when the text also contains kana. Latin and Cyrillic text with enough letters is
+     * narrowed down further by its trigrams.
+     *
+     * @param text The text to check
+     * @return The detected language, or {@link DetectedLanguage#UNKNOWN} for text that is too
+     * short or has too few letters of one script
+     */
     public static DetectedLanguage detectLanguage(String text) {
-        if (text == null || text.trim().isEmpty()) {
+        if (text == null) {
             return DetectedLanguage.UNKNOWN;
         }
-        
-        text = text.trim();
-        if (text.length() < 3) {
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int totalChars = end - start;
+        if (totalChars < MIN_LENGTH) {
             return DetectedLanguage.UNKNOWN;
         }
-        
-        int totalChars = text.length();
-        int cyrillicChars = countMatches(text, CYRILLIC_PATTERN);
-        int latinChars = countMatches(text, LATIN_PATTERN);
-        
-        double cyrillicRatio = (double) cyrillicChars / totalChars;
-        double latinRatio = (double) latinChars / totalChars;
-        
-        if (cyrillicRatio >= CYRILLIC_THRESHOLD) {
-            return DetectedLanguage.UKRAINIAN;
-        } else if (latinRatio >= LATIN_THRESHOLD) {
-            return DetectedLanguage.ENGLISH;
-        }
-        
-        return DetectedLanguage.UNKNOWN;
+
+        int latin = 0;
+        int cyrillic = 0;
+        int greek = 0;
+        int arabic = 0;
+        int hebrew = 0;
+        int devanagari = 0;
+        int thai = 0;
+        int hangul = 0;
+        int kana = 0;
+        int han = 0;
+
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                    latin++;
+                }
+                i++;
+                continue;
+            }
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            switch (scriptOf(codePoint)) {
+                case LATIN -> latin++;
+                case CYRILLIC -> cyrillic++;
+                case GREEK -> greek++;
+                case ARABIC -> arabic++;
+                case HEBREW -> hebrew++;
+                case DEVANAGARI -> devanagari++;
+                case THAI -> thai++;
+                case HANGUL -> hangul++;
+                case KANA -> kana++;
+                case HAN -> han++;
+                default -> {
+                }
+            }
+        }
+
+        DetectedLanguage detected = DetectedLanguage.UNKNOWN;
+        int best = 0;
+        if (cyrillic > best) {
+            detected = DetectedLanguage.UKRAINIAN;
+            best = cyrillic;
+        }
+        if (latin > best) {
+            detected = DetectedLanguage.ENGLISH;
+            best = latin;
+        }
+        if (greek > best) {
+            detected = DetectedLanguage.GREEK;
+            best = greek;
+        }
+        if (arabic > best) {
+            detected = DetectedLanguage.ARABIC;
+            best = arabic;
+        }
+        if (hebrew > best) {
+            detected = DetectedLanguage.HEBREW;
+            best = hebrew;
+        }
+        if (devanagari > best) {
+            detected = DetectedLanguage.HINDI;
+            best = devanagari;
+        }
+        if (thai > best) {
+            detected = DetectedLanguage.THAI;
+            best = thai;
+        }
+        if (hangul > best) {
+            detected = DetectedLanguage.KOREAN;
+            best = hangul;
+        }
+        if (kana > 0 && kana + han > best) {
+            detected = DetectedLanguage.JAPANESE;
+            best = kana + han;
+        } else if (kana == 0 && han > best) {
+            detected = DetectedLanguage.CHINESE;
+            best = han;
+        }
+
+        if (best < totalChars * SCRIPT_THRESHOLD) {
+            return DetectedLanguage.UNKNOWN;
+        }
+
+        NgramLanguageIdentifier current = identifier;
+        if ((detected == DetectedLanguage.ENGLISH || detected == DetectedLanguage.UKRAINIAN)
+                && best >= MIN_IDENTIFIED_LETTERS && current != null) {
+            Script script = detected == DetectedLanguage.ENGLISH ? Script.LATIN : Script.CYRILLIC;
+            DetectedLanguage identified = current.identify(text, start, end, script, detected);
+            if (identified != null) {
+                return identified;
+            }
+        }
+        return detected;
     }
-    
+
     public static boolean needsTranslation(String text, String playerLocale) {
-        DetectedLanguage detected = detectLanguage(text);
-        
+        return needsTranslation(detectLanguage(text), playerLocale);
+    }
+
+    /**
+     * Checks whether a message in an already detected language needs translating for a player.
+     *
+     * @param detected     Language of the message
+     * @param playerLocale The player's client locale
+     */
+    public static boolean needsTranslation(DetectedLanguage detected, String playerLocale) {
         if (detected == DetectedLanguage.UNKNOWN) {
             return false;
         }
-        
+
         String targetLang = getTargetLanguage(playerLocale);
         return !detected.getLangCode().equals(targetLang);
     }
-    
+
+    /**
+     * Returns the script of a code point by its Unicode block.
+     *
+     * @param codePoint The code point
+     * @return The script, or {@link Script#OTHER} for anything that is not a letter of a known script
+     */
+    public static Script scriptOf(int codePoint) {
+        if (codePoint < 0x80) {
+            return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z') ? Script.LATIN : Script.OTHER;
+        }
+        if (codePoint < 0x0370) {
+            return codePoint >= 0x00C0 && codePoint != 0x00D7 && codePoint != 0x00F7 && codePoint <= 0x024F ? Script.LATIN : Script.OTHER;
+        }
+        if (codePoint < 0x0400) {
+            return Script.GREEK;
+        }
+        if (codePoint < 0x0530) {
+            return Script.CYRILLIC;
+        }
+        if (codePoint >= 0x0590 && codePoint < 0x0600) {
+            return Script.HEBREW;
+        }
+        if (codePoint >= 0x0600 && codePoint < 0x0780 || codePoint >= 0x08A0 && codePoint < 0x0900) {
+            return Script.ARABIC;
+        }
+        if (codePoint >= 0x0900 && codePoint < 0x0980) {
+            return Script.DEVANAGARI;
+        }
+        if (codePoint >= 0x0E00 && codePoint < 0x0E80) {
+            return Script.THAI;
+        }
+        if (codePoint >= 0x1100 && codePoint < 0x1200) {
+            return Script.HANGUL;
+        }
+        if (codePoint >= 0x1E00 && codePoint < 0x1F00) {
+            return Script.LATIN;
+        }
+        if (codePoint >= 0x1F00 && codePoint < 0x2000) {
+            return Script.GREEK;
+        }
+        if (codePoint >= 0x3040 && codePoint < 0x3100 || codePoint >= 0x31F0 && codePoint < 0x3200) {
+            return Script.KANA;
+        }
+        if (codePoint >= 0x3130 && codePoint < 0x3190 || codePoint >= 0xAC00 && codePoint < 0xD7B0) {
+            return Script.HANGUL;
+        }
+        if (codePoint >= 0x3400 && codePoint < 0x4DC0 || codePoint >= 0x4E00 && codePoint < 0xA000
+                || codePoint >= 0xF900 && codePoint < 0xFB00 || codePoint >= 0x20000 && codePoint < 0x2FA20) {
+            return Script.HAN;
+        }
+        if (codePoint >= 0xFB50 && codePoint < 0xFE00 || codePoint >= 0xFE70 && codePoint < 0xFF00) {
+            return Script.ARABIC;
+        }
+        if (codePoint >= 0xFF66 && codePoint < 0xFFA0) {
+            return Script.KANA;
+        }
+        return Script.OTHER;
+    }
+
     public static String getTargetLanguage(String playerLocale) {
         if (playerLocale == null) {
             return "en_us";
@@ -134,13 +389,4 @@ public class LanguageDetector {
 
         return "en_us";
     }
-    
-    private static int countMatches(String text, Pattern pattern) {
-        int count = 0;
-        java.util.regex.Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            count += matcher.group().length();
-        }
-        return count;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package net.mysterria.translator.util;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes chat messages that no provider can translate usefully, so they are delivered as they
+ * are without a cache lookup or a provider call.
+ * <p>
+ * A message is untranslatable if it has no words at all (only emoji, numbers, punctuation, URLs
+ * or {@code {0}}-style placeholders), or if every word in it is laughter ("ахахах", "xD") or chat
+ * slang that reads the same in every language ("gg", "afk").
+ */
+public class MessageClassifier {
+
+    // Laughter repeats one syllable ("хаха", "jajaja"); any mix of those letters would also match
+    // real words such as "hija" or "hoja"
+    private static final Pattern LAUGHTER = Pattern.compile(
+            "[aаeеoоiи]?([hхxj])([aаeеoоiиы])(?:\\1\\2)+[hхxj]?"
+                    + "|x+d+|х+д+|l+o+l+|л+о+л+|l+m+f?a+o+|r+o+f+l+|k{3,}|k+e+k+|к+е+к+");
+
+    private static final Set<String> SLANG = Set.of(
+            "gg", "ggwp", "wp", "gl", "hf", "glhf", "ez", "afk", "brb", "ok", "okay", "kk", "ty", "thx", "np",
+            "pvp", "pve", "omg", "wtf", "гг", "вп", "ок", "кк", "афк", "пвп");
+
+    /**
+     * Returns why a message is not worth translating.
+     *
+     * @param text The message, with masked entities already replaced by placeholders
+     * @return The reason, or null if the message should be translated
+     */
+    public static String untranslatableReason(String text) {
+        if (text == null) {
+            return "Nothing to translate";
+        }
+
+        boolean hasWords = false;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (c == '{') {
+                int end = i + 1;
+                while (end < length && Character.isDigit(text.charAt(end))) {
+                    end++;
+                }
+                if (end > i + 1 && end < length && text.charAt(end) == '}') {
+                    i = end + 1;
+                    continue;
+                }
+            }
+
+            if (text.startsWith("http://", i) || text.startsWith("https://", i) || text.startsWith("www.", i)) {
+                while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                continue;
+            }
+
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetter(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+
+            int start = i;
+            while (i < length && Character.isLetter(codePoint = text.codePointAt(i))) {
+                i += Character.charCount(codePoint);
+            }
+            String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+            if (!SLANG.contains(word) && !LAUGHTER.matcher(word).matches()) {
+                return null;
+            }
+            hasWords = true;
+        }
+
+        return hasWords ? "Only laughter or chat slang" : "Nothing to translate";
+    }
+}
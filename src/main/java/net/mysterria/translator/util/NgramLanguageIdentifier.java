@@ -0,0 +1,243 @@
+package net.mysterria.translator.util;
+
+import net.mysterria.translator.util.LanguageDetector.DetectedLanguage;
+import net.mysterria.translator.util.LanguageDetector.Script;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tells apart languages written in the same script by their character trigrams.
+ * <p>
+ * Every language has a profile of its most frequent trigrams, ranked. A text is scored against
+ * the profiles of its script as a sum of log-probabilities, where a trigram's probability falls
+ * with its rank as in Zipf's law and trigrams missing from a profile get a small fixed one. The
+ * language expected for the script gets a head start, so short text, where a handful of trigrams
+ * say little, keeps to it.
+ * <p>
+ * All profiles share one open-addressing table from packed trigram to a row of per-language
+ * weights, so a trigram costs one table probe however many languages are scored.
+ */
+public class NgramLanguageIdentifier {
+
+    private static final char BOUNDARY = ' ';
+    private static final double RANK_OFFSET = 5;
+    // Log-odds head start of the expected language: a few trigrams of chat slang cannot outvote it,
+    // while a sentence of another language easily does
+    private static final double EXPECTED_PRIOR = 8;
+
+    private final DetectedLanguage[] languages;
+    private final Script[] scripts;
+    private final long[] keys;
+    private final int[] rows;
+    private final float[] weights;
+    private final float[] unseen;
+    private final int mask;
+
+    private NgramLanguageIdentifier(DetectedLanguage[] languages, Script[] scripts, long[] keys, int[] rows,
+                                    float[] weights, float[] unseen) {
+        this.languages = languages;
+        this.scripts = scripts;
+        this.keys = keys;
+        this.rows = rows;
+        this.weights = weights;
+        this.unseen = unseen;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Reads profiles in the format of {@code language-profiles.txt}: one language per line, its
+     * code followed by its trigrams, most frequent first, with {@code _} marking word boundaries.
+     * Lines starting with {@code #} and languages unknown to {@link DetectedLanguage} are skipped.
+     *
+     * @param input The profiles
+     * @throws IOException If the profiles cannot be read
+     */
+    public static NgramLanguageIdentifier load(InputStream input) throws IOException {
+        List<DetectedLanguage> languages = new ArrayList<>();
+        List<String[]> profiles = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                DetectedLanguage language = DetectedLanguage.fromCode(parts[0]);
+                if (language == null || parts.length < 2) {
+                    continue;
+                }
+                String[] trigrams = new String[parts.length - 1];
+                for (int i = 1; i < parts.length; i++) {
+                    String trigram = parts[i].replace('_', BOUNDARY);
+                    if (trigram.length() != 3) {
+                        throw new IOException("Invalid trigram '" + parts[i] + "' in profile " + parts[0]);
+                    }
+                    trigrams[i - 1] = trigram;
+                }
+                languages.add(language);
+                profiles.add(trigrams);
+            }
+        }
+
+        int count = languages.size();
+        int entries = 0;
+        for (String[] profile : profiles) {
+            entries += profile.length;
+        }
+        int capacity = Integer.highestOneBit(Math.max(entries * 2, 16) - 1) << 1;
+        long[] keys = new long[capacity];
+        int[] rows = new int[capacity];
+        float[] unseen = new float[count];
+        Script[] scripts = new Script[count];
+
+        for (int lang = 0; lang < count; lang++) {
+            String[] profile = profiles.get(lang);
+            unseen[lang] = (float) -Math.log(profile.length * 3 + RANK_OFFSET);
+            scripts[lang] = scriptOf(profile);
+        }
+
+        // Rows are numbered in order of first appearance; a trigram shared by several profiles has one row
+        int distinct = 0;
+        for (String[] profile : profiles) {
+            for (String trigram : profile) {
+                long key = pack(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2));
+                int slot = slot(keys, capacity - 1, key);
+                if (keys[slot] == 0) {
+                    keys[slot] = key;
+                    rows[slot] = distinct++;
+                }
+            }
+        }
+
+        float[] weights = new float[distinct * count];
+        for (int row = 0; row < distinct; row++) {
+            System.arraycopy(unseen, 0, weights, row * count, count);
+        }
+        for (int lang = 0; lang < count; lang++) {
+            String[] profile = profiles.get(lang);
+            for (int rank = 0; rank < profile.length; rank++) {
+                String trigram = profile[rank];
+                int slot = slot(keys, capacity - 1, pack(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2)));
+                int offset = rows[slot] * count + lang;
+                weights[offset] = Math.max(weights[offset], (float) -Math.log(rank + RANK_OFFSET));
+            }
+        }
+
+        return new NgramLanguageIdentifier(languages.toArray(new DetectedLanguage[0]), scripts, keys, rows, weights, unseen);
+    }
+
+    /**
+     * Identifies the language of a text among the languages written in the given script. Only
+     * letters of that script are read; everything else separates words.
+     *
+     * @param text     The text
+     * @param start    Index of the first character to read
+     * @param end      Index after the last character to read
+     * @param script   Script the text is mostly written in
+     * @param expected Language assumed for the script when the text does not clearly say otherwise
+     * @return The most likely language, or null if no profile uses the script or the text has no
+     * letters of it
+     */
+    public DetectedLanguage identify(String text, int start, int end, Script script, DetectedLanguage expected) {
+        int count = languages.length;
+        double[] scores = new double[count];
+        int trigrams = 0;
+
+        int first = -1;
+        int second = BOUNDARY;
+        boolean inWord = false;
+        int i = start;
+        while (i <= end) {
+            int codePoint = i < end ? text.codePointAt(i) : BOUNDARY;
+            i += i < end ? Character.charCount(codePoint) : 1;
+
+            boolean letter = codePoint <= Character.MAX_VALUE && LanguageDetector.scriptOf(codePoint) == script;
+            if (letter) {
+                int lower = Character.toLowerCase(codePoint);
+                if (!inWord) {
+                    first = -1;
+                    second = BOUNDARY;
+                    inWord = true;
+                }
+                if (first >= 0) {
+                    score(scores, pack(first, second, lower));
+                    trigrams++;
+                }
+                first = second;
+                second = lower;
+            } else if (inWord) {
+                score(scores, pack(first, second, BOUNDARY));
+                trigrams++;
+                inWord = false;
+            }
+        }
+
+        if (trigrams == 0) {
+            return null;
+        }
+
+        int best = -1;
+        for (int lang = 0; lang < count; lang++) {
+            if (scripts[lang] != script) {
+                continue;
+            }
+            if (languages[lang] == expected) {
+                scores[lang] += EXPECTED_PRIOR;
+            }
+            if (best < 0 || scores[lang] > scores[best]) {
+                best = lang;
+            }
+        }
+        return best < 0 ? null : languages[best];
+    }
+
+    private void score(double[] scores, long key) {
+        int slot = slot(keys, mask, key);
+        int count = scores.length;
+        if (keys[slot] != key) {
+            for (int lang = 0; lang < count; lang++) {
+                scores[lang] += unseen[lang];
+            }
+            return;
+        }
+        int offset = rows[slot] * count;
+        for (int lang = 0; lang < count; lang++) {
+            scores[lang] += weights[offset + lang];
+        }
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it belongs.
+     */
+    private static int slot(long[] keys, int mask, long key) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long pack(int first, int second, int third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static Script scriptOf(String[] profile) {
+        for (String trigram : profile) {
+            for (int i = 0; i < trigram.length(); i++) {
+                Script script = LanguageDetector.scriptOf(trigram.charAt(i));
+                if (script != Script.OTHER) {
+                    return script;
+                }
+            }
+        }
+        return Script.OTHER;
+    }
+}
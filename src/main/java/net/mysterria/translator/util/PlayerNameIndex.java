@@ -0,0 +1,120 @@
+package net.mysterria.translator.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names of the players currently online, for finding the ones a chat message mentions.
+ * <p>
+ * Minecraft names only contain letters, digits and underscores, so a name can only be mentioned
+ * as a whole run of those characters. A message is therefore split into such runs in a single
+ * pass, and each run of a possible name length is looked up. Only runs spelled exactly as the
+ * player spells their name count, the same rule the entity mask uses, so a player called "Sun"
+ * does not turn every "sun" into a mention. The index is updated as players join and leave
+ * instead of being rebuilt from the online player list for every message.
+ */
+public class PlayerNameIndex {
+
+    private final Map<String, String> names;
+    private volatile int maxLength;
+
+    public PlayerNameIndex() {
+        this.names = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a player who joined.
+     *
+     * @param name The player's name
+     */
+    public void add(String name) {
+        String key = key(name);
+        names.put(key, name);
+        if (key.length() > maxLength) {
+            maxLength = key.length();
+        }
+    }
+
+    /**
+     * Removes a player who left. A Java player and a Bedrock player whose names only differ by the
+     * Bedrock prefix share a key, so the entry is only removed if it belongs to this player.
+     *
+     * @param name The player's name
+     */
+    public void remove(String name) {
+        names.remove(key(name), name);
+    }
+
+    /**
+     * Returns the number of names in the index.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Returns whether a word is the name of an online player, spelled exactly as the player
+     * spells it.
+     *
+     * @param word The word to check
+     */
+    public boolean contains(String word) {
+        String name = names.get(word.toLowerCase(Locale.ROOT));
+        return name != null && name.endsWith(word);
+    }
+
+    /**
+     * Finds the online players a text mentions, spelled exactly as in {@link #contains}. Names the
+     * entity mask already replaced with placeholders are not found again.
+     *
+     * @param text The text to search
+     * @return Names as the players spell them, in order of first mention and without duplicates
+     */
+    public List<String> find(String text) {
+        List<String> found = new ArrayList<>();
+        if (names.isEmpty() || text == null) {
+            return found;
+        }
+
+        int longest = maxLength;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isNameChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isNameChar(text.charAt(i))) {
+                i++;
+            }
+            if (i - start <= longest) {
+                String run = text.substring(start, i);
+                String name = names.get(run.toLowerCase(Locale.ROOT));
+                if (name != null && name.endsWith(run) && !found.contains(name)) {
+                    found.add(name);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Bedrock players joining through a proxy get a prefix such as "." in front of their name,
+     * which nobody types when mentioning them.
+     */
+    private static String key(String name) {
+        int start = 0;
+        while (start < name.length() && !isNameChar(name.charAt(start))) {
+            start++;
+        }
+        return name.substring(start).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}